@@ -1,6 +1,8 @@
 package de.hopp.generator;
 
 import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
 
 import de.hopp.generator.backends.board.BoardBackend;
 import de.hopp.generator.backends.host.HostBackend;
@@ -46,6 +48,9 @@ public class Configuration {
 
     private boolean startGUI  = false;
 
+    // format strings of board-side log call sites
+    private List<String> boardLogs = new LinkedList<String>();
+
 //    /** setup an empty driver generator configuration */
     public Configuration() {
         IO = new IOHandler(this);
@@ -104,6 +109,11 @@ public class Configuration {
         startGUI = true;
     }
 
+    /** set the format strings of the board-side log call sites, indexed by call site id */
+    public void setBoardLogs(List<String> boardLogs) {
+        this.boardLogs = boardLogs;
+    }
+
     public void setUnusued(String[] args) {
         this.args = args;
     }
@@ -143,6 +153,9 @@ public class Configuration {
 
     public boolean startGUI()  { return startGUI; }
 
+    /** get the format strings of the board-side log call sites, indexed by call site id */
+    public List<String> boardLogs() { return boardLogs; }
+
     /** check if the generator is set to produce no console output */
     public boolean QUIET()   { return loglevel == LOG_QUIET; }
     /** check if the generator is set to produce more console output */
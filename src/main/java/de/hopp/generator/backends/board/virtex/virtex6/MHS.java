@@ -15,6 +15,7 @@ import de.hopp.generator.model.mhs.Attributes;
 import de.hopp.generator.model.mhs.Block;
 import de.hopp.generator.model.mhs.Blocks;
 import de.hopp.generator.model.mhs.MHSFile;
+import de.hopp.generator.utils.BoardUtils;
 
 /**
  * Basic .mhs generator for a Xilinx Virtex 6 board.
@@ -28,6 +29,9 @@ import de.hopp.generator.model.mhs.MHSFile;
  */
 public class MHS extends MHSGenerator {
 
+    /** Baud rate of the RS232 UART, which is raised if the UART is used as communication medium. */
+    private int uartBaudRate = 9600;
+
     public MHS(ISEBoard board, IPCoreVersions versions, ErrorCollection errors) {
         super(board, versions, errors);
     }
@@ -113,7 +117,9 @@ public class MHS extends MHSGenerator {
     }
 
     public void visit(UARTPos term) {
-        errors.addError(new ParserError("USB/UART is not supported as communication interface yet", term.pos().term()));
+        // the RS232 UART Lite of the default blocks is already connected to the interrupt controller,
+        // so it only has to run at the baud rate of the host-side driver
+        uartBaudRate = BoardUtils.uartBaudRate;
     }
 
     public void visit(PCIEPos term) {
@@ -333,7 +339,7 @@ public class MHS extends MHSGenerator {
             ), Block("axi_uartlite",
                 Attribute(PARAMETER(), Assignment("INSTANCE", Ident("RS232_Uart_1"))),
                 Attribute(PARAMETER(), Assignment("HW_VER", Ident(versions.axi_uartlite))),
-                Attribute(PARAMETER(), Assignment("C_BAUDRATE", Number(9600))),
+                Attribute(PARAMETER(), Assignment("C_BAUDRATE", Number(uartBaudRate))),
                 Attribute(PARAMETER(), Assignment("C_DATA_BITS", Number(8))),
                 Attribute(PARAMETER(), Assignment("C_USE_PARITY", Number(0))),
                 Attribute(PARAMETER(), Assignment("C_ODD_PARITY", Number(1))),
@@ -6,8 +6,10 @@ import de.hopp.generator.Configuration;
 import de.hopp.generator.ErrorCollection;
 import de.hopp.generator.backends.board.virtex.virtex6.gpio.Gpio;
 import de.hopp.generator.backends.workflow.ise.sdk.DriverVersions;
+import de.hopp.generator.model.BDLFilePos;
 import de.hopp.generator.model.ETHERNETPos;
 import de.hopp.generator.model.GPIOPos;
+import de.hopp.generator.model.UARTPos;
 import de.hopp.generator.model.cpp.MProcedure;
 import de.hopp.generator.model.mhs.MHS;
 import de.hopp.generator.model.mhs.MHSFile;
@@ -35,8 +37,26 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
         addGPIO(Gpio.fromString(term.name().term()).getInstance(), term.callback().termCode());
     }
 
+    @Override
+    public void visit(BDLFilePos board) {
+        // if the RS232 UART is used as communication medium,
+        // standard in- and output are redirected to the JTAG UART of the debug module
+        if(board.medium() instanceof UARTPos) mssFile = getDefaultMSS("debug_module");
+
+        super.visit(board);
+    }
+
     @Override
     protected MHSFile getDefaultMSS() {
+        return getDefaultMSS("rs232_uart_1");
+    }
+
+    /**
+     * Returns the default mss file of the processor.
+     * @param stdio Instance of the UART used as standard in- and output.
+     * @return The mss file.
+     */
+    private MHSFile getDefaultMSS(String stdio) {
         return MHS.MHSFile(
             MHS.Attributes(
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("VERSION", MHS.Ident(versions.mss)))
@@ -44,8 +64,8 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("OS_NAME", MHS.Ident("standalone"))),
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("OS_VER", MHS.Ident(versions.mss_os_standalone))),
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("PROC_INSTANCE", MHS.Ident(proc_inst))),
-                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("STDIN", MHS.Ident("rs232_uart_1"))),
-                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("STDOUT", MHS.Ident("rs232_uart_1")))
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("STDIN", MHS.Ident(stdio))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("STDOUT", MHS.Ident(stdio)))
             ), MHS.Block("PROCESSOR",
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("cpu"))),
                 MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_cpu_mb))),
@@ -126,7 +146,7 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
             MParameter(VALUE(), MPointerType(MType("int")), "val"), MParameter(VALUE(), MType("int"), "target")
         ), MCode(Strings(
             "log_finer(\"\\nreading from out-going port %d ...\", target);",
-            "if(target > 0) {",
+            "if(target > " + (axiStreamIdSlave-1) + ") {",
             "    log_error(\"unknown axi stream port %d\", target);",
             "    return 1;",
             "}",
@@ -139,4 +159,66 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
             "return rslt;"
         ), MQuoteInclude(PRIVATE(), "fsl.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
     }
+
+    @Override
+    protected MProcedure getAxiWriteBurst() {
+        return MProcedure(MDocumentation(Strings(
+            "Write a block of values to an AXI stream.",
+            "Values are put into the stream without blocking, until either all values are written",
+            "or the stream is full."),
+            PARAM("vals", "Values to be written to the stream."),
+            PARAM("n", "Number of values to be written."),
+            PARAM("target", "Target stream identifier."),
+            RETURN("Number of values actually written.")
+        ), MModifiers(PRIVATE()), MType("int"), "axi_write_burst", MParameters(
+            MParameter(VALUE(), MPointerType(MType("int")), "vals"), MParameter(VALUE(), MType("unsigned int"), "n"),
+            MParameter(VALUE(), MType("int"), "target")
+        ), MCode(Strings(
+          "unsigned int i;",
+          "int invalid = 0;",
+          "",
+          "if(target > " + (axiStreamIdMaster-1) + ") {",
+          "    log_error(\"unknown axi stream port %d\", target);",
+          "    return 0;",
+          "}",
+          "for(i = 0; i < n; i++) {",
+          "    putdfslx(vals[i], target, FSL_NONBLOCKING);",
+          "    fsl_isinvalid(invalid);",
+          "    if(invalid) break;",
+          "}",
+          "log_finer(\"\\nwrote %d of %d values to in-going port %d\", i, n, target);",
+          "return i;"
+        ), MQuoteInclude(PRIVATE(), "fsl.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
+    }
+
+    @Override
+    protected MProcedure getAxiReadBurst() {
+        return MProcedure(MDocumentation(Strings(
+            "Read a block of values from an AXI stream.",
+            "Values are got from the stream without blocking, until either all values are read",
+            "or the stream is empty."),
+            PARAM("vals", "Memory area, where the read values will be stored."),
+            PARAM("n", "Number of values to be read."),
+            PARAM("target", "Target stream identifier."),
+            RETURN("Number of values actually read.")
+        ), MModifiers(PRIVATE()), MType("int"), "axi_read_burst", MParameters(
+            MParameter(VALUE(), MPointerType(MType("int")), "vals"), MParameter(VALUE(), MType("unsigned int"), "n"),
+            MParameter(VALUE(), MType("int"), "target")
+        ), MCode(Strings(
+            "unsigned int i;",
+            "int invalid = 0;",
+            "",
+            "if(target > " + (axiStreamIdSlave-1) + ") {",
+            "    log_error(\"unknown axi stream port %d\", target);",
+            "    return 0;",
+            "}",
+            "for(i = 0; i < n; i++) {",
+            "    getdfslx(vals[i], target, FSL_NONBLOCKING);",
+            "    fsl_isinvalid(invalid);",
+            "    if(invalid) break;",
+            "}",
+            "log_finer(\"\\nread %d of %d values from out-going port %d\", i, n, target);",
+            "return i;"
+        ), MQuoteInclude(PRIVATE(), "fsl.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
+    }
 }
@@ -2,18 +2,15 @@ package de.hopp.generator.backends.board.zed;
 
 import static de.hopp.generator.backends.workflow.ise.xps.MHSUtils.add;
 import static de.hopp.generator.model.mhs.MHS.*;
-import static de.hopp.generator.utils.BoardUtils.getDirection;
 import de.hopp.generator.ErrorCollection;
 import de.hopp.generator.backends.Memory;
 import de.hopp.generator.backends.workflow.ise.ISEBoard;
 import de.hopp.generator.backends.workflow.ise.xps.IPCoreVersions;
 import de.hopp.generator.backends.workflow.ise.xps.MHSGenerator;
 import de.hopp.generator.exceptions.UsageError;
-import de.hopp.generator.model.CPUAxisPos;
 import de.hopp.generator.model.ETHERNETPos;
 import de.hopp.generator.model.PCIEPos;
 import de.hopp.generator.model.UARTPos;
-import de.hopp.generator.model.mhs.Attribute;
 import de.hopp.generator.model.mhs.Attributes;
 import de.hopp.generator.model.mhs.Block;
 import de.hopp.generator.model.mhs.MHSFile;
@@ -29,64 +26,64 @@ public class MHS extends MHSGenerator {
     }
 
     public void visit(UARTPos term) {
-        // TODO Auto-generated method stub
+        // the UART medium requires an AXI UART Lite with an AXI interrupt controller,
+        // but the UARTs of the ZedBoard are part of the processing system
+        errors.addError(new UsageError("ZedBoard does not support USB/UART as communication medium"));
     }
 
     public void visit(PCIEPos term) {
         errors.addError(new UsageError("ZedBoard does not support PCIe as communication medium"));
     }
 
-    // GENERAL IDEA:
-    // - count number of axi fifo components
-    // - we know, each component comes with a master and a slave port
-    // - if the count corresponding to the current direction is lower, then the fifo count, use existing fifo
-    // - otherwise, add a fifo
-
-    protected int fifoCount = 0;
-
-    protected Block createFIFO() {
-        String axisMaster = "M" + fifoCount + "_AXIS";
-        String axisSlave  = "S" + fifoCount + "_AXIS";
-        String ident      = "axi_fifo_mm_s_" + fifoCount++;
+    // Each AXI-Stream FIFO provides an in-going stream (AXI_STR_TXD) and an out-going stream (AXI_STR_RXD)
+    // to the processor. FIFO i serves the in-going stream i and the out-going stream i,
+    // so there are as many FIFOs as streams in the direction with more streams.
 
-        Memory.Range axi4memRange = board.getMemory().allocateMemory(0xfff);
-        Memory.Range memRange = board.getMemory().allocateMemory(0xfff);
+    /**
+     * Creates an AXI-Stream FIFO, through which the processor writes and reads AXI streams.
+     *
+     * The processor accesses the FIFO over its AXI4-Lite register interface.
+     * Only the streams, which are actually bound to a component, are connected.
+     * Since components do not frame their output, TLAST of the receiving stream is tied high.
+     * Consequently, each received value forms a packet of its own.
+     * @param id Index of the FIFO.
+     * @return The FIFO block.
+     */
+    protected Block createFIFO(int id) {
+        Memory.Range memRange = board.getMemory().allocateMemory(0xffff);
 
-        return de.hopp.generator.model.mhs.MHS.Block("axi_fifo_mm_s",
-            Attribute(PARAMETER(), Assignment("INSTANCE", Ident(ident))),
+        Block fifo = de.hopp.generator.model.mhs.MHS.Block("axi_fifo_mm_s",
+            Attribute(PARAMETER(), Assignment("INSTANCE", Ident("axi_fifo_mm_s_" + id))),
             Attribute(PARAMETER(), Assignment("HW_VER", Ident(versions.axi_fifo))),
             Attribute(PARAMETER(), Assignment("C_DATA_INTERFACE_TYPE", Number(0))),
-            Attribute(PARAMETER(), Assignment("C_AXI4_BASEADDR", MemAddr(axi4memRange.getBaseAddress()))),
-            Attribute(PARAMETER(), Assignment("C_AXI4_HIGHADDR", MemAddr(axi4memRange.getHighAddress()))),
             Attribute(PARAMETER(), Assignment("C_BASEADDR", MemAddr(memRange.getBaseAddress()))),
             Attribute(PARAMETER(), Assignment("C_HIGHADDR", MemAddr(memRange.getHighAddress()))),
-            Attribute(PARAMETER(), Assignment("C_INTERCONNECT_S_AXI_MASTERS", Ident("axi_cdma_0.M_AXI"))),
-            Attribute(BUS_IF(), Assignment("S_AXI", Ident("axi_interconnect_0"))),
-            Attribute(BUS_IF(), Assignment("AXI_STR_TXD", Ident(axisMaster))),
-            Attribute(BUS_IF(), Assignment("AXI_STR_RXD", Ident(axisSlave))),
-            Attribute(PORT(), Assignment("S_AXI_ACLK", Ident(board.getClock().getClockPort(100))))
+            Attribute(BUS_IF(), Assignment("S_AXI", Ident("axi4lite_0")))
         );
-    }
 
-    @Override
-    protected Attribute createCPUAxisBinding(final CPUAxisPos axis) throws UsageError {
-        // if required, add a FIFO to the design (translating from full AXI4 to AXI4 stream)
-        boolean direct = direction(getDirection(axis).termDirection());
-        System.out.println("direction : " + direct);
-        System.out.println("fifo count: " + fifoCount);
-        System.out.println("master count: " + axiStreamIdMaster);
-        System.out.println("slave count : " + axiStreamIdSlave);
-        if((direct && fifoCount <= axiStreamIdMaster) || (!direct && fifoCount <= axiStreamIdSlave))
-            mhs = add(mhs, createFIFO());
+        if(id < axiStreamIdMaster) fifo = add(fifo,
+            Attribute(BUS_IF(), Assignment("AXI_STR_TXD", Ident("M" + id + "_AXIS")))
+        );
+        if(id < axiStreamIdSlave) fifo = add(fifo, Attributes(
+            Attribute(BUS_IF(), Assignment("AXI_STR_RXD", Ident("S" + id + "_AXIS"))),
+            Attribute(PORT(), Assignment("AXI_STR_RXD_TLAST", Ident("net_vcc")))
+        ));
 
-        return super.createCPUAxisBinding(axis);
+        return add(fifo,
+            Attribute(PORT(), Assignment("S_AXI_ACLK", Ident(board.getClock().getClockPort(100))))
+        );
     }
 
     @Override
     protected MHSFile getDefault() {
         MHSFile mhs = MHSFile(getAttributes(), getPS7());
         mhs = add(mhs, getAxiInterconnects());
-        mhs = add(mhs, getCDMA());
+
+        // the FIFOs (translating from AXI4-Lite to AXI4 stream) are added after all bindings have been visited,
+        // since only then the streams of both directions are known
+        for(int i = 0; i < Math.max(axiStreamIdMaster, axiStreamIdSlave); i++)
+            mhs = add(mhs, createFIFO(i));
+
         return mhs;
     }
 
@@ -201,7 +198,6 @@ public class MHS extends MHSGenerator {
             Attribute(PARAMETER(), Assignment("C_DDR_RAM_HIGHADDR", MemAddr(0x1FFFFFFF))),
             // Used AXI Ports
             Attribute(PARAMETER(), Assignment("C_USE_M_AXI_GP0", Number(1))),
-            Attribute(PARAMETER(), Assignment("C_USE_S_AXI_HP0", Number(1))),
             // I/O Peripherals
             Attribute(PARAMETER(), Assignment("C_EN_EMIO_CAN0", Number(0))),
             Attribute(PARAMETER(), Assignment("C_EN_EMIO_CAN1", Number(0))),
@@ -262,10 +258,8 @@ public class MHS extends MHSGenerator {
             Attribute(PARAMETER(), Assignment("C_USE_CR_FABRIC", Number(1))),
             // TODO No idea what this does and if we need it...
             Attribute(PARAMETER(), Assignment("C_NUM_F2P_INTR_INPUTS", Number(1))),
-            Attribute(PARAMETER(), Assignment("C_INTERCONNECT_S_AXI_HP0_MASTERS", Ident("axi_cdma_0.M_AXI"))),
             // AXI bus interfaces
             Attribute(BUS_IF(), Assignment("M_AXI_GP0", Ident("axi4lite_0"))),
-            Attribute(BUS_IF(), Assignment("S_AXI_HP0", Ident("axi_interconnect_0"))),
             // port connections
             Attribute(PORT(), Assignment("MIO", Ident("processing_system7_0_MIO"))),
             Attribute(PORT(), Assignment("PS_SRSTB", Ident("processing_system7_0_PS_SRSTB"))),
@@ -291,7 +285,6 @@ public class MHS extends MHSGenerator {
             Attribute(PORT(), Assignment("FCLK_CLK0", Ident(board.getClock().getClockPort(100)))),
             Attribute(PORT(), Assignment("FCLK_RESET0_N", Ident(getResetPort()))),
             Attribute(PORT(), Assignment("M_AXI_GP0_ACLK", Ident(board.getClock().getClockPort(100)))),
-            Attribute(PORT(), Assignment("S_AXI_HP0_ACLK", Ident(board.getClock().getClockPort(100)))),
             Attribute(PORT(), Assignment("IRQ_F2P", intrCntrlPorts))
         );
     }
@@ -304,33 +297,10 @@ public class MHS extends MHSGenerator {
                 Attribute(PARAMETER(), Assignment("C_INTERCONNECT_CONNECTIVITY_MODE", Number(0))),
                 Attribute(PORT(), Assignment("INTERCONNECT_ACLK", Ident(board.getClock().getClockPort(100)))),
                 Attribute(PORT(), Assignment("INTERCONNECT_ARESETN", Ident("M_AXI_GP0_ARESETN")))
-            )), Block("axi_interconnect", Attributes(
-                Attribute(PARAMETER(), Assignment("INSTANCE", Ident("axi_interconnect_0"))),
-                Attribute(PARAMETER(), Assignment("HW_VER", Ident(versions.axi_interconnect))),
-                Attribute(PARAMETER(), Assignment("C_INTERCONNECT_CONNECTIVITY_MODE", Number(1))),
-                Attribute(PORT(), Assignment("INTERCONNECT_ACLK", Ident(board.getClock().getClockPort(100)))),
-                Attribute(PORT(), Assignment("INTERCONNECT_ARESETN", Ident("S_AXI_HP0_ARESETN")))
             ))
         );
     }
 
-    private MHSFile getCDMA() {
-        Memory.Range memRange = board.getMemory().allocateMemory(0xffff);
-        return MHSFile(Attributes(), Block("axi_cdma",
-            Attribute(PARAMETER(), Assignment("INSTANCE", Ident("axi_cdma_0"))),
-            Attribute(PARAMETER(), Assignment("HW_VER", Ident(versions.axi_cdma))),
-            Attribute(PARAMETER(), Assignment("C_INCLUDE_SG", Number(0))),
-            Attribute(PARAMETER(), Assignment("C_ENABLE_KEYHOLE", Number(0))),
-            Attribute(PARAMETER(), Assignment("C_BASEADDR", MemAddr(memRange.getBaseAddress()))),
-            Attribute(PARAMETER(), Assignment("C_HIGHADDR", MemAddr(memRange.getHighAddress()))),
-            Attribute(BUS_IF(), Assignment("S_AXI_LITE", Ident("axi4lite_0"))),
-            Attribute(BUS_IF(), Assignment("M_AXI", Ident("axi_interconnect_0"))),
-            Attribute(PORT(), Assignment("M_AXI_ACLK", Ident(board.getClock().getClockPort(100)))),
-            Attribute(PORT(), Assignment("S_AXI_LITE_ACLK", Ident(board.getClock().getClockPort(100)))),
-            Attribute(PORT(), Assignment("cdma_introut", Ident("axi_cdma_0_cdma_introut")))
-        ));
-    }
-
     @Override
     protected String getResetPort() {
         return "processing_system7_0_FCLK_RESET0_N_0";
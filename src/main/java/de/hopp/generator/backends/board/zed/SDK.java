@@ -1,23 +1,41 @@
 package de.hopp.generator.backends.board.zed;
 
+import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkDir;
 import static de.hopp.generator.backends.workflow.ise.xps.MHSUtils.add;
 import static de.hopp.generator.model.cpp.CPP.*;
+import static de.hopp.generator.utils.CPPUtils.add;
+
+import java.io.File;
+
 import de.hopp.generator.Configuration;
 import de.hopp.generator.ErrorCollection;
 import de.hopp.generator.backends.board.zed.gpio.Gpio;
 import de.hopp.generator.backends.workflow.ise.sdk.DriverVersions;
+import de.hopp.generator.model.BDLFilePos;
+import de.hopp.generator.model.CPUAxisPos;
 import de.hopp.generator.model.ETHERNETPos;
 import de.hopp.generator.model.GPIOPos;
+import de.hopp.generator.model.cpp.MFile;
 import de.hopp.generator.model.cpp.MProcedure;
+import de.hopp.generator.model.mhs.Block;
 import de.hopp.generator.model.mhs.MHS;
 import de.hopp.generator.model.mhs.MHSFile;
 
 public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerator {
 
     private final String proc_inst = "ps7_cortexa9_0";
+    /** processor moving stream data for the split scheduler */
+    private final String stream_inst = "ps7_cortexa9_1";
+
+    /** target directory of all sdk projects */
+    private final File sdkDir;
+
+    /** number of AXI-Stream FIFOs, through which the processor accesses its AXI streams */
+    private int fifoCount = 0;
 
     public SDK(Configuration config, DriverVersions versions, ErrorCollection errors) {
         super(config, versions, errors);
+        sdkDir = sdkDir(config);
     }
 
     @Override
@@ -25,6 +43,70 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
         addGPIO(Gpio.fromString(term.name().term()).getInstance(), term.callback().termCode());
     }
 
+    @Override
+    public void visit(BDLFilePos board) {
+        super.visit(board);
+
+        // the number of FIFOs is known only after all bindings have been visited
+        components = addFIFOs(components);
+
+        if(streamComponents == null) return;
+
+        // the stream processor accesses the FIFOs instead of the medium processor
+        streamComponents = addFIFOs(streamComponents);
+
+        // deploy the mailbox and the projects of the stream processor
+        deployFiles.put(new File("deploy/board/zed/sdk/split"), sdkDir);
+    }
+
+    @Override
+    public void visit(CPUAxisPos axis) {
+        super.visit(axis);
+
+        // FIFO i serves the in-going stream i and the out-going stream i
+        for(; fifoCount < Math.max(axiStreamIdMaster, axiStreamIdSlave); fifoCount++) {
+            Block driver = MHS.Block("DRIVER",
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("generic"))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_generic))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident("axi_fifo_mm_s_" + fifoCount)))
+            );
+            mssFile = add(mssFile, driver);
+            if(streamMssFile != null) streamMssFile = add(streamMssFile, driver);
+        }
+    }
+
+    /**
+     * Both Cortex-A9 cores are available for the split scheduler.
+     * The second core runs a standalone application without access to the medium,
+     * so that its board support package only requires the drivers of the AXI-Stream FIFOs.
+     */
+    @Override
+    protected MHSFile getDefaultStreamMSS() {
+        return MHS.MHSFile(MHS.Attributes(
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("VERSION", MHS.Ident(versions.mss)))
+            ), MHS.Block("OS",
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("OS_NAME", MHS.Ident("standalone"))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("OS_VER", MHS.Ident(versions.mss_os_standalone))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("PROC_INSTANCE", MHS.Ident(stream_inst)))
+            ), MHS.Block("PROCESSOR",
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("cpu_cortexa9"))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_cpu_ca9))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident(stream_inst))),
+                // the first core owns the shared caches and the interrupt controller
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("EXTRA_COMPILER_FLAGS", MHS.Ident("-g -DUSE_AMP=1")))
+            )
+        );
+    }
+
+    /**
+     * The mailbox is placed in the upper on-chip memory, which is not used by the application of the first core.
+     * The last 512 bytes remain reserved, since they hold the start address of the second core.
+     */
+    @Override
+    protected int getMailboxSize() {
+        return 0xFE00;
+    }
+
     @Override
     protected MHSFile getDefaultMSS() {
         return MHS.MHSFile(MHS.Attributes(
@@ -148,12 +230,49 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
         return add(driver, getLWIPLibrary(proc_inst, term));
     }
 
+    /**
+     * Adds the register offsets of the AXI-Stream FIFOs and a table of their base addresses
+     * to a components file. The table is only added, if there is at least one FIFO.
+     * @param file The components file of the processor accessing the FIFOs.
+     * @return The extended components file.
+     */
+    private MFile addFIFOs(MFile file) {
+        final String[][] regs = {
+            { "TDFV", "0x0C", "transmit data FIFO vacancy (in values)" },
+            { "TDFD", "0x10", "transmit data FIFO data write port" },
+            { "TLR",  "0x14", "transmit length (in bytes), starts the transmission of a packet" },
+            { "RDFO", "0x1C", "receive data FIFO occupancy (in values)" },
+            { "RDFD", "0x20", "receive data FIFO data read port" },
+            { "RLR",  "0x24", "receive length (in bytes) of the next packet" }
+        };
+        for(String[] reg : regs)
+            file = add(file, MDef(MDocumentation(Strings(
+                    "Offset of the AXI-Stream FIFO register: " + reg[2]
+                )), MModifiers(PRIVATE()), "AXI_FIFO_" + reg[0], reg[1]));
+
+        if(fifoCount == 0) return file;
+
+        StringBuffer addrs = new StringBuffer("{");
+        for(int i = 0; i < fifoCount; i++)
+            addrs.append((i == 0 ? " " : ", ") + "XPAR_AXI_FIFO_MM_S_" + i + "_BASEADDR");
+        addrs.append(" }");
+
+        file = add(file, MAttribute(MDocumentation(Strings(
+                "Base addresses of the AXI-Stream FIFOs, indexed by stream id."
+            )), MModifiers(PRIVATE()), MArrayType(MType("const unsigned int"), String.valueOf(fifoCount)),
+            "axi_fifo", MCodeFragment(addrs.toString(), MQuoteInclude(PRIVATE(), "xparameters.h"))));
+
+        return file;
+    }
+
     @Override
     protected MProcedure getAxiWrite() {
         return MProcedure(MDocumentation(Strings(
-            "Write a value to an AXI stream."),
+            "Write a value to an AXI stream.",
+            "The value is sent through the AXI-Stream FIFO of the stream as packet of its own."),
             PARAM("val", "Value to be written to the stream."),
-            PARAM("target", "Target stream identifier.")
+            PARAM("target", "Target stream identifier."),
+            RETURN("0 if successful, 1 if the FIFO is full.")
         ), MModifiers(PRIVATE()), MType("int"), "axi_write", MParameters(
             MParameter(VALUE(), MType("int"), "val"), MParameter(VALUE(), MType("int"), "target")
         ), MCode(Strings(
@@ -162,36 +281,105 @@ public class SDK extends de.hopp.generator.backends.workflow.ise.sdk.SDKGenerato
           "    log_error(\"unknown axi stream port %d\", target);",
           "    return 1;",
           "}",
-          "// putdfslx(val, target, FSL_NONBLOCKING);",
+          "if(Xil_In32(axi_fifo[target] + AXI_FIFO_TDFV) == 0) {",
+          "    log_finer(\" (full)\");",
+          "    return 1;",
+          "}",
           "",
-          "int rslt = 1;",
-          "// fsl_isinvalid(rslt);",
-          "log_finer(\" (invalid: %d)\", rslt);",
-          "return rslt;"
-        ), MQuoteInclude(PRIVATE(), "../constants.h")));
+          "Xil_Out32(axi_fifo[target] + AXI_FIFO_TDFD, val);",
+          "Xil_Out32(axi_fifo[target] + AXI_FIFO_TLR, sizeof(int));",
+          "return 0;"
+        ), MQuoteInclude(PRIVATE(), "xil_io.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
     }
 
     @Override
     protected MProcedure getAxiRead() {
         return MProcedure(MDocumentation(Strings(
-            "Read a value from an AXI stream."),
+            "Read a value from an AXI stream.",
+            "Each value is received through the AXI-Stream FIFO of the stream as packet of its own."),
             PARAM("val", "Pointer to the memory area, where the read value will be stored."),
-            PARAM("target", "Target stream identifier.")
+            PARAM("target", "Target stream identifier."),
+            RETURN("0 if successful, 1 if the FIFO is empty.")
         ), MModifiers(PRIVATE()), MType("int"), "axi_read", MParameters(
             MParameter(VALUE(), MPointerType(MType("int")), "val"), MParameter(VALUE(), MType("int"), "target")
         ), MCode(Strings(
             "log_finer(\"\\nreading from out-going port %d ...\", target);",
-            "if(target > 0) {",
+            "if(target > " + (axiStreamIdSlave-1) + ") {",
             "    log_error(\"unknown axi stream port %d\", target);",
             "    return 1;",
             "}",
-            "// getdfslx(*val, target, FSL_NONBLOCKING);",
+            "if(Xil_In32(axi_fifo[target] + AXI_FIFO_RDFO) == 0) {",
+            "    log_finer(\" (empty)\");",
+            "    return 1;",
+            "}",
             "",
+            "// the packet length is always a single value, but has to be read to advance to the next packet",
+            "Xil_In32(axi_fifo[target] + AXI_FIFO_RLR);",
+            "*val = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFD);",
             "log_finer(\"\\n %d\", *val);",
-            "int rslt = 1;",
-            "// fsl_isinvalid(rslt);",
-            "log_finer(\" (invalid: %d)\", rslt);",
-            "return rslt;"
-        ), MQuoteInclude(PRIVATE(), "../constants.h")));
+            "return 0;"
+        ), MQuoteInclude(PRIVATE(), "xil_io.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
+    }
+
+    @Override
+    protected MProcedure getAxiWriteBurst() {
+        return MProcedure(MDocumentation(Strings(
+            "Write a block of values to an AXI stream.",
+            "As many values as fit into the AXI-Stream FIFO of the stream are sent as a single packet."),
+            PARAM("vals", "Values to be written to the stream."),
+            PARAM("n", "Number of values to be written."),
+            PARAM("target", "Target stream identifier."),
+            RETURN("Number of values actually written.")
+        ), MModifiers(PRIVATE()), MType("int"), "axi_write_burst", MParameters(
+            MParameter(VALUE(), MPointerType(MType("int")), "vals"), MParameter(VALUE(), MType("unsigned int"), "n"),
+            MParameter(VALUE(), MType("int"), "target")
+        ), MCode(Strings(
+          "unsigned int i, vacancy;",
+          "",
+          "if(target > " + (axiStreamIdMaster-1) + ") {",
+          "    log_error(\"unknown axi stream port %d\", target);",
+          "    return 0;",
+          "}",
+          "vacancy = Xil_In32(axi_fifo[target] + AXI_FIFO_TDFV);",
+          "if(n > vacancy) n = vacancy;",
+          "if(n == 0) return 0;",
+          "",
+          "for(i = 0; i < n; i++) Xil_Out32(axi_fifo[target] + AXI_FIFO_TDFD, vals[i]);",
+          "Xil_Out32(axi_fifo[target] + AXI_FIFO_TLR, n * sizeof(int));",
+          "log_finer(\"\\nwrote %d values to in-going port %d\", n, target);",
+          "return n;"
+        ), MQuoteInclude(PRIVATE(), "xil_io.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
+    }
+
+    @Override
+    protected MProcedure getAxiReadBurst() {
+        return MProcedure(MDocumentation(Strings(
+            "Read a block of values from an AXI stream.",
+            "All values available in the AXI-Stream FIFO of the stream are read, up to the requested number.",
+            "Since each value is received as packet of its own, the length of each packet is read as well."),
+            PARAM("vals", "Memory area, where the read values will be stored."),
+            PARAM("n", "Number of values to be read."),
+            PARAM("target", "Target stream identifier."),
+            RETURN("Number of values actually read.")
+        ), MModifiers(PRIVATE()), MType("int"), "axi_read_burst", MParameters(
+            MParameter(VALUE(), MPointerType(MType("int")), "vals"), MParameter(VALUE(), MType("unsigned int"), "n"),
+            MParameter(VALUE(), MType("int"), "target")
+        ), MCode(Strings(
+            "unsigned int i, occupancy;",
+            "",
+            "if(target > " + (axiStreamIdSlave-1) + ") {",
+            "    log_error(\"unknown axi stream port %d\", target);",
+            "    return 0;",
+            "}",
+            "occupancy = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFO);",
+            "if(n > occupancy) n = occupancy;",
+            "",
+            "for(i = 0; i < n; i++) {",
+            "    Xil_In32(axi_fifo[target] + AXI_FIFO_RLR);",
+            "    vals[i] = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFD);",
+            "}",
+            "log_finer(\"\\nread %d values from out-going port %d\", n, target);",
+            "return n;"
+        ), MQuoteInclude(PRIVATE(), "xil_io.h"), MQuoteInclude(PRIVATE(), "../constants.h")));
     }
 }
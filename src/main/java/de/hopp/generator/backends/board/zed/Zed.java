@@ -101,6 +101,10 @@ public class Zed implements ISEBoard_14_4, ISEBoard_14_6, VivadoBoard {
         files.add(new File(sdkDir(config), "app/Debug/app.elf"));
         files.add(new File(sdkDir(config), "hw/ps7_init.tcl"));
 
+        // the application of the second core only exists for the split scheduler
+        if(new File(sdkDir(config), "stream").exists())
+            files.add(new File(sdkDir(config), "stream/Debug/stream.elf"));
+
         return files;
     }
 
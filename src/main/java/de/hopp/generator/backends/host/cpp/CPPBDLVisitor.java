@@ -4,14 +4,17 @@ import static de.hopp.generator.model.cpp.CPP.*;
 import static de.hopp.generator.utils.BoardUtils.defaultQueueSizeHW;
 import static de.hopp.generator.utils.BoardUtils.defaultQueueSizeSW;
 import static de.hopp.generator.utils.BoardUtils.getPort;
+import static de.hopp.generator.utils.BoardUtils.getSWQueueSize32;
 import static de.hopp.generator.utils.BoardUtils.getWidth;
 import static de.hopp.generator.utils.BoardUtils.isPolling;
+import static de.hopp.generator.utils.BoardUtils.uartBaudRate;
 import static de.hopp.generator.utils.CPPUtils.add;
 import static de.hopp.generator.utils.CPPUtils.addDoc;
 import static de.hopp.generator.utils.CPPUtils.addInit;
 import static de.hopp.generator.utils.CPPUtils.addParam;
 
 import java.io.File;
+import java.util.List;
 
 import katja.common.NE;
 import de.hopp.generator.Configuration;
@@ -19,6 +22,7 @@ import de.hopp.generator.ErrorCollection;
 import de.hopp.generator.backends.board.BoardBackend;
 import de.hopp.generator.backends.board.GpioComponent;
 import de.hopp.generator.exceptions.ParserError;
+import de.hopp.generator.exceptions.ParserWarning;
 import de.hopp.generator.exceptions.UsageError;
 import de.hopp.generator.model.*;
 import de.hopp.generator.model.BDLFilePos.Visitor;
@@ -33,6 +37,9 @@ public class CPPBDLVisitor extends Visitor<NE> {
     BoardBackend board;
     ErrorCollection errors;
 
+    // format strings of the board-side log call sites
+    List<String> boardLogs;
+
     // generated files
     MFile comps;
     MFile consts;
@@ -47,12 +54,16 @@ public class CPPBDLVisitor extends Visitor<NE> {
     private int  pi = 0,  po = 0;
     private int gpi = 0, gpo = 0;
 
+    // comma-separated sizes of the board-side software queues of in-going ports (in order of port ids)
+    private String windows = "";
+
   // local variables for global default methods
 //  private MMethod clean;
 
     public CPPBDLVisitor(Configuration config, ErrorCollection errors) {
         this.board = config.board();
         this.errors = errors;
+        this.boardLogs = config.boardLogs();
         String clientSrc = new File(config.hostDir(), "src").getPath();
         String clientApi = new File(clientSrc, "api").getPath();
 
@@ -72,11 +83,13 @@ public class CPPBDLVisitor extends Visitor<NE> {
 
         boolean debug = false;
         int queueSizeSW = defaultQueueSizeSW, queueSizeHW = defaultQueueSizeHW;
+        TRACE trace = null;
 
         for(Option o : term.opts().term()) {
             // duplicates and invalid parameters are already caught by sanity check
             if(o instanceof HWQUEUE) queueSizeHW = ((HWQUEUE)o).qsize();
             if(o instanceof SWQUEUE) queueSizeSW = ((SWQUEUE)o).qsize();
+            if(o instanceof TRACE)   trace = (TRACE)o;
 //            if(o instanceof DEBUG)   debug = true;
         }
 
@@ -92,6 +105,13 @@ public class CPPBDLVisitor extends Visitor<NE> {
                 "This is equivalent with the maximal number of values, " +
                 "that should be send in one message"
             )), MModifiers(PUBLIC()), "QUEUE_SIZE_SW", String.valueOf(queueSizeSW)));
+        consts = add(consts, MDef(MDocumentation(Strings(
+                "If set, enables event tracing of the I/O threads.",
+                "Without tracing, no trace events are recorded at all."
+            )), MModifiers(PUBLIC()), "TRACE", trace != null ? "1" : "0"));
+        if(trace != null) consts = add(consts, MDef(MDocumentation(Strings(
+                "The file, to which trace events are exported on shutdown."
+            )), MModifiers(PUBLIC()), "TRACE_FILE", "\"" + trace.file() + "\""));
 
         visit(term.logs());
         visit(term.medium());
@@ -103,6 +123,10 @@ public class CPPBDLVisitor extends Visitor<NE> {
         consts = add(consts, MDef(MDocumentation(Strings(
                 "The number of in-going component ports"
             )), MModifiers(PUBLIC()),  "IN_PORT_COUNT", String.valueOf(pi)));
+        consts = add(consts, MDef(MDocumentation(Strings(
+                "Initialiser of the number of 32-bit values, that can be sent to each in-going port at once.",
+                "This is the size of the boards software queue of the port, which may be a large ddr buffer."
+            )), MModifiers(PUBLIC()), "IN_PORT_WINDOWS", "{ " + (windows.isEmpty() ? "0" : windows) + " }"));
         consts = add(consts, MDef(MDocumentation(Strings(
                 "The number of out-going component ports"
             )), MModifiers(PUBLIC()), "OUT_PORT_COUNT", String.valueOf(po)));
@@ -120,6 +144,18 @@ public class CPPBDLVisitor extends Visitor<NE> {
     public void visit(LogsPos term) {
         addLogger("logger_host",  "Host:  ", term.host().termLog());
         addLogger("logger_board", "Board: ", term.board().termLog());
+
+        // add the format strings of the board-side log call sites
+        StringBuffer formats = new StringBuffer("{");
+        for(String format : boardLogs) formats.append("\n    " + format + ",");
+        formats.append("\n    NULL\n}");
+
+        logger = add(logger, MAttribute(MDocumentation(Strings()),
+            MModifiers(), MArrayType(MType("const char*"), String.valueOf(boardLogs.size() + 1)),
+            "board_log_formats", MCodeFragment(formats.toString())));
+        consts = add(consts, MDef(MDocumentation(Strings(
+                "The number of log call sites of the board"
+            )), MModifiers(PUBLIC()), "BOARD_LOG_COUNT", String.valueOf(boardLogs.size())));
     }
 
     private void addLogger(final String name, final String prefix, final Log log) {
@@ -156,7 +192,14 @@ public class CPPBDLVisitor extends Visitor<NE> {
         }
     }
 
-    public void visit(UARTPos term) { }
+    public void visit(UARTPos term) {
+        consts = add(consts, MDef(
+            MDocumentation(Strings("Default serial device for UART communication")),
+            MModifiers(PUBLIC()), "UART_DEVICE", "\"/dev/ttyUSB0\""));
+        consts = add(consts, MDef(
+            MDocumentation(Strings("Baud rate for UART communication")),
+            MModifiers(PUBLIC()), "UART_BAUDRATE", String.valueOf(uartBaudRate)));
+    }
 
     public void visit(PCIEPos term) { }
 
@@ -188,18 +231,24 @@ public class CPPBDLVisitor extends Visitor<NE> {
     public void visit(InstancePos term) {
         if(!hasCPUConnection(term)) return;
 
+        // replicas of a pool share a single class named after the pool
+        String name = term.name().term();
+        int replicas = term.replicas().term();
+        int index = replicas > 0 ? Integer.valueOf(name.substring(name.lastIndexOf('_') + 1)) : 0;
+        String type = replicas > 0 ? name.substring(0, name.lastIndexOf('_')) : name;
+
         comp = MClass(MDocumentation(Strings(
-                "An abstract representation of the #" + term.name().term() + " core."
+                "An abstract representation of the #" + type + " core."
             ), SEE("components.h for a list of core instances within this board driver.")
-            ), MModifiers(), term.name().term(), MExtends(MExtend(PRIVATE(), MType("component"))),
+            ), MModifiers(), type, MExtends(MExtend(PRIVATE(), MType("component"))),
             MStructs(), MEnums(), MAttributes(), MMethods());
 
         constructor = MConstr(MDocumentation(Strings(
-                "Constructor for the #" + term.name().term() + " core.",
-                "Creates a new " + term.name().term() + " instance on a board attached to the provided communication medium."
+                "Constructor for the #" + type + " core.",
+                "Creates a new " + type + " instance on a board attached to the provided communication medium."
             )), MModifiers(PUBLIC()), MParameters(), MMemberInits(), MCode(Strings(), MQuoteInclude(PRIVATE(), "component.h")));
         destructor  = MDestr(MDocumentation(Strings(
-                "Destructor for the #" + term.name().term() + " core.",
+                "Destructor for the #" + type + " core.",
                 "Deletes registered ports and unregisters the core from the communication medium."
             )), MModifiers(PUBLIC()), MParameters(), MCode(Strings()));
 
@@ -207,23 +256,76 @@ public class CPPBDLVisitor extends Visitor<NE> {
         // add ports
         for(BindingPos bind : term.bind()) {
             if(! (bind instanceof CPUAxisPos)) continue; // skip non-cpu axis
+            String port = ((CPUAxisPos)bind).port().term();
+            if(isMasterConnection(bind)) addPortId("IN",  name, port, pi);
+            if(isSlaveConnection(bind))  addPortId("OUT", name, port, po);
+            if(isMasterConnection(bind)) windows += (pi > 0 ? ", " : "") + getSWQueueSize32((CPUAxisPos)bind);
             if(isMasterConnection(bind)) init = add(init, String.valueOf(pi++));
             if(isSlaveConnection(bind))  init = add(init, String.valueOf(po++));
             if(isSlaveConnection(bind))  init = add(init, isPolling((CPUAxisPos)bind) ? "1" : "0");
         }
 
-        // visit bindings to add ports to component
-        visit(term.bind());
+        // the class of a pool is only added once
+        if(index == 0) {
+            // visit bindings to add ports to component
+            visit(term.bind());
 
-        // compose class and add to file
-        comp  = add(comp,  constructor);
-        comp  = add(comp,  destructor);
-        comps = add(comps, comp);
+            // compose class and add to file
+            comp  = add(comp,  constructor);
+            comp  = add(comp,  destructor);
+            comps = add(comps, comp);
+        }
 
         // add attribute to component file
         comps = add(comps, MAttribute(MDocumentation(Strings(
-                "An instance of the #" + term.name().term() + " core."
-            )), MModifiers(PUBLIC()), MType("class " + term.name().term()), term.name().term(), init));
+                replicas > 0 ? "Replica " + index + " of the #" + type + " pool." :
+                "An instance of the #" + type + " core."
+            )), MModifiers(PUBLIC()), MType("class " + type), name, init));
+
+        // add the pool after its last replica
+        if(replicas > 0 && index == replicas - 1) addPool(term, type, replicas);
+    }
+
+    /**
+     * Adds a pool of all replicas of a replicated instance to the component file.
+     * Pools are only generated for cores bound to the cpu with exactly one in-going and
+     * one out-going port. A warning is added for all other replicated instances,
+     * whose replicas remain accessible individually.
+     * @param term The last replica of the replicated instance
+     * @param pool Name of the replicated instance
+     * @param replicas Number of replicas
+     */
+    private void addPool(InstancePos term, String pool, int replicas) {
+        CPUAxisPos in = null, out = null;
+        boolean valid = true;
+        for(BindingPos bind : term.bind()) {
+            if(! (bind instanceof CPUAxisPos)) continue; // skip non-cpu axis
+            if(isMasterConnection(bind) && isSlaveConnection(bind)) valid = false;
+            else if(isMasterConnection(bind)) { valid &= in  == null; in  = (CPUAxisPos)bind; }
+            else                              { valid &= out == null; out = (CPUAxisPos)bind; }
+        }
+
+        if(!valid || in == null || out == null) {
+            errors.addWarning(new ParserWarning("No pool generated for replicated instance " + pool +
+                ", since it is not bound to exactly one in-going and one out-going cpu port", term.pos().term()));
+            return;
+        }
+
+        String ins = "", outs = "";
+        for(int i = 0; i < replicas; i++) {
+            ins  += (i > 0 ? ", " : "") + "&" + pool + "_" + i + "." + in.port().term();
+            outs += (i > 0 ? ", " : "") + "&" + pool + "_" + i + "." + out.port().term();
+        }
+
+        int win = getWidth(in), wout = getWidth(out);
+        comps = add(comps, MAttribute(MDocumentation(Strings(
+                "A pool of all " + replicas + " replicas of the #" + pool + " core.",
+                "Jobs submitted to the pool are spread across the replicas, " +
+                "their results are collected in order of submission."
+            )), MModifiers(PUBLIC()),
+            MType("class pool<" + win + ", " + valueType(win) + ", " + wout + ", " + valueType(wout) + ">"),
+            pool, MInitList(Strings("{ " + ins + " }", "{ " + outs + " }"),
+                MIncludes(MQuoteInclude(PUBLIC(), "pool.h")))));
     }
 
     public void visit(final CPUAxisPos axis) {
@@ -272,11 +374,55 @@ public class CPPBDLVisitor extends Visitor<NE> {
         });
     }
 
+    /**
+     * Adds the id of a port to the constants, so that the port can be addressed through the C interface.
+     * Characters of the names, which are not allowed in macro names, are replaced by underscores.
+     * @param direction Direction of the port, either "IN" or "OUT"
+     * @param instance Name of the instance the port belongs to
+     * @param port Name of the port
+     * @param id Id of the port
+     */
+    private void addPortId(String direction, String instance, String port, int id) {
+        consts = add(consts, MDef(MDocumentation(Strings(
+                "Id of the " + (direction.equals("IN") ? "in-going" : "out-going") + " port " + port +
+                " of the #" + instance + " core used by the C interface."
+            )), MModifiers(PUBLIC()), ("LOOPY_" + direction + "_" + instance + "_" + port).toUpperCase().replaceAll("[^A-Z0-9]", "_"), String.valueOf(id)));
+    }
+
+    /**
+     * Generates the type of a port with the given width.
+     * Ports up to 64 bit are typed on the smallest fitting native unsigned integer type,
+     * wider ports on bitsets.
+     * @param port Name of the port template
+     * @param width Bitwidth of the port
+     * @return The port type
+     */
+    private static String portType(String port, int width) {
+        if(width <=  8) return port + "<" + width + ", uint8_t>";
+        if(width <= 16) return port + "<" + width + ", uint16_t>";
+        if(width <= 32) return port + "<" + width + ", uint32_t>";
+        if(width <= 64) return port + "<" + width + ", uint64_t>";
+        return port + "<" + width + ">";
+    }
+
+    /**
+     * Generates the value type of a port with the given width, as used by #portType.
+     * @param width Bitwidth of the port
+     * @return The value type
+     */
+    private static String valueType(int width) {
+        if(width <=  8) return "uint8_t";
+        if(width <= 16) return "uint16_t";
+        if(width <= 32) return "uint32_t";
+        if(width <= 64) return "uint64_t";
+        return "std::bitset<" + width + ">";
+    }
+
     private void addInPort(String name, int width) {
         comp = add(comp, MAttribute(MDocumentation(Strings(
                 "An in-going AXI-Stream port.",
                 "Communicate with the #" + comp.name() + " core through this port."
-            )), MModifiers(PUBLIC()), MType("inPort<"+width+">"),
+            )), MModifiers(PUBLIC()), MType(portType("inPort", width)),
             name, MCodeFragment("",
                 MQuoteInclude(PUBLIC(), "component.h"),
                 MQuoteInclude(PUBLIC(), "portIn.h")
@@ -294,7 +440,7 @@ public class CPPBDLVisitor extends Visitor<NE> {
         comp = add(comp, MAttribute(MDocumentation(Strings(
                 "An out-going AXI-Stream port.",
                 "Communicate with the #" + comp.name() + " core through this port."
-            )), MModifiers(PUBLIC()), MType("outPort<"+width+">"),
+            )), MModifiers(PUBLIC()), MType(portType("outPort", width)),
             name, MCodeFragment("",
                 MQuoteInclude(PUBLIC(), "component.h"),
                 MQuoteInclude(PUBLIC(), "portOut.h")
@@ -347,6 +493,8 @@ public class CPPBDLVisitor extends Visitor<NE> {
     // code blocks (handled directly when occurring)
     public void visit(DEFAULTPos term)      { }
     public void visit(USER_DEFINEDPos term) { }
+    public void visit(EVENTPos term)        { }
+    public void visit(SPLITPos term)        { }
 
     // missing medium declaration
     public void visit(NONEPos term) { }
@@ -356,6 +504,11 @@ public class CPPBDLVisitor extends Visitor<NE> {
     public void visit(SWQUEUEPos  arg0) { }
     public void visit(BITWIDTHPos term) { }
     public void visit(POLLPos     term) { }
+    public void visit(FLUSHPos    term) { }
+    public void visit(TRACEPos    term) { }
+    public void visit(DEPTHPos    term) { }
+    public void visit(RATEPos     term) { }
+    public void visit(DDRPos      term) { }
 
     // logger options
     public void visit(CONSOLEPos  term) { }
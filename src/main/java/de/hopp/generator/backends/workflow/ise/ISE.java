@@ -6,7 +6,10 @@ import static de.hopp.generator.backends.workflow.ise.ISEUtils.edkDir;
 import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkAppDir;
 import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkBSPDir;
 import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkDir;
-import static de.hopp.generator.utils.BoardUtils.totalMemorySize;
+import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkStreamBSPDir;
+import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkStreamDir;
+import static de.hopp.generator.utils.BoardUtils.heapMemorySize;
+import static de.hopp.generator.utils.BoardUtils.stackMemorySize;
 import static de.hopp.generator.utils.Files.deploy;
 import static de.hopp.generator.utils.Files.deployContent;
 import static de.hopp.generator.utils.Files.getResource;
@@ -29,6 +32,7 @@ import de.hopp.generator.backends.GenerationFailed;
 import de.hopp.generator.backends.SDKGenerationFailed;
 import de.hopp.generator.backends.XPSGenerationFailed;
 import de.hopp.generator.backends.workflow.WorkflowBackend;
+import de.hopp.generator.backends.workflow.ise.sdk.BoardLogs;
 import de.hopp.generator.backends.workflow.ise.sdk.SDK;
 import de.hopp.generator.backends.workflow.ise.xps.IPCores;
 import de.hopp.generator.backends.workflow.ise.xps.MHS;
@@ -265,6 +269,8 @@ public abstract class ISE implements WorkflowBackend {
         try {
             // deploy mss file
             printMFile(sdk.getMSS(), new File(sdkBSPDir(config), "system.mss"));
+            if(sdk.getStreamMSS() != null)
+                printMFile(sdk.getStreamMSS(), new File(sdkStreamBSPDir(config), "system.mss"));
             // deploy linker script
             FileUtils.writeStringToFile(new File(new File(ISEUtils.sdkAppDir(config), "src"), "lscript.ld"),
                 setupLinkerScript(board, iseBoard, config));
@@ -282,6 +288,15 @@ public abstract class ISE implements WorkflowBackend {
             printMFile(sdk.getComponents(), UnparserType.C);
             printMFile(sdk.getScheduler(),  UnparserType.HEADER);
             printMFile(sdk.getScheduler(),  UnparserType.C);
+
+            // the stream processor of the split scheduler is built as a separate application
+            if(sdk.getStreamScheduler() != null) {
+                printMFile(sdk.getStreamConstants(),  UnparserType.HEADER);
+                printMFile(sdk.getStreamComponents(), UnparserType.HEADER);
+                printMFile(sdk.getStreamComponents(), UnparserType.C);
+                printMFile(sdk.getStreamScheduler(),  UnparserType.HEADER);
+                printMFile(sdk.getStreamScheduler(),  UnparserType.C);
+            }
         } catch(IOException e) {
             errors.addError(new GenerationFailed("Failed to deploy generic SDK sources due to:\n"
                 + e.getMessage()));
@@ -290,6 +305,20 @@ public abstract class ISE implements WorkflowBackend {
             throw new IllegalStateException("Encountered invalid construct in C model unparser");
         }
 
+        // number the log call sites and pass their format strings on to the host backend
+        try {
+            if(sdk.getStreamScheduler() != null)
+                config.setBoardLogs(BoardLogs.number(errors, new File(sdkAppDir(config), "src"),
+                    new File(sdkStreamDir(config), "src")));
+            else
+                config.setBoardLogs(BoardLogs.number(errors, new File(sdkAppDir(config), "src")));
+        } catch(IOException e) {
+            errors.addError(new GenerationFailed("Failed to number log call sites due to:\n"
+                + e.getMessage()));
+            return;
+        }
+        if(errors.hasErrors()) return;
+
         // generate api-specification
         IO.println("  generate server-side api specification ... ");
         doxygen(sdkAppDir(config), IO, errors);
@@ -388,9 +417,9 @@ public abstract class ISE implements WorkflowBackend {
             input = getResource(new File(iseBoard.sdkSources(), "lscript.ld").getPath(), config.IOHANDLER()).openStream();
             String lScript = IOUtils.toString(input);
 
-            // TODO This will allocate to much memory, since there is no distinction between stack and heap here...
-            lScript = lScript.replaceFirst("%STACK_SIZE", "0x" + Integer.toHexString(totalMemorySize(file)*4));
-            lScript = lScript.replaceFirst("%HEAP_SIZE",  "0x" + Integer.toHexString(totalMemorySize(file)*4));
+            // software queues are allocated statically and therefore neither part of the stack nor the heap
+            lScript = lScript.replaceFirst("%STACK_SIZE", "0x" + Integer.toHexString(stackMemorySize()*4));
+            lScript = lScript.replaceFirst("%HEAP_SIZE",  "0x" + Integer.toHexString(heapMemorySize(file)*4));
 
             return lScript;
         } finally {
@@ -40,6 +40,26 @@ public class ISEUtils {
         return new File(sdkDir(config), "app_bsp");
     }
 
+    /**
+     * Returns the directory used for the application project of the stream processor,
+     * which is only generated for the split scheduler.
+     * @param config Configuration of this run.
+     * @return The file representing the target directory.
+     */
+    public static File sdkStreamDir(Configuration config) {
+        return new File(sdkDir(config), "stream");
+    }
+
+    /**
+     * Returns the directory used for the board support package of the stream processor,
+     * which is only generated for the split scheduler.
+     * @param config Configuration of this run.
+     * @return The file representing the target directory.
+     */
+    public static File sdkStreamBSPDir(Configuration config) {
+        return new File(sdkDir(config), "stream_bsp");
+    }
+
     /**
      * Returns the directory used for the Xilinx XPS files.
      * @param config Configuration of this run.
@@ -0,0 +1,136 @@
+package de.hopp.generator.backends.workflow.ise.sdk;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+
+import de.hopp.generator.ErrorCollection;
+import de.hopp.generator.exceptions.ParserError;
+
+/**
+ * Numbers the log call sites of deployed board-side sources.
+ *
+ * The board does not format log messages. Instead, each call site of a log_&lt;severity&gt; macro
+ * gets a numeric id, and only the id and the raw integer arguments are sent to the host-side driver,
+ * which formats the message using a table of all format strings.
+ *
+ * This class rewrites each call site log_&lt;severity&gt;("format", ...) of the deployed sources into
+ * log_&lt;severity&gt;(id, argc, "format", ...), where argc is the number of conversions in the format string.
+ * The format strings are collected in the order of their ids, so that the host backend can generate
+ * the respective table.
+ *
+ * Only integer conversions of values up to the size of an int are supported, since the arguments
+ * are transmitted as 32-bit integers. Call sites using other conversions or length modifiers are reported.
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+public class BoardLogs {
+
+    /** matches a log call site up to and including its format string (with or without assigned id) */
+    private static final Pattern callSite = Pattern.compile(
+        "\\blog_(error|warn|info|fine|finer|finest)\\s*\\(\\s*(?:\\d+\\s*,\\s*\\d+\\s*,\\s*)?(\"(?:[^\"\\\\]|\\\\.)*\")");
+
+    /** matches a conversion of a format string including escaped percent signs, capturing its length modifier and conversion */
+    private static final Pattern conversion = Pattern.compile(
+        "%(%|[-+ #0]*\\d*(?:\\.\\d+)?(hh|h|ll|l|L|j|z|t|q)?([a-zA-Z]))");
+
+    /** conversions, which can be applied to the transmitted integer arguments */
+    private static final String intConversions = "diouxXc";
+
+    private BoardLogs() { }
+
+    /**
+     * Numbers all log call sites in C sources and headers of directories and their sub-directories.
+     * Directories are processed in the given order and their files in lexicographical order of their paths,
+     * so that ids are stable between runs and unique across all directories.
+     * Call sites with unsupported conversions are reported, but numbered nonetheless.
+     * @param errors the error collection of this generator run
+     * @param srcDirs the source directories of the board-side driver
+     * @return the format strings of all call sites as C string literals, indexed by call site id
+     * @throws IOException if a source file could not be read or written
+     */
+    public static List<String> number(ErrorCollection errors, File... srcDirs) throws IOException {
+        List<String> formats = new LinkedList<String>();
+
+        List<File> files = new LinkedList<File>();
+        for(File srcDir : srcDirs) {
+            File[] dirFiles = FileUtils.listFiles(srcDir, new String[] { "c", "h" }, true).toArray(new File[0]);
+            Arrays.sort(dirFiles);
+            files.addAll(Arrays.asList(dirFiles));
+        }
+
+        for(File file : files) {
+            String source  = FileUtils.readFileToString(file);
+            Matcher m      = callSite.matcher(source);
+            StringBuffer b = new StringBuffer();
+            boolean found  = false;
+
+            while(m.find()) {
+                found = true;
+                String format = m.group(2);
+                checkFormat(format, file, source, m.start(), errors);
+                m.appendReplacement(b, Matcher.quoteReplacement("log_" + m.group(1) + "(" + formats.size() + ", "
+                    + argCount(format) + ", " + format));
+                formats.add(format);
+            }
+
+            if(!found) continue;
+
+            m.appendTail(b);
+            FileUtils.writeStringToFile(file, b.toString());
+        }
+
+        return formats;
+    }
+
+    /**
+     * Reports conversions of a format string, which cannot be applied to integer arguments.
+     * Length modifiers other than h and hh would read more than the transmitted 32-bit value.
+     * @param format the format string as C string literal
+     * @param file the source file containing the call site
+     * @param source the content of the source file
+     * @param offset the offset of the call site within the source file
+     * @param errors the error collection of this generator run
+     */
+    private static void checkFormat(String format, File file, String source, int offset, ErrorCollection errors) {
+        Matcher m = conversion.matcher(format);
+        while(m.find()) {
+            if(m.group(1).equals("%")) continue;
+
+            String length = m.group(2);
+            if(intConversions.indexOf(m.group(3)) == -1 || (length != null && !length.startsWith("h")))
+                errors.addError(new ParserError("unsupported conversion \"%" + m.group(1) + "\" in log format " + format +
+                    " (only int conversions are transmitted)", file.getPath(), lineOf(source, offset)));
+        }
+    }
+
+    /**
+     * Returns the line of an offset within a source file.
+     * @param source the content of the source file
+     * @param offset the offset within the source file
+     * @return the line number, starting with 1
+     */
+    private static int lineOf(String source, int offset) {
+        int line = 1;
+        for(int i = 0; i < offset; i++) if(source.charAt(i) == '\n') line++;
+        return line;
+    }
+
+    /**
+     * Counts the arguments required by a format string.
+     * @param format the format string as C string literal
+     * @return the number of conversions, not counting escaped percent signs
+     */
+    private static int argCount(String format) {
+        Matcher m = conversion.matcher(format);
+        int count = 0;
+        while(m.find()) if(!m.group(1).equals("%")) count++;
+        return count;
+    }
+}
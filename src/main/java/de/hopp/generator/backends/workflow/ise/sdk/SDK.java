@@ -21,4 +21,12 @@ public interface SDK {
     public String getLScript();
 
     public Map<File, File> getFiles();
+
+    public MFile getStreamComponents();
+
+    public MFile getStreamConstants();
+
+    public MFile getStreamScheduler();
+
+    public MHSFile getStreamMSS();
 }
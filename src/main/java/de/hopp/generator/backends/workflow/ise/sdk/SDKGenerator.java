@@ -1,6 +1,7 @@
 package de.hopp.generator.backends.workflow.ise.sdk;
 
 import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkAppDir;
+import static de.hopp.generator.backends.workflow.ise.ISEUtils.sdkStreamDir;
 import static de.hopp.generator.backends.workflow.ise.xps.MHSUtils.add;
 import static de.hopp.generator.model.cpp.CPP.*;
 import static de.hopp.generator.model.mhs.MHS.*;
@@ -17,6 +18,7 @@ import de.hopp.generator.Configuration;
 import de.hopp.generator.ErrorCollection;
 import de.hopp.generator.backends.workflow.ise.gpio.GpioComponent;
 import de.hopp.generator.exceptions.ParserError;
+import de.hopp.generator.exceptions.UsageError;
 import de.hopp.generator.model.*;
 import de.hopp.generator.model.BDLFilePos.Visitor;
 import de.hopp.generator.model.cpp.MCode;
@@ -52,6 +54,7 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
     // target folders
     protected final File targetSrc;
+    protected final File streamSrc;
 
     // generic files to copy
     protected Map<File, File> deployFiles;
@@ -63,6 +66,12 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
     protected MHSFile mssFile;
     protected String lScript;
 
+    // generated files of the stream processor (only set for the split scheduler)
+    protected MFile streamComponents;
+    protected MFile streamConstants;
+    protected MFile streamScheduler;
+    protected MHSFile streamMssFile;
+
     // parts of the generated files
     protected MProcedure init;
     protected MProcedure reset;
@@ -100,6 +109,22 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
         return lScript;
     }
 
+    public MFile getStreamComponents() {
+        return streamComponents;
+    }
+
+    public MFile getStreamConstants() {
+        return streamConstants;
+    }
+
+    public MFile getStreamScheduler() {
+        return streamScheduler;
+    }
+
+    public MHSFile getStreamMSS() {
+        return streamMssFile;
+    }
+
     public Map<File, File> getFiles() {
         return deployFiles;
     }
@@ -112,6 +137,7 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
         // set src directory
         targetSrc = new File(sdkAppDir(config), "src");
+        streamSrc = new File(sdkStreamDir(config), "src");
 
         // setup files and methods
         deployFiles = new HashMap<File, File>();
@@ -165,6 +191,23 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
     protected abstract MHSFile getDefaultMSS();
 
+    /**
+     * Returns the default mss file of the stream processor, which moves stream data for the split scheduler.
+     * @return The mss file or null, if the board has no second processor.
+     */
+    protected MHSFile getDefaultStreamMSS() {
+        return null;
+    }
+
+    /**
+     * Returns the size of the memory shared by the medium and the stream processor.
+     * The mailbox rings of all streams are placed in this memory.
+     * @return The size in bytes or 0, if the board has no second processor.
+     */
+    protected int getMailboxSize() {
+        return 0;
+    }
+
     // We assume all imports to be accumulated at the parser
     public void visit(ImportsPos  term) { }
     public void visit(OptionsPos  term) { }
@@ -194,12 +237,6 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
         addLoggingMacros(debug);
 
-        // FIXME this does NOT regard the maximal protocol size. The size is also ignored within the board-side driver.
-        // It is however essential to handle this somehow (maybe that also was the RNG issue with requests above 60k).
-        // add queue size constant
-        addConst("MAX_OUT_SW_QUEUE_SIZE", String.valueOf(maxOutQueueSize(board)),
-                "Maximal size of out-going software queues.");
-
         // add protocol version constant
         addConst("PROTO_VERSION", "1", "Denotes protocol version, that should be used for sending messages.");
 
@@ -226,28 +263,45 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
         components = add(components, getAxiWrite());
         components = add(components, getAxiRead());
+        components = add(components, getAxiWriteBurst());
+        components = add(components, getAxiReadBurst());
+
+        // add the sources of the stream processor
+        if(streamMssFile != null) addStreamProcessor();
     }
 
     protected abstract MProcedure getAxiWrite();
     protected abstract MProcedure getAxiRead();
 
+    /**
+     * Generates the procedure writing a block of values to an AXI stream.
+     * The procedure int axi_write_burst(int *vals, unsigned int n, int target) must not block
+     * and returns the number of values actually written.
+     * @return The burst write procedure.
+     */
+    protected abstract MProcedure getAxiWriteBurst();
+
+    /**
+     * Generates the procedure reading a block of values from an AXI stream.
+     * The procedure int axi_read_burst(int *vals, unsigned int n, int target) must not block
+     * and returns the number of values actually read.
+     * @return The burst read procedure.
+     */
+    protected abstract MProcedure getAxiReadBurst();
+
     /* Log everything up to value, skip afterwards */
     private void addLoggingMacros(int value) {
         final String[] name   = { "error", "warn", "info", "fine", "finer", "finest" };
         final String[] plural = { "errors", "warnings", "info messages", "fine info messages",
                   "finer info messages", "finest info messages" };
 
+        // call sites are numbered by BoardLogs after all sources are deployed,
+        // which turns log_<severity>("fmt", ...) into log_<severity>(id, argc, "fmt", ...)
         for(int i = 0; i <= value; i++)
-            // TODO do this too, using the debug enum
-            addConst("log_"+name[i]+"(...)",
-                // TODO this is currently very annoying,
-                // since it tries to send debug messages despite no open connection,
-                // spams connection errors and timeouts icmp messages...
-                //"send_debug("+i+", __VA_ARGS__)",
-                "xil_printf(\"\\n\"); xil_printf(__VA_ARGS__)",
+            addConst("log_"+name[i]+"(...)", "send_log("+i+", __VA_ARGS__)",
                 "With the chosen debug level, "+plural[i]+
                 " will be reported to the host driver over Ethernet.",
-                MForwardDecl(PRIVATE(), "void send_debug(unsigned char type, const char *format, ...)"));
+                MForwardDecl(PRIVATE(), "void send_log(unsigned char severity, unsigned int id, unsigned int argc, const char *format, ...)"));
         for(int i = value+1; i < name.length; i++)
             addConst("log_"+name[i]+"(...)", "",
                 "With the chosen debug level, "+plural[i]+
@@ -318,7 +372,13 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
     }
 
     public void visit(UARTPos term) {
+        // deploy UART medium files
+        deployFiles.put(new File("deploy/board/generic/sdk/uart.c"), new File(new File(targetSrc, "medium"), "medium.c"));
 
+        // add UART-specific constants
+        addConst("UART_RX_BUFFER_SIZE", String.valueOf(uartRxBufferSize), "Size of the UART receive ring buffer in bytes.");
+        addConst("UART_TX_BUFFER_SIZE", String.valueOf(uartTxBufferSize), "Size of the UART transmit ring buffer in bytes.");
+        addConst("TIMEOUT", String.valueOf(getTimeout(term)), "Timeout for an attempt to send over UART.");
     }
 
     public void visit(PCIEPos term) {
@@ -484,12 +544,8 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
             MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident(axisGroup + "_queue")))
         ));
 
-        if(width < 32) mssFile = add(mssFile, MHS.Block("DRIVER",
-            MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("generic"))),
-            MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_generic))),
-            MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident(axisGroup + "_mux")))
-        ));
-        else if(width > 32) mssFile = add(mssFile, MHS.Block("DRIVER",
+        // serializer or deserializer
+        if(width != 32) mssFile = add(mssFile, MHS.Block("DRIVER",
             MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("generic"))),
             MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_generic))),
             MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident(axisGroup + "_mux")))
@@ -514,8 +570,23 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
             return;
         }
 
+        int cap = getSWQueueSize32(axis), size = queueStorageSize(cap);
+        String name = "inQueue_" + axiStreamIdMaster;
+
+        // statically allocate the queue and its storage (large buffers in a dedicated ddr section)
+        components = add(components, MAttribute(MDocumentation(Strings(
+                "Storage of the software queue of in-going stream " + axiStreamIdMaster + "."
+            )), MModifiers(PRIVATE()), MArrayType(MType(isDDRBuffered(axis) ? "DDR_BUFFER int" : "int"),
+            String.valueOf(size)), name + "_values", MCodeFragment("")));
+        components = add(components, MAttribute(MDocumentation(Strings(
+                "Software queue of in-going stream " + axiStreamIdMaster + "."
+            )), MModifiers(PRIVATE()), MType("Queue"), name,
+            MCodeFragment("", MQuoteInclude(PRIVATE(), "../queueUntyped.h"))));
+
         init = addLines(init, MCode(
-            Strings("inQueue[" + axiStreamIdMaster + "] = createQueue(" + getSWQueueSize32(axis) + ");"),
+            Strings("initQueue(&" + name + ", " + name + "_values, " + size + ", " + cap + ");",
+                    "inQueue[" + axiStreamIdMaster + "] = &" + name + ";",
+                    "inBurst[" + axiStreamIdMaster + "] = " + getBurstSize32(axis) + ";"),
             MQuoteInclude(PRIVATE(), "../io.h")
         ));
         axiStreamIdMaster++;
@@ -527,8 +598,22 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
             return;
         }
 
+        int cap = getSWQueueSize32(axis);
+        String name = "outQueue_" + axiStreamIdSlave;
+
+        // statically allocate both halves of the output buffer
+        components = add(components, MAttribute(MDocumentation(Strings(
+                "Storage of both halves of the output buffer of out-going stream " + axiStreamIdSlave + "."
+            )), MModifiers(PRIVATE()), MArrayType(MType("int"), String.valueOf(2 * cap)), name + "_values",
+            MCodeFragment("")));
+
         init = addLines(init, MCode(
-            Strings("outQueueCap[" + axiStreamIdSlave + "] = " + getSWQueueSize32(axis) + ";"),
+            Strings("outBuffer[" + axiStreamIdSlave + "] = " + name + "_values;",
+                    "outQueue[" + axiStreamIdSlave + "] = " + name + "_values;",
+                    "outQueueCap[" + axiStreamIdSlave + "] = " + cap + ";",
+                    "outThreshold[" + axiStreamIdSlave + "] = " + getFlushThreshold32(axis) + ";",
+                    "outTimeout[" + axiStreamIdSlave + "] = " + getFlushTimeout(axis) + ";",
+                    "outBurst[" + axiStreamIdSlave + "] = " + getBurstSize32(axis) + ";"),
             MQuoteInclude(PRIVATE(), "../io.h")
         ));
 
@@ -545,6 +630,18 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
         axiStreamIdSlave++;
     }
 
+    /**
+     * Calculates the storage size of a software queue, which is the smallest power of two
+     * not less than the capacity of the queue.
+     * @param cap Capacity of the queue.
+     * @return The storage size of the queue.
+     */
+    private static int queueStorageSize(int cap) {
+        int size = 1;
+        while(size < cap) size <<= 1;
+        return size;
+    }
+
     // list types
     public void visit(GPIOsPos     term) { for(    GPIOPos gpio : term) visit(gpio); }
     public void visit(InstancesPos term) { for(InstancePos inst : term) visit(inst); }
@@ -567,12 +664,54 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
                         "Starts the scheduling loop.",
                         "The scheduling loop performs the following actions in each iteration:",
                         " - read and process messages from the medium",
+                        " - acknowledge all received data packages",
                         " - write values from Microblaze input queue to hardware input queue for each input stream",
                         " - write values from hardware output queue to the medium (caches several values before sending)"
                     )), MModifiers(), MVoid(), "schedule", MParameters(), defaultScheduler()
                 )
             )
          );
+        else if(term.code() instanceof EVENTPos) scheduler = MFile(MDocumentation(Strings(
+                "An event-driven scheduler.",
+                "Reads values from the medium and shifts values between Microblaze and VHDL components,",
+                "but only services ports, which are able to make progress."
+            ), AUTHOR("Thomas Fischer"), SINCE("18.10.2026")
+            ), "scheduler", targetSrc.getPath(), MPreProcDirs(), MStructs(), MEnums(), MAttributes(), MProcedures(
+                MProcedure(
+                    MDocumentation(Strings(
+                        "Starts the event-driven scheduling loop.",
+                        "The scheduling loop performs the following actions in each iteration:",
+                        " - wait for the next message, if no port can make progress without one",
+                        " - read and process messages from the medium",
+                        " - acknowledge all received data packages",
+                        " - write values from Microblaze input queue to hardware input queue for each input stream with pending values",
+                        " - write values from hardware output queue to the medium for each output stream allowed to send"
+                    )), MModifiers(), MVoid(), "schedule", MParameters(), eventScheduler()
+                )
+            )
+         );
+        else if(term.code() instanceof SPLITPos) {
+            streamMssFile = getDefaultStreamMSS();
+            if(streamMssFile == null) errors.addError(new UsageError(
+                "the split scheduler requires a board with a second processor"));
+
+            scheduler = MFile(MDocumentation(Strings(
+                    "A split scheduler for the medium processor.",
+                    "Reads values from the medium, exchanges values with the stream processor through the mailbox,",
+                    "and writes results back to the medium."
+                ), AUTHOR("Thomas Fischer"), SINCE("18.10.2026")
+                ), "scheduler", targetSrc.getPath(), MPreProcDirs(), MStructs(), MEnums(), MAttributes(), MProcedures(
+                    MProcedure(
+                        MDocumentation(Strings(
+                            "Sets up the mailbox and starts the scheduling loop of the medium processor.",
+                            "The scheduling loop performs the same actions as the primitive scheduler,",
+                            "but values are exchanged with the mailbox rings of the stream processor",
+                            "instead of the hardware queues."
+                        )), MModifiers(), MVoid(), "schedule", MParameters(), splitScheduler()
+                    )
+                )
+            );
+        }
         else scheduler = MFile(MDocumentation(Strings()
             ), "scheduler", targetSrc.getPath(), MPreProcDirs(), MStructs(), MEnums(), MAttributes(), MProcedures(
                 MProcedure(
@@ -583,7 +722,9 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
                         MQuoteInclude(PRIVATE(), "io.h"),
                         MForwardDecl(PRIVATE(), "int medium_read()"),
                         MForwardDecl(PRIVATE(), "int axi_write ( int val, int target )"),
-                        MForwardDecl(PRIVATE(), "int axi_read ( int *val, int target )")
+                        MForwardDecl(PRIVATE(), "int axi_read ( int *val, int target )"),
+                        MForwardDecl(PRIVATE(), "int axi_write_burst ( int *vals, unsigned int n, int target )"),
+                        MForwardDecl(PRIVATE(), "int axi_read_burst ( int *vals, unsigned int n, int target )")
                     )
                 )
             )
@@ -592,58 +733,265 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
 
     private MCode defaultScheduler() {
         return MCode(
-            Strings(
+            sweep(Strings(), "axi_write_burst", "axi_read_burst"),
+            MQuoteInclude(PRIVATE(), "constants.h"),
+            MQuoteInclude(PRIVATE(), "queueUntyped.h"),
+            MQuoteInclude(PRIVATE(), "io.h"),
+            MForwardDecl(PRIVATE(), "int medium_read()"),
+            MForwardDecl(PRIVATE(), "int axi_write ( int val, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_read ( int *val, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_write_burst ( int *vals, unsigned int n, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_read_burst ( int *vals, unsigned int n, int target )")
+        );
+    }
+
+    private MCode splitScheduler() {
+        return MCode(
+            sweep(Strings(
+                "// start the stream processor and clear the mailbox, as soon as it has been requested",
+                "mailbox_init();",
+                ""
+            ), "mailbox_write_burst", "mailbox_read_burst"),
+            MQuoteInclude(PRIVATE(), "constants.h"),
+            MQuoteInclude(PRIVATE(), "queueUntyped.h"),
+            MQuoteInclude(PRIVATE(), "io.h"),
+            MQuoteInclude(PRIVATE(), "mailbox.h"),
+            MForwardDecl(PRIVATE(), "int medium_read()")
+        );
+    }
+
+    /**
+     * Generates the scheduling loop of the primitive scheduler.
+     * @param setup Statements executed once before the loop is entered.
+     * @param write Name of the procedure writing a block of values to an in-going stream.
+     * @param read Name of the procedure reading a block of values from an out-going stream.
+     * @return The statements of the scheduler.
+     */
+    private Strings sweep(Strings setup, String write, String read) {
+        return Strings(
                 "unsigned int pid;",
-                "unsigned int i;",
-                "",
+                "unsigned int n, done;",
+                "int *vals, full;",
+                ""
+            ).addAll(setup).addAll(Strings(
                 "while(1) {",
                 "    // receive all available packages from the interface",
                 "    // esp stores data packages in sw queue",
                 "    while(medium_read()) { }",
                 "    ",
-                "    // write data from sw queue to hw queue (if possible)",
+                "    // acknowledge all received data packages at once",
+                "    send_acks();",
+                "    ",
+                "    // write data from sw queue to hw queue in blocks (if possible)",
                 "    for(pid = 0; pid < IN_STREAM_COUNT; pid++) {",
-                "        for(i = 0; i < inQueue[pid]->cap; i++) {",
-                "            // go to next port if the sw queue is empty",
-                "            if(inQueue[pid]->size == 0) break;",
+                "        // go to next port if the sw queue is empty",
+                "        while(inQueue[pid]->size > 0) {",
+                "            vals = front(inQueue[pid], &n);",
+                "            if(n > inBurst[pid]) n = inBurst[pid];",
+                "            full = inQueue[pid]->size == inQueue[pid]->cap;",
+                "            ",
+                "            // write as many values as possible and remove them from the queue",
+                "            done = " + write + "(vals, n, pid);",
+                "            drop(inQueue[pid], done);",
+                "            ",
+                "            // if the queue was full beforehand, poll",
+                "            if(full && done > 0) send_poll(pid);",
                 "            ",
-                "            // try to write, skip if the hw queue is full",
-                "            if(axi_write(peek(inQueue[pid]), pid)) {",
-                "                  log_fine(\"failed to write to AXI stream\");",
+                "            // skip if the hw queue is full",
+                "            if(done < n) {",
+                "                log_fine(\"failed to write to AXI stream\");",
                 "                break;",
                 "            }",
+                "        }",
+                "    }",
+                "    ",
+                "    // read data from hw queue (if available) and cache in output buffer",
+                "    // flush output buffer, if it reached its threshold or timeout",
+                "    for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {",
+                "        while(outQueueSize[pid] < outQueueCap[pid] && ((!isPolling[pid]) || pollCount[pid] > 0)) {",
+                "            // read a block limited by the buffer, the poll counter and the hw queue",
+                "            n = outQueueCap[pid] - outQueueSize[pid];",
+                "            if(isPolling[pid] && n > pollCount[pid]) n = pollCount[pid];",
+                "            if(n > outBurst[pid]) n = outBurst[pid];",
+                "            done = " + read + "(&outQueue[pid][outQueueSize[pid]], n, pid);",
+                "            ",
+                "            // increment the buffer size counter",
+                "            outQueueSize[pid] += done;",
+                "            ",
+                "            // decrement the poll counter (if the port was polling)",
+                "            if(isPolling[pid]) pollCount[pid] -= done;",
+                "            ",
+                "            // break, if the hw queue ran empty",
+                "            if(done < n) break;",
+                "        }",
+                "        // flush output buffer",
+                "        if(flush_due(pid) && flush_queue(pid)) {",
+                "            // in this case, sending failed. Terminate (reasons have already been printed)",
+                "            xil_printf(\"\\nterminating...\");",
+                "            return;",
+                "        }",
+                "    }",
+                "}"
+            ));
+    }
+
+    /**
+     * Generates the scheduling loop of the stream processor for the split scheduler.
+     * The loop only moves values between the mailbox rings and the hardware queues,
+     * while flow control remains with the medium processor.
+     * @return The statements of the scheduler.
+     */
+    private MCode streamScheduler() {
+        return MCode(
+            Strings(
+                "unsigned int pid;",
+                "unsigned int n, done;",
+                "int *vals;",
+                "",
+                "while(1) {",
+                "    // write values from the mailbox to the hw queue of each in-going stream",
+                "    for(pid = 0; pid < IN_STREAM_COUNT; pid++) {",
+                "        vals = mailbox_in_front(pid, &n);",
+                "        if(n == 0) continue;",
+                "        ",
+                "        // values remain in the mailbox, if the hw queue is full",
+                "        done = axi_write_burst(vals, n, pid);",
+                "        mailbox_in_drop(pid, done);",
+                "    }",
+                "    ",
+                "    // read values from the hw queue of each out-going stream into the mailbox",
+                "    for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {",
+                "        vals = mailbox_out_reserve(pid, &n);",
+                "        if(n == 0) continue;",
+                "        ",
+                "        // values remain in the hw queue, if the mailbox is full",
+                "        done = axi_read_burst(vals, n, pid);",
+                "        mailbox_out_commit(pid, done);",
+                "    }",
+                "}"
+            ),
+            MQuoteInclude(PRIVATE(), "constants.h"),
+            MQuoteInclude(PRIVATE(), "mailbox.h"),
+            MForwardDecl(PRIVATE(), "int axi_write_burst ( int *vals, unsigned int n, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_read_burst ( int *vals, unsigned int n, int target )")
+        );
+    }
+
+    /**
+     * Adds the sources of the stream processor for the split scheduler.
+     * The stream processor gets its own copy of the constants, the burst procedures of all streams
+     * and a scheduler moving values between the mailbox and the hardware queues.
+     * The mailbox is divided equally into one ring for each stream.
+     */
+    private void addStreamProcessor() {
+        int streams = axiStreamIdMaster + axiStreamIdSlave;
+        int cap = streams == 0 ? 1 : (getMailboxSize() - 8 - 8 * streams) / (4 * streams);
+
+        if(cap < 2) {
+            errors.addError(new UsageError("too many streams for the mailbox of the split scheduler"));
+            return;
+        }
+
+        addConst("MAILBOX_CAP", String.valueOf(cap),
+            "Number of slots of each mailbox ring between the medium and the stream processor.");
+
+        streamConstants  = constants.replaceDirectory(streamSrc.getPath());
+        streamComponents = MFile(MDocumentation(Strings(
+                "Contains the stream-specific procedures of the stream processor."
+            )), "components", new File(streamSrc, "components").getPath(), MPreProcDirs(),
+            MStructs(), MEnums(), MAttributes(), MProcedures(getAxiWriteBurst(), getAxiReadBurst()), MClasses());
+        streamScheduler  = MFile(MDocumentation(Strings(
+                "The scheduler of the stream processor.",
+                "Moves values between the mailbox of the medium processor and the hardware queues."
+            ), AUTHOR("Thomas Fischer"), SINCE("18.10.2026")
+            ), "scheduler", streamSrc.getPath(), MPreProcDirs(), MStructs(), MEnums(), MAttributes(), MProcedures(
+                MProcedure(
+                    MDocumentation(Strings(
+                        "Starts the scheduling loop of the stream processor.",
+                        "The scheduling loop performs the following actions in each iteration:",
+                        " - write values from the mailbox to the hardware input queue for each input stream",
+                        " - read values from the hardware output queue into the mailbox for each output stream"
+                    )), MModifiers(), MVoid(), "schedule", MParameters(), streamScheduler()
+                )
+            )
+        );
+    }
+
+    private MCode eventScheduler() {
+        return MCode(
+            Strings(
+                "unsigned int pid;",
+                "unsigned int i, n, done;",
+                "int *vals, full, idle;",
+                "",
+                "while(1) {",
+                "    // no port can make progress without a message, if no in-going port has pending values",
+                "    // and all out-going ports are polling ports without remaining polls and pending values",
+                "    idle = inPendingCount == 0;",
+                "    for(pid = 0; idle && pid < OUT_STREAM_COUNT; pid++)",
+                "        if((!isPolling[pid]) || pollCount[pid] > 0 || outQueueSize[pid] > outSent[pid]) idle = 0;",
+                "    ",
+                "    // in this case, only watch the medium until a message arrives",
+                "    if(idle) while(!medium_read()) { }",
+                "    ",
+                "    // receive all available packages from the interface",
+                "    // esp stores data packages in sw queue and marks the port as pending",
+                "    while(medium_read()) { }",
+                "    ",
+                "    // acknowledge all received data packages at once",
+                "    send_acks();",
+                "    ",
+                "    // write data from sw queue to hw queue for all pending ports",
+                "    for(n = 0; n < inPendingCount; ) {",
+                "        pid = inPending[n];",
+                "        // go to next port if the sw queue is empty",
+                "        while(inQueue[pid]->size > 0) {",
+                "            vals = front(inQueue[pid], &i);",
+                "            if(i > inBurst[pid]) i = inBurst[pid];",
+                "            full = inQueue[pid]->size == inQueue[pid]->cap;",
                 "            ",
-                "            // remove the read value from the queue",
-                "            take(inQueue[pid]);",
+                "            // write as many values as possible and remove them from the queue",
+                "            done = axi_write_burst(vals, i, pid);",
+                "            drop(inQueue[pid], done);",
                 "            ",
                 "            // if the queue was full beforehand, poll",
-                "            if(inQueue[pid]->size == inQueue[pid]->cap - 1) send_poll(pid);",
+                "            if(full && done > 0) send_poll(pid);",
+                "            ",
+                "            // skip if the hw queue is full",
+                "            if(done < i) break;",
                 "        }",
+                "        ",
+                "        // the port remains pending, if the hw queue was full",
+                "        if(inQueue[pid]->size > 0) n++;",
+                "        else release_pending(n);",
                 "    }",
                 "    ",
-                "    // read data from hw queue (if available) and cache in sw queue",
-                "    // flush sw queue, if it's full or the hw queue is empty",
+                "    // read data from hw queue (if available) and cache in output buffer",
+                "    // polling ports without remaining polls only flush their remaining values",
                 "    for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {",
-                "        for(i = 0; i < outQueueCap[pid] && ((!isPolling[pid]) || pollCount[pid] > 0); i++) {",
-//                "            int val = 0;",
-//                "            ",
-                "            // try to read, break if if fails",
-                "            if(axi_read(&outQueue[outQueueSize], pid)) break;",
+                "        while(outQueueSize[pid] < outQueueCap[pid] && ((!isPolling[pid]) || pollCount[pid] > 0)) {",
+                "            // read a block limited by the buffer, the poll counter and the hw queue",
+                "            n = outQueueCap[pid] - outQueueSize[pid];",
+                "            if(isPolling[pid] && n > pollCount[pid]) n = pollCount[pid];",
+                "            if(n > outBurst[pid]) n = outBurst[pid];",
+                "            done = axi_read_burst(&outQueue[pid][outQueueSize[pid]], n, pid);",
                 "            ",
-                "            // otherwise increment the queue size counter",
-//                "            outQueue[outQueueSize] = val;",
-                "            outQueueSize++;",
+                "            // increment the buffer size counter",
+                "            outQueueSize[pid] += done;",
                 "            ",
                 "            // decrement the poll counter (if the port was polling)",
-                "            if(isPolling[pid]) pollCount[pid]--;",
+                "            if(isPolling[pid]) pollCount[pid] -= done;",
+                "            ",
+                "            // break, if the hw queue ran empty",
+                "            if(done < n) break;",
                 "        }",
-                "        // flush sw queue",
-                "        if(flush_queue(pid)) {",
+                "        ",
+                "        // flush output buffer, if it reached its threshold or timeout",
+                "        if(flush_due(pid) && flush_queue(pid)) {",
                 "            // in this case, sending failed. Terminate (reasons have already been printed)",
                 "            xil_printf(\"\\nterminating...\");",
                 "            return;",
                 "        }",
-                "        outQueueSize = 0;",
                 "    }",
                 "}"
             ),
@@ -652,13 +1000,17 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
             MQuoteInclude(PRIVATE(), "io.h"),
             MForwardDecl(PRIVATE(), "int medium_read()"),
             MForwardDecl(PRIVATE(), "int axi_write ( int val, int target )"),
-            MForwardDecl(PRIVATE(), "int axi_read ( int *val, int target )")
+            MForwardDecl(PRIVATE(), "int axi_read ( int *val, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_write_burst ( int *vals, unsigned int n, int target )"),
+            MForwardDecl(PRIVATE(), "int axi_read_burst ( int *vals, unsigned int n, int target )")
         );
     }
 
     // code blocks (handled directly when occurring)
     public void visit(DEFAULTPos term)      { }
     public void visit(USER_DEFINEDPos term) { }
+    public void visit(EVENTPos term)        { }
+    public void visit(SPLITPos term)        { }
 
     // missing declaration
     public void visit(NONEPos term) { }
@@ -668,6 +1020,11 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
     public void visit(SWQUEUEPos  arg0) { }
     public void visit(BITWIDTHPos term) { }
     public void visit(POLLPos     term) { }
+    public void visit(FLUSHPos    term) { }
+    public void visit(TRACEPos    term) { }
+    public void visit(DEPTHPos    term) { }
+    public void visit(RATEPos     term) { }
+    public void visit(DDRPos      term) { }
 
     // logger options
     public void visit(LogsPos     term) { }
@@ -708,7 +1065,15 @@ public abstract class SDKGenerator extends Visitor<NE> implements SDK {
     // ignore instances here, just visit port bindings
     public void visit(InstancePos term) { visit(term.bind()); }
     // component axis (these get ignored... that's the whole point)
-    public void visit(AxisPos     term) { }
+    public void visit(AxisPos     term) {
+        // queue of a core-to-core link
+        if(getPort(term).direction() instanceof INPos && getLinkDepth(term) > 0)
+            mssFile = add(mssFile, MHS.Block("DRIVER",
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_NAME", MHS.Ident("generic"))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("DRIVER_VER", MHS.Ident(versions.mss_generic))),
+                MHS.Attribute(MHS.PARAMETER(), MHS.Assignment("HW_INSTANCE", MHS.Ident(term.axis().term().toLowerCase() + "_queue")))
+            ));
+    }
 
     // position
     public void visit(PositionPos term) { }
@@ -2,10 +2,14 @@ package de.hopp.generator.backends.workflow.ise.xps;
 
 import static de.hopp.generator.backends.workflow.ise.xps.MHSUtils.add;
 import static de.hopp.generator.model.mhs.MHS.*;
+import static de.hopp.generator.utils.BoardUtils.bramQueueThreshold;
+import static de.hopp.generator.utils.BoardUtils.getClockFrequency;
 import static de.hopp.generator.utils.BoardUtils.getClockPort;
 import static de.hopp.generator.utils.BoardUtils.getCore;
 import static de.hopp.generator.utils.BoardUtils.getDirection;
 import static de.hopp.generator.utils.BoardUtils.getHWQueueSize;
+import static de.hopp.generator.utils.BoardUtils.getLinkDepth;
+import static de.hopp.generator.utils.BoardUtils.getPort;
 import static de.hopp.generator.utils.BoardUtils.getWidth;
 import katja.common.NE;
 import de.hopp.generator.ErrorCollection;
@@ -46,6 +50,7 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
 
     // temporary variables used to build up the mhs file
     protected Block curBlock;
+    protected int curFrequency;
 
     // counter variables
     protected int axiStreamIdMaster;
@@ -147,7 +152,8 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
         curBlock = add(curBlock, Attribute(PARAMETER(), Assignment("INSTANCE", Ident(term.name().term()))));
         curBlock = add(curBlock, Attribute(PARAMETER(), Assignment("HW_VER",   Ident(term.version().term()))));
 
-        // define bus interfaces
+        // define bus interfaces (streams crossing clock domains require the frequency of the instance)
+        curFrequency = getClockFrequency(getCore(term));
         visit(term.bind());
 
         // append clock and reset ports
@@ -163,7 +169,43 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
     }
 
     public void visit(AxisPos term) {
-        curBlock = add(curBlock, Attribute(BUS_IF(), Assignment(term.port().term(), Ident(term.axis().term()))));
+        String axis = term.axis().term();
+
+        if(getPort(term).direction() instanceof INPos) {
+            int width = getWidth(getPort(term).term());
+
+            // if the stream is received from an instance with a different clock, add a clock domain crossing
+            int frequency = getSenderFrequency(term);
+            if(frequency != curFrequency) {
+                String cdcAxis = axis + "_CDC";
+                addCDC(axis.toLowerCase() + "_cdc", axis, cdcAxis, width, frequency, curFrequency);
+                axis = cdcAxis;
+            }
+
+            // add queueing in the clock domain of the receiver, if requested
+            try {
+                axis = addQueue(term.axis().term(), axis, true, width, getLinkDepth(term), curFrequency);
+            } catch (UsageError e) {
+                errors.addError(e);
+            }
+        }
+
+        curBlock = add(curBlock, Attribute(BUS_IF(), Assignment(term.port().term(), Ident(axis))));
+    }
+
+    /**
+     * Gets the clock frequency of the instance sending values over the axis of a binding.
+     * @param bind The binding of an in-going port to an axis.
+     * @return The clock frequency of the instance with an out-going port bound to the same axis
+     *   or the frequency of the current instance, if there is no such instance.
+     */
+    private int getSenderFrequency(AxisPos bind) {
+        for(InstancePos inst : bind.root().insts())
+            for(BindingPos other : inst.bind())
+                if(other instanceof AxisPos && ((AxisPos)other).axis().term().equals(bind.axis().term())
+                        && getPort(other).direction() instanceof OUTPos)
+                    return getClockFrequency(getCore(inst));
+        return curFrequency;
     }
 
     public void visit(CPUAxisPos axis) {
@@ -210,6 +252,11 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
     public void visit(SWQUEUEPos  arg0) { }
     public void visit(BITWIDTHPos term) { }
     public void visit(POLLPos     term) { }
+    public void visit(FLUSHPos    term) { }
+    public void visit(TRACEPos    term) { }
+    public void visit(DEPTHPos    term) { }
+    public void visit(RATEPos     term) { }
+    public void visit(DDRPos      term) { }
 
     // logger options
     public void visit(LogsPos    term) { }
@@ -236,6 +283,8 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
     // code blocks
     public void visit(DEFAULTPos      term) { }
     public void visit(USER_DEFINEDPos term) { }
+    public void visit(EVENTPos        term) { }
+    public void visit(SPLITPos        term) { }
     public void visit(SchedulerPos    term) { }
 
     // literals
@@ -282,7 +331,15 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
         currentAxis = addMux(axisGroup, currentAxis, direct, width);
 
         // add queueing, if required
-        currentAxis = addQueue(axisGroup, currentAxis, direct, width, queueSize);
+        currentAxis = addQueue(axisGroup, currentAxis, direct, width, queueSize, 100);
+
+        // add a clock domain crossing, if the component is not clocked like the processor
+        if(curFrequency != 100) {
+            String cdcAxis = axisGroup + "_CDC_AXIS";
+            if(direct) addCDC(axisGroup.toLowerCase() + "_cdc", currentAxis, cdcAxis, width, 100, curFrequency);
+            else       addCDC(axisGroup.toLowerCase() + "_cdc", cdcAxis, currentAxis, width, curFrequency, 100);
+            currentAxis = cdcAxis;
+        }
 
         // connect the component to the last axis
         return Attribute(BUS_IF(), Assignment(axis.port().term(), Ident(currentAxis)));
@@ -302,10 +359,13 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
      *   to the provided axis.
      * @param width Bitwidth of values to be stored in the queue.
      * @param depth Number of values that can be stored in the queue. If set to 0, no queue is added.
+     *   If larger than the block RAM threshold, a block RAM queue is added instead of a register-based one.
+     * @param frequency Clock frequency of the queue in MHz.
      * @return Open axis of the queue.
      * @throws UsageError If any parameter for the queue is invalid (e.g. negative width).
      */
-    private String addQueue(String axisGroup, String currentAxis, boolean d, int width, int depth) throws UsageError {
+    private String addQueue(String axisGroup, String currentAxis, boolean d, int width, int depth, int frequency)
+            throws UsageError {
 
         if(depth == 0) return currentAxis;
         if(depth < 0) throw new UsageError("negative queue size");
@@ -313,14 +373,15 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
         String queueAxis = axisGroup + "_QUEUE_AXIS";
 
         // add a queue component in between the component and the microblaze
-        mhs = add(mhs, Block("Queue",
+        // deep queues are stored in block RAM instead of registers
+        mhs = add(mhs, Block(depth > bramQueueThreshold ? "BRAMQueue" : "Queue",
             Attribute(PARAMETER(), Assignment("INSTANCE", Ident(axisGroup.toLowerCase() + "_queue"))),
             Attribute(PARAMETER(), Assignment("HW_VER", Ident("1.00.a"))),
             Attribute(PARAMETER(), Assignment("G_DEPTH", Number(depth))),
             Attribute(PARAMETER(), Assignment("G_BW", Number(width))),
             Attribute(BUS_IF(), Assignment("in", Ident(d ? currentAxis : queueAxis))),
             Attribute(BUS_IF(), Assignment("out", Ident(d ? queueAxis : currentAxis))),
-            Attribute(PORT(), Assignment("clk", Ident(board.getClock().getClockPort(100)))),
+            Attribute(PORT(), Assignment("clk", Ident(board.getClock().getClockPort(frequency)))),
             Attribute(PORT(), Assignment("rst", Ident(getResetPort())))
             ));
 
@@ -328,6 +389,28 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
         return queueAxis;
     }
 
+    /**
+     * Adds an asynchronous queue between two AXI stream interfaces clocked with different frequencies.
+     * @param instance Instance identifier of the queue.
+     * @param in Axis sending values into the queue.
+     * @param out Axis receiving values from the queue.
+     * @param width Bitwidth of values to be stored in the queue.
+     * @param inFrequency Clock frequency of the sending side in MHz.
+     * @param outFrequency Clock frequency of the receiving side in MHz.
+     */
+    private void addCDC(String instance, String in, String out, int width, int inFrequency, int outFrequency) {
+        mhs = add(mhs, Block("AsyncQueue",
+            Attribute(PARAMETER(), Assignment("INSTANCE", Ident(instance))),
+            Attribute(PARAMETER(), Assignment("HW_VER", Ident("1.00.a"))),
+            Attribute(PARAMETER(), Assignment("G_BW", Number(width))),
+            Attribute(BUS_IF(), Assignment("in",  Ident(in))),
+            Attribute(BUS_IF(), Assignment("out", Ident(out))),
+            Attribute(PORT(), Assignment("in_clk",  Ident(board.getClock().getClockPort(inFrequency)))),
+            Attribute(PORT(), Assignment("out_clk", Ident(board.getClock().getClockPort(outFrequency)))),
+            Attribute(PORT(), Assignment("rst", Ident(getResetPort())))
+            ));
+    }
+
     /**
      * Adds a bitwidth resizer to an AXI stream interface.
      *
@@ -335,7 +418,8 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
      * The identifier of the axis connected to the other end is returned by the method and has to be
      * connected to some other component.
      *
-     * The direction and bitwidth also determines, if an upsizer or downsizer is used.
+     * The direction determines, if a serializer or deserializer is used. Both transfer each value as
+     * ceil(width / 32) words starting with the most significant one and accept a beat in every cycle.
      *
      * @param axisGroup Basic identifier used to construct all axis identifiers of the corresponding port.
      *   Usually consists of the direction of the port and a number.
@@ -353,16 +437,14 @@ public abstract class MHSGenerator extends Visitor<NE> implements MHS {
         if(width == 32) return currentAxis;
         if(width <= 0) throw new UsageError("encountered port with bitwidth of " + width);
 
-        boolean up = ((width < 32) && !d) || ((width > 32) && d);
-
         String muxAxis  = axisGroup + "_MUX_AXIS";
 
-        // depending on direction and bitwidth, we need an up- or downsizer
-        mhs = add(mhs, Block(up ? "Upsizer" : "Downsizer",
+        // in-going values are assembled from words, out-going values are split into words
+        mhs = add(mhs, Block(d ? "Deserializer" : "Serializer",
             Attribute(PARAMETER(), Assignment("INSTANCE", Ident(axisGroup.toLowerCase() + "_mux"))),
             Attribute(PARAMETER(), Assignment("HW_VER", Ident("1.00.a"))),
-            Attribute(PARAMETER(), Assignment("WIDTH_IN",  Number(d ? 32 : width))),
-            Attribute(PARAMETER(), Assignment("WIDTH_OUT", Number(d ? width : 32))),
+            Attribute(PARAMETER(), Assignment("G_BW",   Number(width))),
+            Attribute(PARAMETER(), Assignment("G_WORD", Number(32))),
             Attribute(BUS_IF(), Assignment("S_AXIS", Ident(d ? currentAxis : muxAxis))),
             Attribute(BUS_IF(), Assignment("M_AXIS", Ident(d ? muxAxis : currentAxis))),
             Attribute(PORT(), Assignment("CLK", Ident(board.getClock().getClockPort(100)))),
@@ -4,6 +4,8 @@ import static de.hopp.generator.model.BDL.BDLFile;
 import static de.hopp.generator.model.BDL.Cores;
 import static de.hopp.generator.model.BDL.Import;
 import static de.hopp.generator.model.BDL.Imports;
+import static de.hopp.generator.model.BDL.Instance;
+import static de.hopp.generator.model.BDL.Instances;
 import static de.hopp.generator.model.BDL.Logs;
 import static org.apache.commons.io.FileUtils.getFile;
 import static org.apache.commons.io.FilenameUtils.getBaseName;
@@ -50,6 +52,9 @@ public class Parser {
         // abort, if errors occurred
         if(errors.hasErrors()) return null;
 
+        // expand replicated instances into pools of single instances
+        bdl = replicate(bdl);
+
         // perform sanity checks on the parsed bdl file
         sanityCheck(bdl);
 
@@ -205,6 +210,44 @@ public class Parser {
         throw new ParserError("Duplicate scheduler override", s1.pos(), s2.pos());
     }
 
+    /**
+     * Expands all replicated instances of the .bdl file.
+     *
+     * A replicated instance of n replicas is replaced by n instances named after the
+     * replicated instance with an appended underscore and index, e.g. <code>rng_0</code>
+     * to <code>rng_7</code>. All replicas share the bindings of the replicated instance
+     * and keep the number of replicas, so that backends can recognise them as a pool.
+     *
+     * Since an axis can only connect two ports, replicated instances may only be bound
+     * to the cpu. Errors are added to the error collection of the parser otherwise.
+     * @param file The .bdl file to expand
+     * @return The input .bdl file with expanded instances
+     */
+    private BDLFile replicate(BDLFile file) {
+        Instances insts = Instances();
+        for(Instance inst : file.insts()) {
+            // keep single instances
+            if(inst.replicas() == 0) {
+                insts = insts.add(inst);
+                continue;
+            }
+
+            boolean valid = true;
+            for(Binding bind : inst.bind())
+                if(bind instanceof Axis) {
+                    errors.addError(new ParserError("Port " + bind.port() + " of replicated instance " +
+                        inst.name() + " can only be bound to the cpu", bind.pos()));
+                    valid = false;
+                }
+            if(!valid) continue;
+
+            for(int i = 0; i < inst.replicas(); i++)
+                insts = insts.add(Instance(inst.name() + "_" + i, inst.core(),
+                    inst.version(), inst.pos(), inst.bind(), inst.replicas()));
+        }
+        return file.replaceInsts(insts);
+    }
+
     /**
      * Checks several conditions, which are assumed to hold for the model.
      * Adds errors to the error collection of the parser, if conditions
@@ -313,7 +356,7 @@ public class Parser {
                 if(bind instanceof CPUAxis) continue;
                 // increment counter for this axis
                 else if(connections.containsKey(((Axis)bind).axis()))
-                    connections.put(((Axis)bind).axis(), connections.get(bind)+1);
+                    connections.put(((Axis)bind).axis(), connections.get(((Axis)bind).axis())+1);
                 else connections.put(((Axis)bind).axis(), 1);
             }
         for(String axis : connections.keySet()) {
@@ -327,7 +370,7 @@ public class Parser {
 
         // check for invalid options
         // TODO save position instead of boolean to provide both positions here...
-        boolean sw = false, hw = false, debug_host = false, debug_board = false;
+        boolean sw = false, hw = false, flush = false, trace = false, debug_host = false, debug_board = false;
 
         // invalid options for the board in general
         for(Option o : bdf.opts()) {
@@ -342,9 +385,22 @@ public class Parser {
             else if(o instanceof HWQUEUE)
                 if(hw) errors.addError(new ParserError("duplicate board option \"swqueue\"", o.pos()));
                 else hw = true;
+            // flush is allowed to occur at most once
+            else if(o instanceof FLUSH)
+                if(flush) errors.addError(new ParserError("duplicate board option \"flush\"", o.pos()));
+                else { flush = true; checkFlush((FLUSH)o); }
+            // trace is allowed to occur at most once
+            else if(o instanceof TRACE)
+                if(trace) errors.addError(new ParserError("duplicate board option \"trace\"", o.pos()));
+                else trace = true;
+            // depth and rate describe single links and ports
+            else if(o instanceof DEPTH) errors.addError(new ParserError("encountered option \"depth\" as board option", o.pos()));
+            else if(o instanceof RATE)  errors.addError(new ParserError("encountered option \"rate\" as board option", o.pos()));
+            // ddr buffers are allocated for single ports
+            else if(o instanceof DDR)   errors.addError(new ParserError("encountered option \"ddr\" as board option", o.pos()));
         }
 
-        boolean poll, width;
+        boolean poll, width, rate, ddr;
         // invalid options for port specifications
         for(Core core : bdf.cores()) {
             // TODO save position instead of boolean to provide both positions here...
@@ -363,7 +419,7 @@ public class Parser {
                 }
 
                 // TODO save position instead of boolean to provide both positions here...
-                sw = false; hw = false; poll = false; width = false;
+                sw = false; hw = false; poll = false; flush = false; width = false; rate = false; ddr = false;
                 for(Option o : ((AXI)port).opts()) {
                     if(o instanceof POLL)
                         // poll is not allowed to occur at in-going ports
@@ -371,6 +427,12 @@ public class Parser {
                         // at out-going ports it must occur at most once
                         else if(poll) errors.addError(new ParserError("duplicate port option \"poll\"", port.pos()));
                         else poll = true;
+                    else if(o instanceof FLUSH)
+                        // flush is not allowed to occur at in-going ports
+                        if(((AXI)port).direction() instanceof IN) errors.addError(new ParserError("encountered option \"flush\" at in-going port", port.pos()));
+                        // at out-going ports it must occur at most once
+                        else if(flush) errors.addError(new ParserError("duplicate port option \"flush\"", port.pos()));
+                        else { flush = true; checkFlush((FLUSH)o); }
                     // bitwidth is allowed to occur at most once
                     else if(o instanceof BITWIDTH)
                         if(width) errors.addError(new ParserError("duplicate port option \"bitwidth\"", port.pos()));
@@ -382,6 +444,23 @@ public class Parser {
                     else if(o instanceof HWQUEUE)
                         if(hw) errors.addError(new ParserError("duplicate port option \"hwqueue\"", port.pos()));
                         else hw = true;
+                    // trace is simply not allowed here
+                    else if(o instanceof TRACE)
+                        errors.addError(new ParserError("encountered option \"trace\" as port option", o.pos()));
+                    // depth is only allowed at core-to-core bindings
+                    else if(o instanceof DEPTH)
+                        errors.addError(new ParserError("encountered option \"depth\" as port option", o.pos()));
+                    // rate is allowed to occur at most once
+                    else if(o instanceof RATE)
+                        if(rate) errors.addError(new ParserError("duplicate port option \"rate\"", port.pos()));
+                        else { rate = true; checkRate((RATE)o); }
+                    else if(o instanceof DDR)
+                        // ddr buffers are only allowed at in-going ports
+                        if(!(((AXI)port).direction() instanceof IN))
+                            errors.addError(new ParserError("encountered option \"ddr\" at out-going port", port.pos()));
+                        // at in-going ports it must occur at most once
+                        else if(ddr) errors.addError(new ParserError("duplicate port option \"ddr\"", port.pos()));
+                        else { ddr = true; checkDDR((DDR)o); }
                 }
             }
 
@@ -389,6 +468,79 @@ public class Parser {
             if(!rst) errors.addError(new ParserError("core declaration is missing reset port", core.pos()));
         }
 
+        // check ddr options of bindings
+        for(Instance inst : bdf.insts())
+            for(Binding bind : inst.bind()) {
+                ddr = false;
+                for(Option o : bind.opts())
+                    if(o instanceof DDR)
+                        // ddr is not allowed at core-to-core bindings
+                        if(bind instanceof Axis)
+                            errors.addError(new ParserError("encountered option \"ddr\" at core-to-core binding", o.pos()));
+                        else if(ddr) errors.addError(new ParserError("duplicate binding option \"ddr\"", o.pos()));
+                        else {
+                            // ddr buffers are only allowed at bindings of in-going ports
+                            for(Core core : bdf.cores())
+                                if(core.name().equals(inst.core()) && core.version().equals(inst.version()))
+                                    for(Port port : core.ports())
+                                        if(port instanceof AXI && ((AXI)port).name().equals(bind.port()) &&
+                                                !(((AXI)port).direction() instanceof IN))
+                                            errors.addError(new ParserError("encountered option \"ddr\" at out-going port", o.pos()));
+                            ddr = true;
+                            checkDDR((DDR)o);
+                        }
+            }
+
+        // check flush options of processor bindings
+        for(Instance inst : bdf.insts())
+            for(Binding bind : inst.bind())
+                if(bind instanceof CPUAxis) {
+                    flush = false;
+                    for(Option o : bind.opts())
+                        if(o instanceof FLUSH)
+                            // flush is allowed to occur at most once
+                            if(flush) errors.addError(new ParserError("duplicate binding option \"flush\"", o.pos()));
+                            else {
+                                // flush is not allowed to occur at bindings of in-going ports
+                                for(Core core : bdf.cores())
+                                    if(core.name().equals(inst.core()) && core.version().equals(inst.version()))
+                                        for(Port port : core.ports())
+                                            if(port instanceof AXI && ((AXI)port).name().equals(bind.port()) &&
+                                                    ((AXI)port).direction() instanceof IN)
+                                                errors.addError(new ParserError("encountered option \"flush\" at in-going port", o.pos()));
+                                flush = true;
+                                checkFlush((FLUSH)o);
+                            }
+                }
+
+        // check depth and rate options of core-to-core bindings
+        Map<String, DEPTH> depths = new HashMap<String, DEPTH>();
+        for(Instance inst : bdf.insts())
+            for(Binding bind : inst.bind()) {
+                rate = false;
+                for(Option o : bind.opts())
+                    if(o instanceof DEPTH)
+                        // depth is not allowed at processor bindings
+                        if(bind instanceof CPUAxis)
+                            errors.addError(new ParserError("encountered option \"depth\" at processor binding", o.pos()));
+                        // each axis has a single queue, so depth must occur at most once at both ends
+                        else if(depths.containsKey(((Axis)bind).axis())) errors.addError(new ParserError(
+                            "duplicate option \"depth\" for axis " + ((Axis)bind).axis(),
+                            depths.get(((Axis)bind).axis()).pos(), o.pos()));
+                        else {
+                            depths.put(((Axis)bind).axis(), (DEPTH)o);
+                            if(((DEPTH)o).depth() < 1 && ((DEPTH)o).depth() != -1)
+                                errors.addError(new ParserError("depth has to be at least 1", o.pos()));
+                        }
+                    else if(o instanceof RATE)
+                        // rate is not allowed at processor bindings
+                        if(bind instanceof CPUAxis)
+                            errors.addError(new ParserError("encountered option \"rate\" at processor binding", o.pos()));
+                        else if(rate) errors.addError(new ParserError("duplicate binding option \"rate\"", o.pos()));
+                        else { rate = true; checkRate((RATE)o); }
+            }
+        depths.clear();
+
         // check, if the scheduler or gpio callbacks have been overridden and add appropriate warning
         if(bdf.scheduler().code() instanceof USER_DEFINED) errors.addWarning(new ParserWarning(
                 "Default scheduler was overridden. Note that no guarantees can be made for user-defined schedulers.",
@@ -498,6 +650,25 @@ public class Parser {
 //return c >= 0 || c <= 9 || c >= 'a' || c <= 'f' || c >= 'A' || c <= 'F';
 //}
 
+    private void checkFlush(FLUSH flush) {
+        if(flush.threshold() < 1)
+            errors.addError(new ParserError("flush threshold has to be at least 1", flush.pos()));
+        if(flush.timeout() < -1)
+            errors.addError(new ParserError("flush timeout must not be negative", flush.pos()));
+    }
+
+    private void checkDDR(DDR ddr) {
+        if(ddr.qsize() < 1)
+            errors.addError(new ParserError("ddr buffer size has to be at least 1", ddr.pos()));
+    }
+
+    private void checkRate(RATE rate) {
+        if(rate.rate() < 1)
+            errors.addError(new ParserError("rate has to be at least 1", rate.pos()));
+        if(rate.burst() < 1 && rate.burst() != -1)
+            errors.addError(new ParserError("burst has to be at least 1", rate.pos()));
+    }
+
     private void checkIP(String ip, Position pos) {
         String[] parts = ip.split("\\.");
         if(parts.length < 4)
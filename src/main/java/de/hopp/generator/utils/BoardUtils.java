@@ -18,10 +18,22 @@ public class BoardUtils {
     public static final int defaultQueueSizeSW = 1024;
     /** The default size for board-side hardware queues. */
     public static final int defaultQueueSizeHW = 64;
+    /** Hardware queues larger than this size are stored in block RAM. */
+    public static final int bramQueueThreshold = 256;
+    /** The minimal size of queues on core-to-core links with automatically sized queues. */
+    public static final int defaultLinkDepth = 16;
     /** The default bitwidth of ports. */
     public static final int defaultWidth = 32;
+    /** The default timeout for flushing board-side output buffers in microseconds. */
+    public static final int defaultFlushTimeout = 1000;
     /** The default size for the TCP sendbuffer. */
     public static final int defaultTCPSendBuffer = 2048;
+    /** The baud rate of the UART medium. Host and board have to use the same rate. */
+    public static final int uartBaudRate = 115200;
+    /** The size of the receive ring buffer of the UART medium in bytes (has to be a power of two). */
+    public static final int uartRxBufferSize = 1024;
+    /** The size of the transmit ring buffer of the UART medium in bytes (has to be a power of two). */
+    public static final int uartTxBufferSize = 4096;
 
     /**
      * Generates a String representing the provided board description file.
@@ -229,6 +241,10 @@ public class BoardUtils {
      * @return The queue size for the bound port specified by the user.
      */
     private static int getSWQueueSize(CPUAxisPos axis) {
+        // a ddr buffer replaces the software queue
+        DDR ddr = getDDRBuffer(axis);
+        if(ddr != null) return ddr.qsize();
+
         // if there is a local definition, return that
         for(Option opt : axis.opts().term())
             if(opt instanceof SWQUEUE) return ((SWQUEUE)opt).qsize();
@@ -255,6 +271,82 @@ public class BoardUtils {
         return getSWQueueSize(axis) * (int)Math.ceil(getWidth(axis) / 32.0);
     }
 
+    /**
+     * Get the ddr buffer option for this cpu binding.
+     *
+     * A definition at the binding takes precedence over a definition at the bound port.
+     * @param axis The cpu binding.
+     * @return The ddr buffer option or null, if no ddr buffer option is defined.
+     */
+    private static DDR getDDRBuffer(CPUAxisPos axis) {
+        for(Option opt : axis.opts().term())
+            if(opt instanceof DDR) return (DDR)opt;
+        for(Option opt : getPort(axis).opts().term())
+            if(opt instanceof DDR) return (DDR)opt;
+        return null;
+    }
+
+    /**
+     * Checks, if the software queue of this cpu binding is a large buffer in a dedicated ddr section.
+     *
+     * Such buffers are not accounted for in the memory sizes of the application.
+     * @param axis The cpu binding.
+     * @return true if the software queue is a ddr buffer, false otherwise.
+     */
+    public static boolean isDDRBuffered(CPUAxisPos axis) {
+        return getDDRBuffer(axis) != null;
+    }
+
+    /**
+     * Get the flush option for this cpu binding.
+     *
+     * A local definition at the binding takes precedence over a global definition at file root.
+     * @param axis The cpu binding.
+     * @return The flush option or null, if no flush option is defined.
+     */
+    private static FLUSH getFlush(CPUAxisPos axis) {
+        // if there is a local definition, return that
+        for(Option opt : axis.opts().term())
+            if(opt instanceof FLUSH) return (FLUSH)opt;
+
+        // if there is no local definition but a global one, return that
+        for(Option opt : axis.root().opts().term())
+            if(opt instanceof FLUSH) return (FLUSH)opt;
+
+        return null;
+    }
+
+    /**
+     * Get the flush threshold of the board-side output buffer of this cpu binding.
+     *
+     * The threshold is assumed to be specified in the actual bitwidth of the connected port.
+     * However, this method returns the corresponding number of 32-bit values.
+     * The threshold never exceeds the size of the software queue.
+     * If no flush option is defined, the output buffer is flushed as soon as it contains any values.
+     * @param axis The cpu binding.
+     * @return The flush threshold in 32-bit values.
+     */
+    public static int getFlushThreshold32(CPUAxisPos axis) {
+        FLUSH flush = getFlush(axis);
+        int threshold = flush == null ? 1 : flush.threshold() * (int)Math.ceil(getWidth(axis) / 32.0);
+        return Math.min(threshold, getSWQueueSize32(axis));
+    }
+
+    /**
+     * Get the flush timeout of the board-side output buffer of this cpu binding.
+     *
+     * The timeout is the maximal time, values are kept in the output buffer before it is flushed
+     * regardless of the flush threshold.
+     * If no flush option is defined, values are not kept at all.
+     * @param axis The cpu binding.
+     * @return The flush timeout in microseconds.
+     */
+    public static int getFlushTimeout(CPUAxisPos axis) {
+        FLUSH flush = getFlush(axis);
+        if(flush == null) return 0;
+        return flush.timeout() < 0 ? defaultFlushTimeout : flush.timeout();
+    }
+
     /**
      * Get the defined hardware queue size parameter fo this cpu binding.
      *
@@ -281,6 +373,88 @@ public class BoardUtils {
         return defaultQueueSizeHW;
     }
 
+    /**
+     * Get the maximal number of 32-bit values, that are moved between the software queue and
+     * the hardware queue of a cpu binding at once.
+     *
+     * A burst corresponds to the hardware queue size in 32-bit values. Bindings without a
+     * hardware queue move a single value at once.
+     * @param axis A cpu binding.
+     * @return The burst size of the binding in 32-bit values.
+     */
+    public static int getBurstSize32(CPUAxisPos axis) {
+        return Math.max(1, getHWQueueSize(axis) * (int)Math.ceil(getWidth(axis) / 32.0));
+    }
+
+    /**
+     * Get the binding of the other end of a core-to-core link.
+     * @param bind A core-to-core binding.
+     * @return The other binding of the same axis or null, if the axis is connected to a single port.
+     */
+    public static AxisPos getPeer(AxisPos bind) {
+        for(InstancePos inst : bind.root().insts())
+            for(BindingPos other : inst.bind())
+                if(other instanceof AxisPos && !other.equals(bind) &&
+                        ((AxisPos)other).axis().term().equals(bind.axis().term()))
+                    return (AxisPos)other;
+        return null;
+    }
+
+    /**
+     * Get the declared rate of a core-to-core binding.
+     *
+     * The rate declaration at the binding itself is preferred over the declaration at the bound port.
+     * @param bind A core-to-core binding.
+     * @return The declared rate or null, if the rate has not been declared.
+     */
+    public static RATE getRate(AxisPos bind) {
+        for(Option opt : bind.opts().term())
+            if(opt instanceof RATE) return (RATE)opt;
+        for(Option opt : getPort(bind).opts().term())
+            if(opt instanceof RATE) return (RATE)opt;
+        return null;
+    }
+
+    /**
+     * Get the size of the queue inserted into a core-to-core link.
+     *
+     * The depth option may be declared at either end of the link. If it is set to auto,
+     * the size is calculated from the declared rates of both ends. Without a declaration,
+     * a port is assumed to transfer a value every cycle and the sender is assumed to send
+     * bursts of the default hardware queue size. The queue has to store the surplus values
+     * of a burst of the sender, that the receiver is not able to consume in the meantime.
+     *
+     * @param bind The binding of the receiving end of a core-to-core link.
+     * @return The queue size of the link or 0, if no queue should be inserted.
+     */
+    public static int getLinkDepth(AxisPos bind) {
+        AxisPos peer = getPeer(bind);
+
+        // find the depth declaration at either end of the link
+        DEPTH depth = null;
+        for(Option opt : bind.opts().term())
+            if(opt instanceof DEPTH) depth = (DEPTH)opt;
+        if(peer != null) for(Option opt : peer.opts().term())
+            if(opt instanceof DEPTH) depth = (DEPTH)opt;
+
+        // no queue without a declaration, use an explicitly set size as is
+        if(depth == null) return 0;
+        if(depth.depth() != -1) return depth.depth();
+
+        // a link without a sender is never filled
+        if(peer == null) return defaultLinkDepth;
+
+        // rates of both ends in values per microsecond
+        RATE sendRate = getRate(peer), recvRate = getRate(bind);
+        int rp = sendRate != null ? sendRate.rate() : getClockFrequency(getCore(peer.parent().parent()));
+        int rc = recvRate != null ? recvRate.rate() : getClockFrequency(getCore(bind.parent().parent()));
+        int bp = sendRate != null && sendRate.burst() != -1 ? sendRate.burst() : defaultQueueSizeHW;
+
+        // a receiver at least as fast as the sender only requires a small queue
+        if(rp <= rc) return defaultLinkDepth;
+        return Math.max(defaultLinkDepth, (int)Math.ceil(bp * (double)(rp - rc) / rp));
+    }
+
     /**
      * Get the direction specifier of the port referenced by a specific cpu binding.
      * @param axis The cpu binding.
@@ -318,33 +492,25 @@ public class BoardUtils {
     }
 
     /**
-     * Calculates the greatest used software queue size on out-going ports.
-     *
-     * This is required for memory allocation on the board-side driver,
-     * since only a single out-going software queue will be allocated,
-     * which has to capable of holding all these elements.
-     * @param file The complete board description.
-     * @return The maximal used queue size.
+     * Get the timeout specified for attempts to free memory.
+     * @param term Ethernet instance.
+     * @return The timeout specified or the default timeout.
      */
-    public static int maxOutQueueSize(BDLFilePos file) {
-        int size = 0;
-
-        for(InstancePos inst : file.insts())
-            for(BindingPos bind : inst.bind())
-                if(bind instanceof CPUAxisPos)
-                    if(getPort(bind).direction() instanceof OUTPos)
-                        size = Math.max(size, getSWQueueSize((CPUAxisPos)bind));
-
-        return size;
+    public static int getTimeout(ETHERNETPos term) {
+        return getTimeout(term.opts().term());
     }
 
     /**
-     * Get the timeout specified for attempts to free memory.
-     * @param term Ethernet instance.
+     * Get the timeout specified for attempts to send over UART.
+     * @param term UART instance.
      * @return The timeout specified or the default timeout.
      */
-    public static int getTimeout(ETHERNETPos term) {
-        for(MOption opt : term.opts().term()) if(opt instanceof TOUT)
+    public static int getTimeout(UARTPos term) {
+        return getTimeout(term.opts().term());
+    }
+
+    private static int getTimeout(MOptions opts) {
+        for(MOption opt : opts) if(opt instanceof TOUT)
             // if an option is set, use the specified value
             return ((TOUT)opt).val();
 
@@ -358,6 +524,26 @@ public class BoardUtils {
         return false;
     }
 
+    /**
+     * Calculates the greatest used software queue size on out-going ports.
+     *
+     * This is required for sizing the send buffer of the medium,
+     * which has to be capable of holding a complete output buffer of each port.
+     * @param file The complete board description.
+     * @return The maximal used queue size.
+     */
+    public static int maxOutQueueSize(BDLFilePos file) {
+        int size = 0;
+
+        for(InstancePos inst : file.insts())
+            for(BindingPos bind : inst.bind())
+                if(bind instanceof CPUAxisPos)
+                    if(getPort(bind).direction() instanceof OUTPos)
+                        size = Math.max(size, getSWQueueSize((CPUAxisPos)bind));
+
+        return size;
+    }
+
     /**
      * Calculates the size of the TCP send buffer for the boards ethernet connection.
      *
@@ -370,38 +556,33 @@ public class BoardUtils {
         return Math.max(defaultTCPSendBuffer, maxOutQueueSize(term.root()) *10);
     }
 
-    private static int totalQueueSize(BDLFilePos file) {
-        int size = 0;
-
-        // add queue lengths of all in-going ports
-        for(InstancePos inst : file.insts())
-            for(BindingPos bind : inst.bind())
-                if(bind instanceof CPUAxisPos)
-                    if(getPort(bind).direction() instanceof INPos)
-                        size += getSWQueueSize((CPUAxisPos)bind);
-
-        // add maximal queue length of all out-going ports
-        size += maxOutQueueSize(file);
-
-        return size;
+    /**
+     * Calculates the stack size required by the application.
+     *
+     * Software queues, output buffers and the ring buffers of the UART medium are allocated statically,
+     * buffers of the medium library on the heap (see {@link #heapMemorySize(BDLFilePos)}).
+     * None of them is therefore part of the stack.
+     * @return The calculated stack size in 4byte integers.
+     */
+    public static int stackMemorySize() {
+        // use 5k (that's 20k in byte)for data and application - hope that's sufficient...
+        return 5000;
     }
 
     /**
-     * Calculates the total memory size required by the application.
+     * Calculates the heap size required by the application.
      *
-     * Overapproximates by merging stack and heap space.
-     * @param file The board design for which memory size should be calculated.
-     * @return The calculated memory size in 4byte integers.
+     * Software queues are not included, since their storage is allocated statically.
+     * @param file The board design for which the heap size should be calculated.
+     * @return The calculated heap size in 4byte integers.
      */
-    public static int totalMemorySize(BDLFilePos file) {
+    public static int heapMemorySize(BDLFilePos file) {
         // use 5k (that's 20k in byte)for data and application - hope that's sufficient...
-        int totalMem = 5000;
-
-        // add memory sw queue sizes
-        totalMem += totalQueueSize(file);
+        return 5000 + mediumMemorySize(file);
+    }
 
-        // add memory for the medium library
-        totalMem += file.medium().Switch(new MediumPos.Switch<Integer, NE>() {
+    private static int mediumMemorySize(BDLFilePos file) {
+        return file.medium().Switch(new MediumPos.Switch<Integer, NE>() {
             int mediumMem = 0;
             public Integer CaseNONEPos(NONEPos term) {
                 return mediumMem;
@@ -411,14 +592,12 @@ public class BoardUtils {
                 return mediumMem;
             }
             public Integer CaseUARTPos(UARTPos term) {
-                // uart doesn't need additional memory (it's always included)
+                // the ring buffers of the uart are allocated statically
                 return mediumMem;
             }
             public Integer CasePCIEPos(PCIEPos term) {
                 return mediumMem;
             }
         });
-
-        return totalMem;
     }
 }
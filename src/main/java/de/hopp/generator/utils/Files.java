@@ -61,7 +61,7 @@ public class Files {
 
             // ... and copy all its contents
             for(String s : srcFile.list())
-                newFiles = newFiles || deploy(new File(srcFile, s), new File(destFile, s), IO);
+                newFiles = deploy(new File(srcFile, s), new File(destFile, s), IO) || newFiles;
 
             return newFiles;
         }
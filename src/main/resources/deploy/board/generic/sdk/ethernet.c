@@ -23,6 +23,7 @@
 #endif
 
 #include <math.h>
+#include <string.h>
 
 
 /* *************************************************************************************** */
@@ -35,8 +36,14 @@ static struct netif *netif_ptr;
 /** active connection, if any */
 static struct tcp_pcb *con;
 
-/** number of currently acknowledged values */
-static unsigned int num_ack = 0;
+/** number of bytes acknowledged by the client since the last check (set by the sent callback) */
+static volatile unsigned int num_ack = 0;
+
+/** total number of bytes enqueued for sending (wraps around) */
+static unsigned int num_enqueued = 0;
+
+/** total number of bytes acknowledged by the client (wraps around, set by the sent callback) */
+static volatile unsigned int num_released = 0;
 
 /**
  * According to Xilinx employees, this is an implementation for a usleep on a PPC.
@@ -55,142 +62,125 @@ static inline void usleep(unsigned int useconds) {
 /* ********************************* SENDING & RECEIVING ********************************* */
 /* *************************************************************************************** */
 
-static inline void set_unaligned ( int *target, int *data ) {
-    int offset, i;
-    char *byte, *res;
+/** stores a received message */
+static struct pbuf *msgFst = NULL, *msgCurSeg = NULL;
+/** stores the position of the next byte to read in the received message and in its current segment */
+static unsigned int msgOffset = 0, segOffset = 0;
 
-    offset = ((int)target) % 4;
-    if (offset != 0) {
-        byte = (void*)data;
-        res = (void*)target;
-        for (i=0; i<4; i++) *(res++) = ((*(byte++)) & 0xFF);
-    } else *target = *data;
-}
+/**
+ * Returns the free space of the send buffer.
+ * @return Number of 4-byte integer values, that fit into the send buffer.
+ *         0, if no more segments can be enqueued.
+ */
+static unsigned int medium_space() {
+	if(!medium_connected()) return 0;
 
-static inline int get_unaligned ( int *data ) {
-    unsigned int offset, res, tmp;
-    int i;
-    char *byte;
-
-    offset = ((int)data) % 4;
-    if (offset != 0) {
-        byte = (void*)data;
-        res = 0;
-        for (i=0; i<4; i++) {
-            // make sure only rightmost 8bit are processed
-            tmp = (*(byte++)) & 0xFF;
-            // shift the value to the correct position
-            tmp <<= (i*8);
-            // sum up the 32bit value
-            res += tmp;
-        }
-        return res;
-    }
-    return *data;
-}
+	// each message requires up to two segments (header and payload)
+	if(tcp_sndqueuelen(con) + 2 > TCP_SND_QUEUELEN) return 0;
 
-/** stores a received message */
-static struct pbuf *msgFst = NULL, *msgCurSeg = NULL;
-/** stores the position of the next word to read in the received message */
-static unsigned short wordIndex = 0, rWordIndex = 0;
+	return tcp_sndbuf(con) / sizeof(int);
+}
 
 /**
- * Tries to free memory on the board by reading an in-going message.
- * Reading consumes the message from the in-going stack. If the message was
- * an acknowledgment, the acknowledged message is also removed, resulting in
- * even more freed memory.
+ * Waits, until a message with the given payload size can be enqueued.
+ *
+ * Space in the send buffer is freed, when the client acknowledges sent segments,
+ * which is reported by the sent callback. The callback is triggered while processing
+ * in-going packets, so this procedure keeps reading messages until enough space is available.
+ * Received messages never send anything directly, so they can safely be processed here.
  *
- * If no message is available, the procedure sleeps TIMEOUT times for 1 second
- * intervals and checks again.
- * If a timeout occurs, the board side driver will shut down.
+ * If neither a message nor an acknowledgment arrives for TIMEOUT seconds,
+ * the board side driver will shut down.
  *
  * Debug messages from this method have to be sent over UART,
  * since memory for Ethernet could not be allocated...
+ *
+ * @param size Payload size of the message (in 4-byte integer values).
+ * @return 0 if successful, 1 otherwise.
  */
-static int medium_free_memory() {
-	// initialize attempt counter to four times timeout (since we check every 250 ms)
-	int attempts = TIMEOUT * 4;
+static int medium_wait(unsigned int size) {
+	unsigned int ticksPerSecond = platform_ticks_per_us() * 1000000;
+	unsigned int start = platform_ticks(), seconds = 0;
 
-	for(attempts = TIMEOUT * 4; attempts > 0 ; attempts--) {
-		// check for a message
-		int rslt = medium_read();
+	// push out enqueued, but unsent messages first. Otherwise, there might be nothing to acknowledge
+	tcp_output(con);
 
-		if(num_ack > 0) {
+	while(medium_space() < size + 1) {
+		// restart the timeout, if there was any progress
+		if(medium_read() || num_ack > 0) {
 			num_ack = 0;
-			return 0;
-		}
-
-		// if there was an application message, restart the attempt counter
-		// (not sure if this is wise... the other message will probably result in memory freeing attempts as well)
-		if(rslt > 0) {
-			attempts = TIMEOUT * 4;
+			start   = platform_ticks();
+			seconds = 0;
 			continue;
 		}
 
-		// if there was no tcp packet, print a warning over uart
-		// TODO can this even happen? Does xemac_inputf block until a packet arrives?
+		// count elapsed seconds (avoids overflowing the tick counter for large timeouts)
+		if(platform_ticks() - start >= ticksPerSecond) {
+			start += ticksPerSecond;
+			seconds++;
+
 #if SEVERITY >= SEVERITY_WARN
-		xil_printf("\nWARNING: No message. %d more attempts", attempts);
+			xil_printf("\nWARNING: Send buffer full. %d more seconds", TIMEOUT - seconds);
 #endif
+		}
 
-		// TODO select instead of busy waiting? this seems kinda inefficient ):
-	    usleep(250000);
+		// give up, if the timeout has been reached
+		if(seconds >= TIMEOUT) {
+			xil_printf("\nERROR: Timeout while waiting for messages to free memory.");
+			return 1;
+		}
 	}
 
-	// give up, if the timeout has been reached
-	xil_printf("\nERROR: Timeout while waiting for messages to free memory.");
-	return 1;
+	return 0;
 }
 
 /**
- * Enqueues data for sending over tcp by copying the provided values.
+ * Enqueues data for sending over tcp.
  *
- * Tries to free memory by consuming incoming messages if insufficient memory for copying is available.
- * Fails, if it cannot free a sufficient amount of memory.
+ * Fails, if lwIP cannot allocate memory for the data, which should not happen
+ * since the send buffer is checked beforehand.
  *
  * @param vals Pointer to array of values to be written.
  * @param size Number of int-sized values to be written.
+ * @param flags Flags for tcp_write. Without TCP_WRITE_FLAG_COPY, the values are only referenced
+ *              and must not be modified until they are acknowledged by the client.
  * @return 0 if successful, 1 otherwise.
  */
-static inline int tcp_enque(int* vals, int size) {
+static inline int tcp_enque(int* vals, int size, u8_t flags) {
 
     // return directly, if there is nothing to write...
     if(size == 0) return 0;
 
-    // unalign values (not sure, if this is still required)
-    int i;
-    for(i = 0; i < size; i++)
-        set_unaligned(vals+i, vals+i);
-
-    err_t err;
-    do {
-        // write message header to tcp buffer (copying values)
-        // Note, that the payload of the message indeed HAS to be copied,
-        // since the message only points to the drivers out-going queue
-        err = tcp_write(con, vals, size * sizeof(int), TCP_WRITE_FLAG_COPY);
-
-        // Should not happen since we checked for the size earlier and it was sufficient...
-        if(err == ERR_MEM) {
-            // This can happen despite the send buffer check beforehand, since the send buffer
-            // only checks for enough space to copy all values. However, tcp_write requires
-            // more memory than that.
-            // FREEING MEMORY BY READING HERE IS A VERY BAD IDEA
-            // (may interleave debug messages in between header and values of data messages)
-        	// If this happens in applications we need to copy the message to an array again and use that instead here... ):
-            xil_printf("\nERROR: Could not send message due to memory shortage.");
-            return 1;
-        } else if(err != ERR_OK) {
-            // Other errors directly kill the driver
-            xil_printf("\nERROR: Could not write tcp message (%d)", err);
-            return 1;
-        } else {
-            break;
-        }
-    } while(1);
+    // write values to tcp buffer
+    err_t err = tcp_write(con, vals, size * sizeof(int), flags);
+
+    // Should not happen since we checked for the size earlier and it was sufficient...
+    if(err == ERR_MEM) {
+        // This can happen despite the send buffer check beforehand, if lwIP runs out of
+        // pbufs or segments. FREEING MEMORY BY READING HERE IS A VERY BAD IDEA
+        // (may interleave debug messages in between header and values of data messages)
+        xil_printf("\nERROR: Could not send message due to memory shortage.");
+        return 1;
+    } else if(err != ERR_OK) {
+        // Other errors directly kill the driver
+        xil_printf("\nERROR: Could not write tcp message (%d)", err);
+        return 1;
+    }
+
+    num_enqueued += size * sizeof(int);
     return 0;
 }
 
-int medium_send(struct Message *m) {
+/**
+ * Enqueues a message for sending over tcp.
+ * The header is always copied, the payload only if requested.
+ * @param header The header of the message.
+ * @param payload Pointer to the payload of the message.
+ * @param size Size of the payload (in 4-byte integer values).
+ * @param flags Flags for tcp_write of the payload.
+ * @return 0 if successful, 1 otherwise.
+ */
+static int tcp_enque_message(int header, int payload[], unsigned int size, u8_t flags) {
     // abort, if no connection was made so far
     if(con == NULL) {
         xil_printf("\nERROR: no connection detected");
@@ -203,24 +193,54 @@ int medium_send(struct Message *m) {
         return 1;
     }
 
-    // calculate total message size
-    int totalSize = m->headerSize + m->payloadSize;
-
-    // check if there is enough buffer space available
-    while (tcp_sndbuf(con) <= (totalSize * sizeof(int))) {
-        // if not, try to free memory
-        if(medium_free_memory()) {
-            xil_printf("\nERROR: Not enough space in tcp_sndbuf (failed to free more)");
-            return 1;
-        }
+    // check if there is enough buffer space available, otherwise wait for the client to acknowledge
+    if(medium_space() < size + 1 && medium_wait(size)) {
+        xil_printf("\nERROR: Not enough space in tcp_sndbuf (failed to free more)");
+        return 1;
     }
 
     // enqueue header and payload
-    if(tcp_enque(m->header,  m->headerSize))  return 1;
+    if(tcp_enque(&header, 1, TCP_WRITE_FLAG_COPY)) return 1;
     // despite the send buffer check it is possible for
     // the the header write to work and the payload write to fail.
     // in this case, basically everything is broken, esp. when debugging is enabled.
-    if(tcp_enque(m->payload, m->payloadSize)) return 1;
+    if(tcp_enque(payload, size, flags)) return 1;
+
+    return 0;
+}
+
+int medium_connected() {
+    return con != NULL && con->state == ESTABLISHED;
+}
+
+unsigned int medium_capacity() {
+    // the header requires a single value
+    unsigned int space = medium_space();
+    return space > 1 ? space - 1 : 0;
+}
+
+int medium_enqueue(int header, int payload[], unsigned int size) {
+    return tcp_enque_message(header, payload, size, TCP_WRITE_FLAG_COPY);
+}
+
+int medium_enqueue_ref(int header, int payload[], unsigned int size) {
+    return tcp_enque_message(header, payload, size, 0);
+}
+
+unsigned int medium_mark() {
+    return num_enqueued;
+}
+
+int medium_released(unsigned int mark) {
+    return (int)(num_released - mark) >= 0;
+}
+
+int medium_flush() {
+    // abort, if no connection was made so far
+    if(con == NULL) {
+        xil_printf("\nERROR: no connection detected");
+        return 1;
+    }
 
     // flush tcp buffer
     err_t err = tcp_output(con);
@@ -232,36 +252,54 @@ int medium_send(struct Message *m) {
     return 0;
 }
 
+int medium_send(int header, int payload[], unsigned int size) {
+    if(medium_enqueue(header, payload, size)) return 1;
+    return medium_flush();
+}
+
 /**
- * Read the next integer value from a received message.
- * This procedure is for the protocol interpreter in order to interpret one int after another.
+ * Consumes bytes from the received message, copying them segment-wise.
  *
- * If there are still unconsumed values in the current pbuf, the first one is returned.
- * Otherwise, a new pbuf is requested beforehand. The driver will stall until values are received!
+ * If the current pbuf chain is consumed, a new pbuf is requested.
+ * The driver will stall until enough bytes are received!
+ * Values are not required to be aligned to segment boundaries.
  *
- * @return the received integer value.
+ * @param target Memory, where the consumed bytes are copied to. May be NULL to discard the bytes.
+ * @param size Number of bytes to be consumed.
  */
-int medium_recv_int() {
-    // get next pbuf, if there is currently none (might block indefinitely, if client is faulty...)
-    while(msgFst == NULL) xemacif_input(netif_ptr);
-
-    // get an integer value
-    int word = get_unaligned(msgCurSeg->payload + rWordIndex*4);
-
-    // increment word indices
-    wordIndex++; rWordIndex++;
-
-    // end of pbuf chain - free memory
-    if(wordIndex*4 >= msgFst->tot_len) {
-        pbuf_free(msgFst);
-        msgFst = NULL;
-    // end of current pbuf segment - get the next (and reset relative word index)
-    } else if(rWordIndex*4 >= msgCurSeg->len) {
-        msgCurSeg = msgCurSeg->next;
-        rWordIndex = 0;
+static void medium_consume(char *target, unsigned int size) {
+    while(size > 0) {
+        // get next pbuf, if there is currently none (might block indefinitely, if client is faulty...)
+        while(msgFst == NULL) xemacif_input(netif_ptr);
+
+        // copy as much as possible from the current segment
+        unsigned int count = msgCurSeg->len - segOffset;
+        if(count > size) count = size;
+
+        if(target != NULL) {
+            memcpy(target, (char*)msgCurSeg->payload + segOffset, count);
+            target += count;
+        }
+        size -= count; msgOffset += count; segOffset += count;
+
+        // end of pbuf chain - free memory
+        if(msgOffset >= msgFst->tot_len) {
+            pbuf_free(msgFst);
+            msgFst = NULL;
+        // end of current pbuf segment - get the next (and reset relative offset)
+        } else if(segOffset >= msgCurSeg->len) {
+            msgCurSeg = msgCurSeg->next;
+            segOffset = 0;
+        }
     }
+}
 
-    return word;
+void medium_recv(int *target, unsigned int count) {
+    medium_consume((char*)target, count * sizeof(int));
+}
+
+void medium_skip(unsigned int count) {
+    medium_consume(NULL, count * sizeof(int));
 }
 
 /**
@@ -277,7 +315,9 @@ int medium_read() {
     if(msgFst == NULL) xemacif_input(netif_ptr);
     // if there is a pbuf (now), decode the first int as header
     if(msgFst != NULL) {
-        decode_header(medium_recv_int());
+        int header;
+        medium_recv(&header, 1);
+        decode_header(header);
         return 1;
     } else return 0;
 }
@@ -289,10 +329,15 @@ int medium_read() {
 
 /**
  * This procedure is called, whenever an acknowledgment is received.
- * It stores the number of acknowledged values and immediately returns.
+ * The acknowledged segments have been removed from the send buffer at this point,
+ * so payloads enqueued without copying are released up to the acknowledged byte.
+ * It records the number of acknowledged bytes and pushes out enqueued, but unsent segments,
+ * which did not fit into the send window beforehand.
  */
 static err_t ack_callback (void *arg, struct tcp_pcb *tpcb, u16_t len) {
-	num_ack = len;
+	num_ack += len;
+	num_released += len;
+	tcp_output(tpcb);
 	return ERR_OK;
 }
 
@@ -310,8 +355,8 @@ static err_t recv_callback(void *arg, struct tcp_pcb *tpcb, struct pbuf *p, err_
     }
 
     // set message pointers, reset word indices
-    msgFst    = p; msgCurSeg  = msgFst;
-    wordIndex = 0; rWordIndex = 0;
+    msgFst    = p; msgCurSeg = msgFst;
+    msgOffset = 0; segOffset = 0;
 
 //    while(wordIndex * 4 < msg->len)    decode_header(recv_int());
 
@@ -337,6 +382,9 @@ static err_t accept_callback(void *arg, struct tcp_pcb *newpcb, err_t err) {
     // use this connection to return results to
     con = newpcb;
 
+    // data enqueued on a previous connection is not referenced anymore
+    num_released = num_enqueued;
+
     // bind callback procedures
     tcp_recv(newpcb, recv_callback);
     tcp_sent(newpcb, ack_callback);
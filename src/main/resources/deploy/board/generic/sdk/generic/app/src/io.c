@@ -7,6 +7,7 @@
 #include "medium/message.h"
 #include "medium/medium.h"
 #include "medium/protocol/protocol.h"
+#include "platform.h"
 
 #include "xparameters.h"
 #include "xbasic_types.h"
@@ -15,7 +16,26 @@
 #include <stdlib.h>
 #include <stdio.h>
 
-int outQueueSize = 0;
+/** maximal size of a single debug message in byte (longer messages are truncated) */
+#define DEBUG_BUFFER_SIZE 256
+
+/** storage for formatting debug messages */
+static int debugBuffer[DEBUG_BUFFER_SIZE / sizeof(int)];
+
+unsigned int inPendingCount = 0;
+
+/** stores, if an in-going port is contained in the list of pending ports */
+static unsigned char isPending[IN_STREAM_COUNT];
+
+/** half of the output buffer, which is currently active */
+static unsigned char outHalf[OUT_STREAM_COUNT];
+/** medium marks, up to which the halves of the output buffers are referenced by the medium */
+static unsigned int outMark[OUT_STREAM_COUNT][2];
+
+/** point in time (in platform ticks), at which an output buffer has to be flushed */
+static unsigned int outDeadline[OUT_STREAM_COUNT];
+/** stores, if the flush deadline of an output buffer is set */
+static unsigned char hasDeadline[OUT_STREAM_COUNT];
 
 /**
  * Resets all software queues.
@@ -30,57 +50,118 @@ void reset_queues() {
 	// TODO set some reset flag
 	int i;
 	for(i = 0; i < IN_STREAM_COUNT; i++) clear( inQueue[i]);
-	outQueueSize = 0;
+	for(i = 0; i < IN_STREAM_COUNT; i++) isPending[i] = 0;
+	inPendingCount = 0;
+	// values already handed to the medium are still referenced, so only pending values are dropped
+	for(i = 0; i < OUT_STREAM_COUNT; i++) outQueueSize[i] = outSent[i];
+	for(i = 0; i < OUT_STREAM_COUNT; i++) hasDeadline[i] = 0;
 	// TODO does this guarantee, that no more values will be written to the MB queues??
 }
 
+/** in-going ports with a deferred acknowledgment (in no particular order) */
+static unsigned char ackPorts[IN_STREAM_COUNT];
+/** number of in-going ports with a deferred acknowledgment */
+static unsigned int ackPortCount = 0;
+/** stores, if an acknowledgment is deferred for an in-going port */
+static unsigned char hasAck[IN_STREAM_COUNT];
+/** number of values acknowledged by the deferred acknowledgment of an in-going port */
+static unsigned int ackCount[IN_STREAM_COUNT];
+
 /**
- * Sends an acknowledgment to the client-side driver.
- * This should happen automatically after an in-going data package.
+ * Defers an acknowledgment to the client-side driver.
+ * Acknowledgments of the same port are merged until they are sent.
+ * Note, that acknowledgments of 0 values have to be sent as well,
+ * since they mark the port as blocked on the client-side driver.
  * @param pid Port, for which data is acknowledged.
  * @param count Number of values that is acknowledged
  */
-static void send_ack(unsigned char pid, unsigned int count) {
-    // send several acknowledges, if the protocol cannot fit a full ack
-    // this should not be the case with the current protocol impl, since data and ack messages have equal maxsize.
-    while(count > PROTO_ACK_SIZE) {
-        send_ack(pid, PROTO_ACK_SIZE);
-        count -= PROTO_ACK_SIZE;
-    }
-
-    struct Message *m = encode_ack(pid, count);
-	print_message(m);
-	medium_send(m);
-	message_free(m);
+static void defer_ack(unsigned char pid, unsigned int count) {
+	if(!hasAck[pid]) {
+		hasAck[pid] = 1;
+		ackPorts[ackPortCount++] = pid;
+	}
+	ackCount[pid] += count;
+}
+
+/**
+ * Enqueues all deferred acknowledgments on the medium without flushing it.
+ * Acknowledgments deferred while enqueueing (i.e. while the medium frees memory) are enqueued as well.
+ * @return 0 if successful, 1 otherwise.
+ */
+static int enqueue_acks() {
+	while(ackPortCount > 0) {
+		unsigned char pid = ackPorts[--ackPortCount];
+		unsigned int count = ackCount[pid];
+
+		hasAck[pid]   = 0;
+		ackCount[pid] = 0;
+
+		// send several acknowledges, if the protocol cannot fit a full ack
+		while(count > PROTO_ACK_SIZE) {
+			if(medium_enqueue(encode_ack(pid, PROTO_ACK_SIZE), NULL, 0)) return 1;
+			count -= PROTO_ACK_SIZE;
+		}
+
+		int header = encode_ack(pid, count);
+		print_message(header, NULL, 0);
+		if(medium_enqueue(header, NULL, 0)) return 1;
+	}
+	return 0;
+}
+
+int send_acks() {
+	if(ackPortCount == 0) return 0;
+
+	if(enqueue_acks()) return 1;
+	return medium_flush();
 }
 
-void recv_message(unsigned char pid, int payload[], unsigned int size) {
-	unsigned int i = 0;
-	for(i = 0; i < size; i++) {
-		// add values, until corresponding sw queue is full
-		if(inQueue[pid]->size < inQueue[pid]->cap) {
-			put(inQueue[pid], payload[i]);
-		} else break;
+void recv_message(unsigned char pid, unsigned int size) {
+	unsigned int i = 0, count;
+	while(i < size) {
+		// read values directly into the free storage of the sw queue, until it is full
+		int *values = reserve(inQueue[pid], &count);
+		if(count == 0) break;
+		if(count > size - i) count = size - i;
+
+		medium_recv(values, count);
+		commit(inQueue[pid], count);
+		i += count;
 	}
 
-	log_fine("send ack for pid %d with %d values", pid, i);
+	// discard values, that did not fit into the sw queue (they are not acknowledged)
+	medium_skip(size - i);
+
+	// mark the port as pending, if values have been stored
+	if(i > 0 && !isPending[pid]) {
+		isPending[pid] = 1;
+		inPending[inPendingCount++] = pid;
+	}
 
-	// acknowledge all stored values
-	send_ack(pid, i);
+	log_fine("defer ack for pid %d with %d values", pid, i);
+
+	// acknowledge all stored values (sent with the next message or at the end of the scheduler iteration)
+	defer_ack(pid, i);
+}
+
+void release_pending(unsigned int n) {
+	isPending[inPending[n]] = 0;
+	inPending[n] = inPending[--inPendingCount];
 }
 
 void send_poll(unsigned char pid) {
-	struct Message *m = encode_poll(pid);
-    print_message(m);
-	medium_send(m);
-	message_free(m);
+	// deferred acknowledgments have to arrive before the poll
+	if(enqueue_acks()) return;
+
+	int header = encode_poll(pid);
+    print_message(header, NULL, 0);
+	medium_send(header, NULL, 0);
 }
 
 void send_gpio(unsigned char gid, unsigned char val) {
-	struct Message *m = encode_gpio(gid, val);
-    print_message(m);
-	medium_send(m);
-	message_free(m);
+	int header = encode_gpio(gid, val);
+    print_message(header, NULL, 0);
+	medium_send(header, NULL, 0);
 }
 
 //void XUartLite_SendByte(u32 BaseAddress, u8 Data);
@@ -93,66 +174,166 @@ void send_gpio(unsigned char gid, unsigned char val) {
 //		XUartLite_SendByte(XPAR_RS232_UART_1_BASEADDR, byte);
 //	}
 //}
-//
-//void test_send(struct Message *m) {
-//	int i;
-//	for(i = 0; i < m->headerSize;  i++) UartSendInt(m->header[i]);
-//	for(i = 0; i < m->payloadSize; i++) UartSendInt(m->payload[i]);
-//}
+
+/**
+ * Switches the output buffer of a port to its other half, if the active half has been handed
+ * to the medium completely and the other half has been released by the medium.
+ * @param pid The port, of which the output buffer should be switched.
+ */
+static void switch_half(unsigned char pid) {
+	unsigned char other = !outHalf[pid];
+
+	if(outQueueSize[pid] == 0 || outSent[pid] < outQueueSize[pid]) return;
+	if(!medium_released(outMark[pid][other])) return;
+
+	outHalf[pid]      = other;
+	outQueue[pid]     = outBuffer[pid] + other * outQueueCap[pid];
+	outQueueSize[pid] = 0;
+	outSent[pid]      = 0;
+}
+
+int flush_due(unsigned char pid) {
+	unsigned int pending = outQueueSize[pid] - outSent[pid];
+
+	// nothing to flush, but the buffer might switch to its other half
+	if(pending == 0) return outQueueSize[pid] > 0 && medium_released(outMark[pid][!outHalf[pid]]);
+
+	// flush, if the threshold is reached, the active half is full or no more values may be read from the port
+	if(pending >= outThreshold[pid]) return 1;
+	if(outQueueSize[pid] >= outQueueCap[pid]) return 1;
+	if(isPolling[pid] && pollCount[pid] == 0) return 1;
+
+	// otherwise, flush after the timeout, which starts with the first check of a non-empty buffer
+	if(!hasDeadline[pid]) {
+		hasDeadline[pid] = 1;
+		outDeadline[pid] = platform_ticks() + outTimeout[pid] * platform_ticks_per_us();
+	}
+	return (int)(platform_ticks() - outDeadline[pid]) >= 0;
+}
 
 int flush_queue(unsigned char pid) {
 	log_fine("flushing %d ...", pid);
 
-	// return, if the queue is empty
-	if(outQueueSize == 0) {
+	// return, if there are no pending values
+	if(outSent[pid] == outQueueSize[pid]) {
 		log_fine("empty");
+		switch_half(pid);
 		return 0;
 	}
 
-	log_fine("count: %d", outQueueSize);
+	log_fine("count: %d", outQueueSize[pid] - outSent[pid]);
+
+	// piggy-back deferred acknowledgments
+	int rslt = enqueue_acks();
+
+	// otherwise, create data messages and hand them to the medium without copying
+	// split into several messages, if the pending values exceed the maximal message size
+	// or the medium cannot take all values at once
+	unsigned int sent = outSent[pid];
+	while(!rslt && outSent[pid] < outQueueSize[pid]) {
+		unsigned int size = outQueueSize[pid] - outSent[pid];
+		if(size > PROTO_DATA_SIZE) size = PROTO_DATA_SIZE;
+
+		// stop, if the send buffer of the medium is full
+		unsigned int capacity = medium_capacity();
+		if(capacity == 0) break;
+		if(size > capacity) size = capacity;
+
+		int header = encode_data(pid, size);
+		print_message(header, outQueue[pid] + outSent[pid], size);
+		rslt = medium_enqueue_ref(header, outQueue[pid] + outSent[pid], size);
+
+		outSent[pid] += size;
+	}
+	if(!rslt) rslt = medium_flush();
 
-	// otherwise, create a data message and send it
-	// FIXME ensure, that outQueueSize < proto_data_size
-	// or rather: split into several packages, if this is the case
-	struct Message *m = encode_data(pid, outQueueSize);
-	message_payload(m, outQueue, outQueueSize);
-    print_message(m);
-	int rslt = medium_send(m);
+	// the active half is referenced by the medium up to this point
+	if(outSent[pid] > sent) outMark[pid][outHalf[pid]] = medium_mark();
 
-	message_free(m);
-	outQueueSize = 0;
+	// values, that could not be sent yet, remain pending. They are sent, once the medium
+	// acknowledged enough data to free space in its send buffer. In the meantime, the scheduler
+	// continues to service all other ports.
+	if(outSent[pid] < outQueueSize[pid]) {
+		log_fine("send buffer full, keeping %d values", outQueueSize[pid] - outSent[pid]);
+	} else {
+		hasDeadline[pid] = 0;
+		switch_half(pid);
+	}
 
 	return rslt;
 }
 
+/** maximal number of arguments of a log record */
+#define LOG_MAX_ARGS 8
+
+/** number of log records dropped, since the medium could not take them */
+static unsigned int logDropped = 0;
+
+/** set while a log record is sent, since sending might log itself */
+static unsigned char logSending = 0;
+
+void send_log(unsigned char severity, unsigned int id, unsigned int argc, const char *format, ...) {
+	va_list args;
+
+	// without a connection, format the message locally and print it over UART
+	if(!medium_connected()) {
+		va_start(args, format);
+		vsnprintf((char*)debugBuffer, sizeof(debugBuffer), format, args);
+		va_end(args);
+
+		xil_printf("\n%s", (char*)debugBuffer);
+		return;
+	}
+
+	if(argc > LOG_MAX_ARGS) argc = LOG_MAX_ARGS;
+
+	// drop the record, if the medium cannot take it without waiting
+	// (logging must never process in-going messages, since it might occur while decoding one)
+	// or if it is logged while sending another record
+	if(logSending || medium_capacity() < 1 + argc) {
+		logDropped++;
+		return;
+	}
+
+	// the record consists of the call site id and the raw arguments
+	int record[1 + LOG_MAX_ARGS];
+	unsigned int i;
+
+	record[0] = id;
+	va_start(args, format);
+	for(i = 0; i < argc; i++) record[1 + i] = va_arg(args, int);
+	va_end(args);
+
+	logSending = 1;
+	medium_send(encode_log(severity, 1 + argc), record, 1 + argc);
+	logSending = 0;
+
+	// report dropped records locally, since the host cannot know about them
+	if(logDropped > 0) {
+		xil_printf("\n%d log records dropped", logDropped);
+		logDropped = 0;
+	}
+}
+
 void send_debug(unsigned char type, const char *format, ...) {
 
-	// make a run over the vararg parameter to determine the size
+	// format the message directly into the debug buffer (truncating it, if necessary)
 	va_list args;
 	va_start(args, format);
-	unsigned int size = vsnprintf(NULL, 0, format, args) + 1;
+	int length = vsnprintf((char*)debugBuffer, sizeof(debugBuffer), format, args);
 	va_end(args);
 
+	if(length < 0) return;
+
+	// include the terminating null character
+	unsigned int size = length + 1;
+	if(size > sizeof(debugBuffer)) size = sizeof(debugBuffer);
+
     // properly align the char array to sizeof(int)
     // under the assumption, that sizeof(int) % sizeof(char) = 0
     #define cpi (sizeof(int) / sizeof(char))
-    size += (cpi - (size % cpi)) % cpi;
-
-    // FIXME check, that the resulting size is smaller than the maxsize of the protocol!?
-//    if(size > )
-
-    // allocate memory and store the formatted string
-    char *c = malloc(sizeof(char) * size);
-    va_start(args, format);
-    vsnprintf(c, size, format, args);
-    va_end(args);
+    while(size % cpi != 0) ((char*)debugBuffer)[size++] = 0;
 
 	// encode and send a message (using sizeof(int) as size)
-	struct Message *m = encode_debug(type, size / cpi);
-	message_payload(m, (int*)c, size / cpi);
-	medium_send(m);
-
-	// free allocated memory
-	message_free(m);
-	free(c);
+	medium_send(encode_debug(type, size / cpi), debugBuffer, size / cpi);
 }
@@ -14,18 +14,40 @@
 #include "constants.h"
 #include "queueUntyped.h"
 
+/**
+ * Places the storage of large software queues in a dedicated section of the external memory.
+ * The section is not initialised at startup and not accounted for in the stack and heap sizes.
+ */
+#define DDR_BUFFER __attribute__((section(".ddr_buffer")))
+
 /** Microblaze input queues */
 Queue *inQueue[IN_STREAM_COUNT];
-/** Microblaze output queue */
-int outQueue[MAX_OUT_SW_QUEUE_SIZE];
-/** capacity of the output queues */
+/** storage of both halves of the Microblaze output buffers */
+int *outBuffer[OUT_STREAM_COUNT];
+/** active half of the Microblaze output buffers */
+int *outQueue[OUT_STREAM_COUNT];
+/** capacity of the output buffers (per half) */
 int outQueueCap[OUT_STREAM_COUNT];
+/** current size of the active half of the output buffers */
+unsigned int outQueueSize[OUT_STREAM_COUNT];
+/** number of values of the active half of the output buffers, that have already been handed to the medium */
+unsigned int outSent[OUT_STREAM_COUNT];
+/** number of values, at which an output buffer is flushed */
+unsigned int outThreshold[OUT_STREAM_COUNT];
+/** maximal time in microseconds, values are kept in an output buffer below its threshold */
+unsigned int outTimeout[OUT_STREAM_COUNT];
 /** stores if the port is a polling port */
 int isPolling[OUT_STREAM_COUNT];
 /** current poll counter of the port */
 unsigned int pollCount [OUT_STREAM_COUNT];
-/** current size of the output queue */
-extern int outQueueSize;
+/** maximal number of values moved to the hardware queue of an in-going port at once */
+unsigned int inBurst[IN_STREAM_COUNT];
+/** maximal number of values moved from the hardware queue of an out-going port at once */
+unsigned int outBurst[OUT_STREAM_COUNT];
+/** in-going ports with values in their software queue (in no particular order) */
+unsigned char inPending[IN_STREAM_COUNT];
+/** number of in-going ports with values in their software queue */
+extern unsigned int inPendingCount;
 
 /**
  * Initialises the software queues on the microblaze.
@@ -34,13 +56,29 @@ void init_queue();
 
 /**
  * Process an incoming data package.
- * This procedure forwards the received data to a vhdl component
- * over axi stream.
+ * The payload of the package is read from the medium directly into the software queue of the port,
+ * from where the scheduler forwards it to a vhdl component over axi stream.
+ * Values not fitting into the software queue are discarded and not acknowledged.
  * @param pid Target port, for which the message is intended.
- * @param payload Data that is sent to the component.
- * @param size Number of values sent to the component.
+ * @param size Number of values in the payload of the package.
+ */
+void recv_message(unsigned char pid, unsigned int size);
+
+/**
+ * Removes an in-going port from the list of ports with values in their software queue.
+ * The last port of the list takes the place of the removed port.
+ * @param n Position of the port in the list of pending ports.
  */
-void recv_message(unsigned char pid, int payload[], unsigned int size);
+void release_pending(unsigned int n);
+
+/**
+ * Sends all deferred acknowledgments to the host-side driver.
+ * Acknowledgments for received data packages are not sent directly, but merged per port
+ * and piggy-backed onto the next poll or data message. Schedulers have to call this procedure
+ * after processing received messages, so that acknowledgments are not delayed any further.
+ * @return 0 if successful, 1 otherwise.
+ */
+int send_acks();
 
 /**
  * Sends a poll for more data to the host-side driver.
@@ -58,11 +96,26 @@ void send_poll(unsigned char pid);
 void send_gpio(unsigned char gid, unsigned char val);
 
 /**
- * Flushes the software output queue and sends its contents to the host-side client.
+ * Checks, if the output buffer of a port should be flushed.
+ * This is the case, if the buffer reached its threshold, if the port is a polling port
+ * without remaining polls or if the oldest value of the buffer exceeded the timeout.
+ * The timeout starts with the first check of a non-empty buffer.
+ * Additionally, a completely sent half of the buffer is due, once the other half has been released
+ * by the medium, so that the buffer can switch to the other half.
+ * @param pid The port, of which the output buffer should be checked.
+ * @return 1 if the buffer should be flushed, 0 otherwise.
+ */
+int flush_due(unsigned char pid);
+
+/**
+ * Flushes the output buffer of a port and sends its contents to the host-side client.
+ * Contents exceeding the maximal size of a data message are split into several messages.
+ * The contents are not copied, but referenced by the medium, until the host-side client
+ * acknowledged them. Afterwards, values are read into the other half of the buffer.
  * This does neither influence input queues nor the hardware output queues for any port.
- * @param pid The port, of which data is currently stored in the output queue.
+ * @param pid The port, of which the output buffer should be flushed.
  * @return 0 if successful, 1 otherwise. A failure might occur due to problems while sending
- *         the contents of the queue over the medium.
+ *         the contents of the buffer over the medium.
  */
 int flush_queue(unsigned char pid);
 
@@ -73,4 +126,21 @@ int flush_queue(unsigned char pid);
  */
 void send_debug(unsigned char type, const char *format, ...);
 
+/**
+ * Sends a binary log record to the host-side driver.
+ * The message is not formatted on the board. Instead, only the id of the log call site and
+ * the raw integer arguments are sent, and the host-side driver formats the message using
+ * the format string table generated for the call sites.
+ * Without a connection, the message is formatted and printed over UART instead.
+ * If the medium cannot take the record without waiting, the record is dropped.
+ *
+ * Log call sites are usually not calling this procedure directly, but use the log_&lt;severity&gt;
+ * macros. The generator assigns ids and argument counts to these call sites.
+ * @param severity Severity of the message.
+ * @param id Id of the log call site.
+ * @param argc Number of integer arguments of the message.
+ * @param format Format string of the message (only used without a connection).
+ */
+void send_log(unsigned char severity, unsigned int id, unsigned int argc, const char *format, ...);
+
 #endif /* IO_H_ */
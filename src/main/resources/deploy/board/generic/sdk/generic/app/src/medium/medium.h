@@ -15,21 +15,94 @@
 int init_medium();
 
 /**
- * Start listening for in-going packages
- * @returns A negative value, if failed. Otherwise this procedure will not return.
- *          If it does return anyway without failing, it will return 0.
+ * Sends a message over the medium. The payload is neither modified nor de-allocated in the process.
+ *
+ * May fail due to problems with the medium or insufficient memory for sending.
+ *
+ * @param header The header of the message, as encoded by the protocol.
+ * @param payload Pointer to the payload of the message. May be NULL, if the message has no payload.
+ * @param size Size of the payload (in 4-byte integer values).
+ * @return 0 if successful, 1 if failed.
+ */
+int medium_send(int header, int payload[], unsigned int size);
+
+/**
+ * Enqueues a message for sending over the medium without sending it immediately.
+ * Enqueued messages are sent together with the next message sent by #medium_send
+ * or when calling #medium_flush. The payload is neither modified nor de-allocated in the process.
+ *
+ * May fail due to problems with the medium or insufficient memory for sending.
+ *
+ * @param header The header of the message, as encoded by the protocol.
+ * @param payload Pointer to the payload of the message. May be NULL, if the message has no payload.
+ * @param size Size of the payload (in 4-byte integer values).
+ * @return 0 if successful, 1 if failed.
+ */
+int medium_enqueue(int header, int payload[], unsigned int size);
+
+/**
+ * Checks, if the medium is connected to a host-side driver.
+ * @return 1 if connected, 0 otherwise.
+ */
+int medium_connected();
+
+/**
+ * Returns the maximal payload size of a message, that can currently be enqueued without waiting.
+ * Enqueueing a larger message blocks, until the medium is able to send the message.
+ * @return Number of 4-byte integer values, that fit into the send buffer of the medium
+ *         in addition to the header of a message. 0, if no message fits at all.
  */
-int start_application();
+unsigned int medium_capacity();
 
 /**
- * Sends a message over the medium. Does not de-allocate the message nor its contents in the process.
+ * Enqueues a message for sending over the medium without copying its payload.
+ * The payload is only referenced by the medium and must not be modified,
+ * until it is released (see #medium_mark and #medium_released).
  *
  * May fail due to problems with the medium or insufficient memory for sending.
  *
- * @param m The message to be sent.
+ * @param header The header of the message, as encoded by the protocol.
+ * @param payload Pointer to the payload of the message.
+ * @param size Size of the payload (in 4-byte integer values).
  * @return 0 if successful, 1 if failed.
  */
-int medium_send(struct Message *m);
+int medium_enqueue_ref(int header, int payload[], unsigned int size);
+
+/**
+ * Returns a mark for all data enqueued so far.
+ * @return The current mark.
+ */
+unsigned int medium_mark();
+
+/**
+ * Checks, if the medium released all data enqueued before a mark was taken.
+ * Released payloads are not referenced by the medium anymore and may be modified.
+ * @param mark The mark to be checked.
+ * @return 1 if all data up to the mark has been released, 0 otherwise.
+ */
+int medium_released(unsigned int mark);
+
+/**
+ * Sends all messages enqueued with #medium_enqueue.
+ * @return 0 if successful, 1 if failed.
+ */
+int medium_flush();
+
+/**
+ * Reads values of the current message from the medium.
+ * The values are copied directly from the buffers of the medium to the provided memory.
+ * Blocks, until all values have been received.
+ * @param target Memory, where the received values are stored.
+ * @param count Number of values to be read.
+ */
+void medium_recv(int *target, unsigned int count);
+
+/**
+ * Discards values of the current message.
+ * Blocks, until all values have been received.
+ * @param count Number of values to be discarded.
+ */
+void medium_skip(unsigned int count);
 
 /**
  * Reads a message from the medium and pushes it to the protocol interpreter.
@@ -37,39 +37,49 @@ int decode_header( int first );
  * Delegates calls to the respective protocol encoder for the protocol version the acknowledgment should be encoded with.
  * @param pid  Id of the port, which acknowledges data.
  * @param count Number of (integer) values, that are acknowledged. Has to be below protocol_max_size!
- * @return Pointer to an empty message with the generated header.
+ * @return The generated header.
  */
-struct Message* encode_ack(unsigned char pid, unsigned int count);
+int encode_ack(unsigned char pid, unsigned int count);
 
 /**
  * Delegates calls to the respective protocol encoder for the protocol version the poll should be encoded with.
  * @param pid  Id of the port, which is polled.
- * @return Pointer to an empty message with the generated header.
+ * @return The generated header.
  */
-struct Message* encode_poll(unsigned char pid);
+int encode_poll(unsigned char pid);
 
 /**
  * Delegates calls to the respective protocol encoder for the protocol version the gpio data message should be encoded with.
  * @param gid Id of the gpio component.
  * @param val The new state of the gpio component.
- * @return Pointer to an empty message with the generated header.
+ * @return The generated header.
  */
-struct Message* encode_gpio(unsigned char gid, unsigned char val);
+int encode_gpio(unsigned char gid, unsigned char val);
 
 /**
  * Delegates calls to the respective protocol encode for the protocol version the debug message should be encoded with.
  * @param type Debug type of the message.
  * @param size Size of the debug message. Has to be below protocol_max_size!
- * @return Pointer to an empty message with the generated header.
+ * @return The generated header.
  */
-struct Message* encode_debug(unsigned char type, unsigned int size);
+int encode_debug(unsigned char type, unsigned int size);
+
+/**
+ * Delegates calls to the respective protocol encoder for the protocol version the log record should be encoded with.
+ * A log record consists of the id of the log call site followed by the raw arguments of the call.
+ * It is formatted by the host-side driver.
+ * @param severity Severity of the log record.
+ * @param size Size of the log record (id and arguments). Has to be below protocol_max_size!
+ * @return The generated header.
+ */
+int encode_log(unsigned char severity, unsigned int size);
 
 /**
  * Delegates calls to the respective protocol encoder for the protocol version the data message should be encoded with.
  * @param pid Id of the port, from which the message is originated.
  * @param size Size of the message in 4-byte blocks (i.e. count of integer values). Has to be below protocol_max_size!
- * @return Pointer to an empty message with the generated header.
+ * @return The generated header.
  */
-struct Message* encode_data(unsigned char pid, unsigned int size);
+int encode_data(unsigned char pid, unsigned int size);
 
 #endif /* PROTOCOL_H_ */
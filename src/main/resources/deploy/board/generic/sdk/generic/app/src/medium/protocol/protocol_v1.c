@@ -19,9 +19,6 @@
 #define PROTO_DATA_SIZE  PROTO_MAX_SIZE
 #define PROTO_DEBUG_SIZE PROTO_MAX_SIZE
 
-// medium communication
-int medium_recv_int();
-
 // gpio
 #if gpi_count > 0 || gpo_count > 0
 void gpio_write(int target, int val);
@@ -39,6 +36,7 @@ void xil_printf(const char *ctrl1, ...);
 // message types
 #define reset 0
 #define debug 7
+#define record 8
 #define data  9
 #define poll 10
 #define gpio 14
@@ -84,21 +82,14 @@ int decode_header(int first) {
 		     // By design, error messages should only be sent by the server.
 		     // Consequently, receiving such a message is an error ;)
 		break;
+	case record: // This is a binary log record. As error messages, it should only be sent by the server.
+		break;
 	case  data: // This is a blocking data package.
 		if(size > 0) {
-			// the size is given in byte
-			int payload[size];
-
 			log_finer("reading payload ...");
 
-			// read <size> bytes
-			int i;
-			for(i = 0; i < size; i++) {
-				payload[i] = medium_recv_int();
-				log_finest("value %d: %d", i, payload[i]);
-			}
-
-			recv_message(id, payload, size);
+			// the payload is read directly into the sw queue of the port
+			recv_message(id, size);
 		}
 		break;
 	case poll: // This is a poll. Receiving a poll from the client means reading <size> values from out-going port <id>.
@@ -122,41 +113,36 @@ int decode_header(int first) {
 	return 0;
 }
 
-struct Message* encode_ack(unsigned char pid, unsigned int count) {
-	struct Message *m = message_new();
+int encode_ack(unsigned char pid, unsigned int count) {
 	int header = (version << 24) + (ack << 20) + (pid << 16) + count;
-	message_header(m, &header, 1);
-	return m;
+	return header;
 }
 
-struct Message* encode_poll(unsigned char pid) {
-	struct Message *m = message_new();
+int encode_poll(unsigned char pid) {
 	int header = (version << 24) + (poll << 20) + (pid << 16);
-	message_header(m, &header, 1);
-	return m;
+	return header;
 }
 
-struct Message* encode_gpio(unsigned char gid, unsigned char val) {
-	struct Message *m = message_new();
+int encode_gpio(unsigned char gid, unsigned char val) {
 	int header = (version << 24) + (gpio << 20) + (gid << 16) + val;
-	message_header(m, &header, 1);
-	return m;
+	return header;
 }
 
-struct Message* encode_data(unsigned char pid, unsigned int size) {
+int encode_data(unsigned char pid, unsigned int size) {
 	log_fine("encoding data message %d %d %d", data, pid, size);
-	struct Message *m = message_new();
 	int header = (version << 24) + (data << 20) + (pid << 16) + size;
 	log_fine("encoded header: %d", header);
-	message_header(m, &header, 1);
-	return m;
+	return header;
 }
 
-struct Message* encode_debug(unsigned char type, unsigned int size) {
-	struct Message *m = message_new();
+int encode_debug(unsigned char type, unsigned int size) {
 	int header = (version << 24) + (debug << 20) + (type << 16) + size;
-	message_header(m, &header, 1);
-	return m;
+	return header;
+}
+
+int encode_log(unsigned char severity, unsigned int size) {
+	int header = (version << 24) + (record << 20) + (severity << 16) + size;
+	return header;
 }
 
 #endif /* PROTO_VERSION */
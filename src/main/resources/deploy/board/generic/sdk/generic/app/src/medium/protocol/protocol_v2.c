@@ -17,24 +17,34 @@ int decode_header(int first) {
 	return 0;
 }
 
-struct Message* encode_ack(unsigned char pid, unsigned int count) {
+int encode_ack(unsigned char pid, unsigned int count) {
 	xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
-	return NULL;
+	return 0;
+}
+
+int encode_poll(unsigned char pid) {
+	xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
+	return 0;
 }
 
-struct Message* encode_poll(unsigned char pid) {
+int encode_gpio(unsigned char gid, unsigned char val) {
 	xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
-	return NULL;
+	return 0;
 }
 
-struct Message* encode_data(unsigned char pid, unsigned int size) {
+int encode_data(unsigned char pid, unsigned int size) {
 	xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
-	return NULL;
+	return 0;
+}
+
+int encode_debug(unsigned char type, unsigned int size) {
+    xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
+    return 0;
 }
 
-struct Message* encode_debug(unsigned char type, unsigned int size) {
+int encode_log(unsigned char severity, unsigned int size) {
     xil_printf(" \nERROR: protocol version 2 is not implemented.\n");
-    return NULL;
+    return 0;
 }
 
 #endif /* PROTO_VERSION */
@@ -31,5 +31,10 @@ void timer_callback();
 #endif
 void platform_setup_timer();
 void platform_enable_interrupts();
+
+/** Returns the current value of a free-running tick counter, which wraps around. */
+unsigned int platform_ticks();
+/** Returns the number of ticks of the tick counter per microsecond. */
+unsigned int platform_ticks_per_us();
 #endif
 
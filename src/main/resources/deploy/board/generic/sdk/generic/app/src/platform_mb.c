@@ -92,6 +92,12 @@ platform_setup_timer()
 			XTC_CSR_ENABLE_TMR_MASK | XTC_CSR_ENABLE_INT_MASK
 			| XTC_CSR_AUTO_RELOAD_MASK | XTC_CSR_DOWN_COUNT_MASK);
 
+	/* let the second timer count up freely, it serves as tick counter */
+	XTmrCtr_SetLoadReg(PLATFORM_TIMER_BASEADDR, 1, 0);
+	XTmrCtr_SetControlStatusReg(PLATFORM_TIMER_BASEADDR, 1, XTC_CSR_LOAD_MASK);
+	XTmrCtr_SetControlStatusReg(PLATFORM_TIMER_BASEADDR, 1,
+			XTC_CSR_ENABLE_TMR_MASK | XTC_CSR_AUTO_RELOAD_MASK);
+
 	/* Register Timer handler */
 	XIntc_RegisterHandler(XPAR_INTC_0_BASEADDR,
 			PLATFORM_TIMER_INTERRUPT_INTR,
@@ -103,4 +109,18 @@ void platform_enable_interrupts()
 {
 	microblaze_enable_interrupts();
 }
+
+unsigned int platform_ticks()
+{
+	return XTmrCtr_GetTimerCounterReg(PLATFORM_TIMER_BASEADDR, 1);
+}
+
+unsigned int platform_ticks_per_us()
+{
+#ifdef XPAR_TMRCTR_0_CLOCK_FREQ_HZ
+	return XPAR_TMRCTR_0_CLOCK_FREQ_HZ / 1000000;
+#else
+	return MHZ;
+#endif
+}
 #endif
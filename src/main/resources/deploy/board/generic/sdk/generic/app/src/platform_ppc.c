@@ -94,4 +94,18 @@ platform_enable_interrupts()
 {
 	Xil_ExceptionEnable();
 }
+
+unsigned int
+platform_ticks()
+{
+	XTime time;
+	XTime_GetTime(&time);
+	return (unsigned int)time;
+}
+
+unsigned int
+platform_ticks_per_us()
+{
+	return MHZ;
+}
 #endif
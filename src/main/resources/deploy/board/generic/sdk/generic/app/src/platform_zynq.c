@@ -54,6 +54,7 @@
 #include "xparameters_ps.h"	/* defines XPAR values */
 #include "xil_cache.h"
 #include "xscugic.h"
+#include "xtime_l.h"
 
 #define EMACPS_DEVICE_ID	XPAR_XEMACPS_0_DEVICE_ID
 #define INTC_DEVICE_ID		XPAR_SCUGIC_SINGLE_DEVICE_ID
@@ -137,6 +138,18 @@ void init_platform()
 	return;
 }
 
+unsigned int platform_ticks()
+{
+	XTime time;
+	XTime_GetTime(&time);
+	return (unsigned int)time;
+}
+
+unsigned int platform_ticks_per_us()
+{
+	return COUNTS_PER_SECOND / 1000000;
+}
+
 void cleanup_platform()
 {
 	Xil_ICacheDisable();
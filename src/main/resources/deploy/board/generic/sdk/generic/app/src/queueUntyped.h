@@ -1,5 +1,7 @@
 /**
- * Implementation of a linked queue.
+ * Implementation of a statically allocated ring buffer queue.
+ * The storage of each queue is allocated at generation time with a size of a power of two,
+ * so that all queue operations are reduced to simple index arithmetic without any heap usage.
  * @file
  * @author Thomas Fischer
  * @since: 20.02.2013
@@ -9,40 +11,32 @@
 #define QUEUEUNTYPED_H_
 
 /**
- * Structure for nodes of the linked queue.
- * Contains the stored value as well as a a pointer to the next element in the queue.
- */
-typedef struct QueueNode {
-	/** Pointer to the next node in the queue */
-	struct QueueNode *next;
-	/** The value stored at this node */
-	int value;
-} QueueNode;
-
-/**
- * Structure for a linked queue.
- * A linked queue is a mix of a linked list and a fifo queue.
+ * Structure for a ring buffer queue.
  * Elements can be appended only at the back and only removed from the front.
- * However, it is possible to peek at all elements, starting with the first
- * and using the next pointer.
+ * However, it is possible to peek at all elements, starting with the first one
+ * and masking indices with the index mask.
  */
 typedef struct Queue {
-	/** Pointer to the first node in the queue */
-	struct QueueNode *first;
-	/** Pointer to the last node in the queue */
-	struct QueueNode *last;
-	/** Number of nodes currently stored in the queue */
+	/** Storage of the queue. The size of the storage is a power of two. */
+	int *values;
+	/** Index mask of the storage (i.e. size of the storage - 1) */
+	unsigned int mask;
+	/** Index of the first element in the storage */
+	unsigned int first;
+	/** Number of elements currently stored in the queue */
 	unsigned int size;
-	/** Capacity of the queue (maximum number of nodes) */
+	/** Capacity of the queue (maximum number of elements) */
 	unsigned int cap;
 } Queue;
 
 /**
- * Allocates memory for an empty queue and returns the pointer.
+ * Initialises an empty queue on top of statically allocated storage.
+ * @param queue The queue to be initialised.
+ * @param values Storage of the queue.
+ * @param size Size of the storage. Has to be a power of two and at least as large as the capacity.
  * @param cap Maximal capacity of the queue.
- * @return Pointer to a new, empty queue.
  */
-Queue* createQueue(int cap);
+void initQueue(Queue *queue, int *values, unsigned int size, unsigned int cap);
 
 /**
  * Puts an element into a queue.
@@ -51,14 +45,79 @@ Queue* createQueue(int cap);
  * @param val The element to append.
  * @return 1 if successful, 0 otherwise (i.e. capacity reached)
  */
-int put(struct Queue *queue, int val);
+static inline int put(Queue *queue, int val) {
+	// if the queue has reached its capacity, abort
+	if(queue->size >= queue->cap) return 0;
+
+	queue->values[(queue->first + queue->size) & queue->mask] = val;
+	queue->size++;
+
+	return 1;
+}
+
+/**
+ * Returns the free storage at the back of a queue, which is contiguous in memory.
+ * Values can be written directly into this storage and are appended using #commit afterwards.
+ * Since the storage is a ring buffer, the free storage might be split at the end of the storage,
+ * in which case only the first part is returned.
+ * @param queue The queue, of which the free storage should be returned.
+ * @param count Variable, where the number of contiguous free elements is stored.
+ * @return Pointer to the first free element.
+ */
+static inline int *reserve(Queue *queue, unsigned int *count) {
+	unsigned int back = (queue->first + queue->size) & queue->mask;
+
+	// limited by the capacity and by the end of the storage
+	*count = queue->cap - queue->size;
+	if(*count > queue->mask + 1 - back) *count = queue->mask + 1 - back;
+
+	return &queue->values[back];
+}
+
+/**
+ * Appends elements, that have been written directly into the storage returned by #reserve.
+ * @param queue The queue, to which the elements should be appended.
+ * @param count Number of appended elements. Must not exceed the number returned by #reserve.
+ */
+static inline void commit(Queue *queue, unsigned int count) {
+	queue->size += count;
+}
+
+/**
+ * Returns the elements at the front of a queue, which are contiguous in memory.
+ * Since the storage is a ring buffer, the elements might be split at the end of the storage,
+ * in which case only the first part is returned.
+ * The elements are removed from the queue using #drop afterwards.
+ * @param queue The queue, of which the front elements should be returned.
+ * @param count Variable, where the number of contiguous elements is stored.
+ * @return Pointer to the first element.
+ */
+static inline int *front(Queue *queue, unsigned int *count) {
+	// limited by the size and by the end of the storage
+	*count = queue->size;
+	if(*count > queue->mask + 1 - queue->first) *count = queue->mask + 1 - queue->first;
+
+	return &queue->values[queue->first];
+}
+
+/**
+ * Removes elements from the front of a queue, that have been read directly from the storage returned by #front.
+ * @param queue The queue, from which the elements should be removed.
+ * @param count Number of removed elements. Must not exceed the number returned by #front.
+ */
+static inline void drop(Queue *queue, unsigned int count) {
+	queue->first = (queue->first + count) & queue->mask;
+	queue->size -= count;
+}
 
 /**
  * Checks if a queue contains eny elements or is empty.
  * @param queue The queue to be checked.
  * @return true if the queue contains elements, false otherwise.
  */
-int hasElems(Queue *queue);
+static inline int hasElems(Queue *queue) {
+	return queue->size > 0;
+}
 
 /**
  * Takes the first element from a queue and returns its value.
@@ -66,22 +125,34 @@ int hasElems(Queue *queue);
  * @param queue The queue, from which the element should be taken.
  * @return Value of the first element.
  */
-int take(struct Queue *queue);
+static inline int take(Queue *queue) {
+	// fail, if the queue is empty
+	if(queue->size == 0) return 0;
+
+	int val = queue->values[queue->first];
+
+	queue->first = (queue->first + 1) & queue->mask;
+	queue->size--;
+
+	return val;
+}
 
 /**
  * Clears all values from the queue.
- * Does however NOT remove free the memory reserved for the queue header itself.
  * @param queue The queue that should be cleared of elements.
  */
-void clear(struct Queue *queue);
+static inline void clear(Queue *queue) {
+	queue->first = 0;
+	queue->size  = 0;
+}
 
 /**
  * Read the first value of the queue without removing it.
  * @param queue The queue which should be read.
  * @return The first value of the queue.
  */
-int peek(struct Queue *queue);
-
-
+static inline int peek(Queue *queue) {
+	return queue->values[queue->first];
+}
 
 #endif /* QUEUEUNTYPED_H_ */
@@ -1,74 +1,282 @@
 /*
+ * Interrupt-driven UART medium, using an AXI UART Lite.
+ *
+ * Received bytes are stored in a receive ring buffer by the interrupt handler,
+ * so that the scheduler can poll for messages without blocking.
+ * Messages to be sent are copied into a transmit ring buffer, which is drained
+ * into the transmit FIFO of the UART by the interrupt handler.
+ *
+ * Values are transferred most significant byte first.
+ *
  * @author Thomas Fischer
  * @since 05.02.2013
  */
 #include "medium.h"
 
 #include "xparameters.h"
-#include "xuartlite.h"
+#include "xuartlite_l.h"
 
 #include "protocol/protocol.h"
+
 #include "../constants.h"
+#include "../platform.h"
+#include "../components/interrupts.h"
+
+#ifndef XPAR_INTC_0_DEVICE_ID
+#error "The UART medium requires an AXI UART Lite connected to an AXI interrupt controller"
+#endif
 
 #define UART_BASEADDR XPAR_UARTLITE_1_BASEADDR
+#define UART_INTR     XPAR_INTC_0_UARTLITE_1_VEC_ID
 
-u8 XUartLite_RecvByte();
-
-#define nextByte XUartLite_RecvByte(UART_BASEADDR);
-//void XUartLite_SendByte();
-//
-//void UartSendInt(int number) {
-//	int i;
-//	char byteToSend;
-//	for (i = 3; i >= 0; i--) {
-//		byteToSend = (number >> i*8) & 0xff;
-//		XUartLite_SendByte(UART_BASEADDR, byteToSend);
-//	}
-//}
-
-
-unsigned int compose(unsigned char c1, unsigned char c2, unsigned char c3, unsigned char c4) {
-	unsigned int rslt;
-	rslt = (c1 << 24) + (c2 << 16) + (c3 << 8) + c4;
-	return rslt;
-}
-
-//int recv_int() {
-//	int i;
-//	char bytes[4];
-//
-//	// caaaareful - byte order!
-//	for(i = 0; i < 4; i++) bytes[i] = XUartLite_RecvByte(UART_BASEADDR);
-//
-//	i = compose(bytes[0], bytes[1], bytes[2], bytes[3]);
-//
-//	xil_printf("\ncomposed value %d", i);
-//	return i;
-//}
-
-int recv_int() {
-	return compose(
-			XUartLite_RecvByte(UART_BASEADDR),
-			XUartLite_RecvByte(UART_BASEADDR),
-			XUartLite_RecvByte(UART_BASEADDR),
-			XUartLite_RecvByte(UART_BASEADDR));
-}
-
-int start_application() {
-#if SEVERITY >= SEVERITY_INFO
-    xil_printf("\nStart listening for inbound message headers ...");
-#endif
-	// Start listening loop
-	while(1) {
-		decode_header(recv_int());
+/** mask for indices of the receive ring buffer (the size is a power of two) */
+#define RX_MASK (UART_RX_BUFFER_SIZE - 1)
+/** mask for indices of the transmit ring buffer (the size is a power of two) */
+#define TX_MASK (UART_TX_BUFFER_SIZE - 1)
+
+
+/* *************************************************************************************** */
+/* **************************************** GLOBAL *************************************** */
+/* *************************************************************************************** */
+
+/** receive ring buffer */
+static unsigned char rxBuffer[UART_RX_BUFFER_SIZE];
+/** total number of bytes received (wraps around, set by the interrupt handler) and read */
+static volatile unsigned int rxHead = 0;
+static unsigned int rxTail = 0;
+
+/** transmit ring buffer (read by the interrupt handler) */
+static volatile unsigned char txBuffer[UART_TX_BUFFER_SIZE];
+/** total number of bytes enqueued and sent (wraps around, set by the interrupt handler) */
+static volatile unsigned int txHead = 0;
+static volatile unsigned int txTail = 0;
+
+/** number of bytes dropped due to a full receive buffer (incremented by the interrupt handler) */
+static volatile unsigned int rxDropped = 0;
+
+/** set, as soon as the host-side driver sent anything */
+static volatile unsigned char connected = 0;
+
+
+/* *************************************************************************************** */
+/* ************************************** INTERRUPTS ************************************* */
+/* *************************************************************************************** */
+
+/**
+ * Moves bytes from the transmit ring buffer into the transmit FIFO of the UART,
+ * until either the FIFO is full or the ring buffer is empty.
+ * Has to be called with disabled UART interrupts outside of the interrupt handler.
+ */
+static void uart_fill_fifo() {
+	while(txTail != txHead && !(XUartLite_ReadReg(UART_BASEADDR, XUL_STATUS_REG_OFFSET) & XUL_SR_TX_FIFO_FULL)) {
+		XUartLite_WriteReg(UART_BASEADDR, XUL_TX_FIFO_OFFSET, txBuffer[txTail & TX_MASK]);
+		txTail++;
+	}
+}
+
+/**
+ * This procedure is called, whenever the UART received bytes or its transmit FIFO became empty.
+ * It empties the receive FIFO into the receive ring buffer and refills the transmit FIFO.
+ */
+static void uart_handler(void *arg) {
+	// receive all available bytes
+	while(XUartLite_ReadReg(UART_BASEADDR, XUL_STATUS_REG_OFFSET) & XUL_SR_RX_FIFO_VALID_DATA) {
+		unsigned char byte = XUartLite_ReadReg(UART_BASEADDR, XUL_RX_FIFO_OFFSET);
+
+		// drop the byte, if the ring buffer is full
+		if(rxHead - rxTail >= UART_RX_BUFFER_SIZE) rxDropped++;
+		else rxBuffer[rxHead++ & RX_MASK] = byte;
+
+		connected = 1;
 	}
+
+	// continue sending
+	uart_fill_fifo();
+}
+
+
+/* *************************************************************************************** */
+/* ********************************* SENDING & RECEIVING ********************************* */
+/* *************************************************************************************** */
+
+/**
+ * Returns the free space of the transmit ring buffer.
+ * @return Number of bytes, that fit into the transmit ring buffer.
+ */
+static inline unsigned int medium_space() {
+	return UART_TX_BUFFER_SIZE - (txHead - txTail);
+}
+
+/**
+ * Copies values into the transmit ring buffer.
+ *
+ * If the ring buffer is full, the procedure waits for the interrupt handler to send bytes.
+ * If no byte is sent for TIMEOUT seconds, the procedure fails.
+ *
+ * @param vals Values to be enqueued.
+ * @param size Number of values to be enqueued.
+ * @return 0 if successful, 1 otherwise.
+ */
+static int uart_enque(int *vals, unsigned int size) {
+	unsigned int ticksPerSecond = platform_ticks_per_us() * 1000000;
+	unsigned int start = platform_ticks(), seconds = 0, sent = txTail;
+	unsigned int i, j;
+
+	for(i = 0; i < size; i++) {
+		// wait for space in the ring buffer
+		while(medium_space() < sizeof(int)) {
+			// make sure, that the ring buffer is drained
+			medium_flush();
+
+			// restart the timeout, if there was any progress
+			if(txTail != sent) {
+				sent    = txTail;
+				start   = platform_ticks();
+				seconds = 0;
+				continue;
+			}
+
+			// count elapsed seconds (avoids overflowing the tick counter for large timeouts)
+			if(platform_ticks() - start >= ticksPerSecond) {
+				start += ticksPerSecond;
+				seconds++;
+			}
+
+			// give up, if the timeout has been reached
+			if(seconds >= TIMEOUT) {
+				xil_printf("\nERROR: Timeout while waiting for the UART to send.");
+				return 1;
+			}
+		}
+
+		// most significant byte first
+		// (the byte is stored before the head is advanced, since the interrupt handler sends up to the head)
+		for(j = 0; j < sizeof(int); j++) {
+			txBuffer[txHead & TX_MASK] = (unsigned int)vals[i] >> ((sizeof(int) - 1 - j) * 8);
+			txHead++;
+		}
+	}
+
+	return 0;
+}
+
+int medium_connected() {
+	return connected;
+}
+
+unsigned int medium_capacity() {
+	// the header requires a single value
+	unsigned int space = medium_space() / sizeof(int);
+	return space > 1 ? space - 1 : 0;
+}
+
+int medium_enqueue(int header, int payload[], unsigned int size) {
+	if(uart_enque(&header, 1)) return 1;
+	return uart_enque(payload, size);
+}
+
+int medium_enqueue_ref(int header, int payload[], unsigned int size) {
+	// payloads are always copied into the transmit ring buffer
+	return medium_enqueue(header, payload, size);
+}
+
+unsigned int medium_mark() {
 	return 0;
 }
 
-void init_medium() {
+int medium_released(unsigned int mark) {
+	// payloads are copied when enqueued, so they are released immediately
+	return 1;
+}
+
+int medium_flush() {
+	// the interrupt handler continues sending, as soon as the FIFO runs empty
+	XUartLite_DisableIntr(UART_BASEADDR);
+	uart_fill_fifo();
+	XUartLite_EnableIntr(UART_BASEADDR);
+	return 0;
+}
+
+int medium_send(int header, int payload[], unsigned int size) {
+	if(medium_enqueue(header, payload, size)) return 1;
+	return medium_flush();
+}
+
+/**
+ * Consumes values from the receive ring buffer.
+ * The driver will stall until enough bytes are received!
+ * @param target Memory, where the consumed values are stored. May be NULL to discard the values.
+ * @param count Number of values to be consumed.
+ */
+static void medium_consume(int *target, unsigned int count) {
+	unsigned int i, j, val;
+
+	for(i = 0; i < count; i++) {
+		// wait for a complete value (might block indefinitely, if the client is faulty...)
+		while(rxHead - rxTail < sizeof(int));
+
+		// most significant byte first
+		for(val = 0, j = 0; j < sizeof(int); j++) val = (val << 8) | rxBuffer[rxTail++ & RX_MASK];
+
+		if(target != NULL) target[i] = val;
+	}
+}
+
+void medium_recv(int *target, unsigned int count) {
+	medium_consume(target, count);
+}
+
+void medium_skip(unsigned int count) {
+	medium_consume(NULL, count);
+}
+
+/**
+ * Reads a message from the medium and pushes it to the protocol interpreter.
+ * Does not block, if no complete header has been received so far.
+ * @return 1 if a message was available, 0 if no message was available.
+ */
+int medium_read() {
+	if(rxDropped > 0) {
+		// the counter is read and cleared with disabled interrupts, so that no dropped byte is missed
+		XUartLite_DisableIntr(UART_BASEADDR);
+		unsigned int dropped = rxDropped;
+		rxDropped = 0;
+		XUartLite_EnableIntr(UART_BASEADDR);
+
+		xil_printf("\nERROR: UART receive buffer overflow, dropped %d bytes", dropped);
+	}
+
+	// decode the next header, if it has been received completely
+	if(rxHead - rxTail < sizeof(int)) return 0;
+
+	int header;
+	medium_recv(&header, 1);
+	decode_header(header);
+	return 1;
+}
+
+
+/* *************************************************************************************** */
+/* **************************************** SETUP **************************************** */
+/* *************************************************************************************** */
+
+int init_medium() {
 #if SEVERITY >= SEVERITY_INFO
-    xil_printf("\nSetting up UART/USB interface");
+	xil_printf("\nINFO: Setting up UART interface ...");
 #endif
-	// Nothing to do... works out of the box, it seems...
-}
 
+	// discard anything received so far
+	XUartLite_WriteReg(UART_BASEADDR, XUL_CONTROL_REG_OFFSET, XUL_CR_FIFO_RX_RESET | XUL_CR_FIFO_TX_RESET);
+
+	// connect the interrupt handler
+	INTC *intc = getIntc();
+	if(XIntc_Connect(intc, UART_INTR, (XInterruptHandler)uart_handler, NULL) != XST_SUCCESS) {
+		xil_printf("\nERROR: Could not connect the UART interrupt handler");
+		return -1;
+	}
+	XIntc_Enable(intc, UART_INTR);
+
+	XUartLite_EnableIntr(UART_BASEADDR);
+
+	return 0;
+}
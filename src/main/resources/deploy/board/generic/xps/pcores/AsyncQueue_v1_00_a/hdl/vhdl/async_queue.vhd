@@ -0,0 +1,182 @@
+-- ===================================================================
+--
+-- Author(s): Thomas Fischer
+--
+-- ===================================================================
+--
+-- Description:
+-- * First-word-fall-through FIFO between two clock domains
+-- * Read and write pointers are passed between the domains in gray
+--   code through two synchronisation registers each
+-- * The reset is synchronised into both domains
+--
+-- ===================================================================
+
+
+-- ===================================================================
+--! @date 18/10/2026
+--! @brief Asynchronous queue for clock domain crossing
+--! @author Thomas Fischer
+-- ===================================================================
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+
+entity AsyncQueue is
+	generic
+	(
+		G_RST_ACTIVE : std_logic := '1';                              --! Reset signal sensitivity
+		G_BW : natural := 32;                                         --! Bitwidth of the Queue Elements
+		G_DEPTH_LOG2 : natural := 4                                   --! Binary logarithm of the Queue Length
+	);
+	port
+	(
+		rst : in std_logic;                                           --! reset signal (synchronised internally)
+
+		in_clk : in std_logic;                                        --! clock signal of the input-AXIS-port
+		in_TReady : out std_logic;                                    --! input-AXIS-port TReady signal
+		in_TValid : in std_logic;                                     --! input-AXIS-port TValid signal
+		in_TData  : in std_logic_vector(G_BW-1 downto 0);             --! input-AXIS-port TData signal
+		in_TLast : in std_logic;                                      --! input-AXIS-port TLast signal
+
+		out_clk : in std_logic;                                       --! clock signal of the output-AXIS-port
+		out_TReady : in std_logic;                                    --! output-AXIS-port TReady signal
+		out_TValid : out std_logic;                                   --! output-AXIS-port TValid signal
+		out_TData : out std_logic_vector(G_BW-1 downto 0);            --! output-AXIS-port TData signal
+		out_TLast : out std_logic                                     --! output-AXIS-port TLast signal
+	);
+end AsyncQueue;
+
+
+architecture rtl of AsyncQueue is
+
+
+	----------------------------------------------------------------------------
+	-- Types
+	----------------------------------------------------------------------------
+
+	-- each entry stores the TLast flag in its most significant bit
+	type data_array_type is array (0 to 2**G_DEPTH_LOG2-1) of std_logic_vector(G_BW downto 0);
+
+	-- pointers have an additional bit to distinguish a full from an empty queue
+	subtype ptr_type is unsigned(G_DEPTH_LOG2 downto 0);
+
+	----------------------------------------------------------------------------
+	-- Functions
+	----------------------------------------------------------------------------
+
+	function to_gray(bin : ptr_type) return ptr_type is
+	begin
+		return bin xor shift_right(bin, 1);
+	end function;
+
+	----------------------------------------------------------------------------
+	-- Signals
+	----------------------------------------------------------------------------
+
+	signal memory : data_array_type;
+
+	-- synchronised resets
+	signal in_rst_sync  : std_logic_vector(1 downto 0) := (others => G_RST_ACTIVE);
+	signal out_rst_sync : std_logic_vector(1 downto 0) := (others => G_RST_ACTIVE);
+	signal in_rst       : std_logic;
+	signal out_rst      : std_logic;
+
+	-- write pointer (binary and gray code) and read pointer synchronised into the input domain
+	signal wr_ptr      : ptr_type := (others => '0');
+	signal wr_gray     : ptr_type := (others => '0');
+	signal rd_gray_in1 : ptr_type := (others => '0');
+	signal rd_gray_in2 : ptr_type := (others => '0');
+
+	-- read pointer (binary and gray code) and write pointer synchronised into the output domain
+	signal rd_ptr       : ptr_type := (others => '0');
+	signal rd_gray      : ptr_type := (others => '0');
+	signal wr_gray_out1 : ptr_type := (others => '0');
+	signal wr_gray_out2 : ptr_type := (others => '0');
+
+	signal full  : std_logic;
+	signal empty : std_logic;
+
+	-- synthesis attributes keeping the synchronisation registers apart
+	attribute ASYNC_REG : string;
+	attribute ASYNC_REG of rd_gray_in1  : signal is "TRUE";
+	attribute ASYNC_REG of rd_gray_in2  : signal is "TRUE";
+	attribute ASYNC_REG of wr_gray_out1 : signal is "TRUE";
+	attribute ASYNC_REG of wr_gray_out2 : signal is "TRUE";
+
+begin
+
+	----------------------------------------------------------------------------
+	-- Input domain
+	----------------------------------------------------------------------------
+
+	in_rst <= in_rst_sync(1);
+
+	-- the queue is full, if the pointers differ only in the two most significant gray code bits
+	full <= '1' when wr_gray = (not rd_gray_in2(G_DEPTH_LOG2 downto G_DEPTH_LOG2-1)) & rd_gray_in2(G_DEPTH_LOG2-2 downto 0) else
+	        '0';
+
+	input : process(in_clk)
+		variable v_wr_ptr : ptr_type;
+	begin
+		if in_clk'event and in_clk='1' then
+			in_rst_sync <= in_rst_sync(0) & rst;
+
+			-- synchronise the read pointer
+			rd_gray_in1 <= rd_gray;
+			rd_gray_in2 <= rd_gray_in1;
+
+			if in_rst = G_RST_ACTIVE then
+				wr_ptr  <= (others => '0');
+				wr_gray <= (others => '0');
+			elsif in_TValid = '1' and full = '0' then
+				memory(to_integer(wr_ptr(G_DEPTH_LOG2-1 downto 0))) <= in_TLast & in_TData;
+
+				v_wr_ptr := wr_ptr + 1;
+				wr_ptr   <= v_wr_ptr;
+				wr_gray  <= to_gray(v_wr_ptr);
+			end if;
+		end if;
+	end process;
+
+	in_TReady <= not full;
+
+	----------------------------------------------------------------------------
+	-- Output domain
+	----------------------------------------------------------------------------
+
+	out_rst <= out_rst_sync(1);
+
+	-- the queue is empty, if both pointers are equal
+	empty <= '1' when rd_gray = wr_gray_out2 else
+	         '0';
+
+	output : process(out_clk)
+		variable v_rd_ptr : ptr_type;
+	begin
+		if out_clk'event and out_clk='1' then
+			out_rst_sync <= out_rst_sync(0) & rst;
+
+			-- synchronise the write pointer
+			wr_gray_out1 <= wr_gray;
+			wr_gray_out2 <= wr_gray_out1;
+
+			if out_rst = G_RST_ACTIVE then
+				rd_ptr  <= (others => '0');
+				rd_gray <= (others => '0');
+			elsif out_TReady = '1' and empty = '0' then
+				v_rd_ptr := rd_ptr + 1;
+				rd_ptr   <= v_rd_ptr;
+				rd_gray  <= to_gray(v_rd_ptr);
+			end if;
+		end if;
+	end process;
+
+	-- Ready to send data if the queue is not empty (the storage is small and read asynchronously)
+	out_TValid <= not empty;
+	out_TData  <= memory(to_integer(rd_ptr(G_DEPTH_LOG2-1 downto 0)))(G_BW-1 downto 0);
+	out_TLast  <= memory(to_integer(rd_ptr(G_DEPTH_LOG2-1 downto 0)))(G_BW);
+
+end rtl;
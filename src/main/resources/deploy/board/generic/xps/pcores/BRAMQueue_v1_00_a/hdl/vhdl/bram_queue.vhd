@@ -0,0 +1,197 @@
+-- ===================================================================
+--
+-- Author(s): Thomas Fischer
+--
+-- ===================================================================
+--
+-- Description:
+-- * First-word-fall-through FIFO for deep hardware queues
+-- * The storage is read synchronously, so that it is inferred as
+--   block RAM instead of registers or distributed RAM
+-- * Two output registers decouple the read latency of the block RAM
+--   from the output, so that one value per cycle can be transferred
+--
+-- ===================================================================
+
+
+-- ===================================================================
+--! @date 18/10/2026
+--! @brief Block RAM queue
+--! @author Thomas Fischer
+-- ===================================================================
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+
+entity BRAMQueue is
+	generic
+	(
+		G_RST_ACTIVE : std_logic := '1';                              --! Reset signal sensitivity
+		G_BW : natural := 32;                                         --! Bitwidth of the Queue Elements
+		G_DEPTH : natural := 1024                                     --! Queue Length (of the block RAM)
+	);
+	port
+	(
+		clk : in std_logic;                                           --! clock signal
+		rst : in std_logic;                                           --! synchrounous reset signal
+		in_TReady : out std_logic;                                    --! input-AXIS-port TReady signal
+		in_TValid : in std_logic;                                     --! input-AXIS-port TValid signal
+		in_TData  : in std_logic_vector(G_BW-1 downto 0);             --! input-AXIS-port TData signal
+		in_TLast : in std_logic;                                      --! input-AXIS-port TLast signal
+
+		out_TReady : in std_logic;                                    --! output-AXIS-port TReady signal
+		out_TValid : out std_logic;                                   --! output-AXIS-port TValid signal
+		out_TData : out std_logic_vector(G_BW-1 downto 0);            --! output-AXIS-port TData signal
+		out_TLast : out std_logic                                     --! output-AXIS-port TLast signal
+	);
+end BRAMQueue;
+
+
+architecture rtl of BRAMQueue is
+
+
+	----------------------------------------------------------------------------
+	-- Types
+	----------------------------------------------------------------------------
+
+	-- each entry stores the TLast flag in its most significant bit
+	type data_array_type is array (0 to G_DEPTH-1) of std_logic_vector(G_BW downto 0);
+
+	----------------------------------------------------------------------------
+	-- Signals
+	----------------------------------------------------------------------------
+
+	signal memory : data_array_type;
+
+	-- number of entries in the block RAM (not counting the output registers)
+	signal num_data : natural range 0 to G_DEPTH := 0;
+
+	-- read and write pointers of the block RAM
+	signal rd_ptr : natural range 0 to G_DEPTH-1 := 0;
+	signal wr_ptr : natural range 0 to G_DEPTH-1 := 0;
+
+	-- registered read port of the block RAM
+	signal ram_data  : std_logic_vector(G_BW downto 0) := (others => '0');
+	signal ram_valid : std_logic := '0';
+
+	-- output register
+	signal out_data  : std_logic_vector(G_BW downto 0) := (others => '0');
+	signal out_valid : std_logic := '0';
+
+	-- handshakes of the current cycle
+	signal push    : std_logic;
+	signal pop     : std_logic;
+	signal advance : std_logic;
+	signal rd_en   : std_logic;
+
+begin
+
+	----------------------------------------------------------------------------
+	-- Handshakes
+	----------------------------------------------------------------------------
+
+	-- a value is written, if the block RAM is not full
+	push <= '1' when in_TValid = '1' and num_data < G_DEPTH else '0';
+
+	-- a value is read, if the output register is valid
+	pop <= out_valid and out_TReady;
+
+	-- the read port of the block RAM is moved to the output register, if that is empty or read
+	advance <= ram_valid and ((not out_valid) or out_TReady);
+
+	-- the block RAM is read, if its read port is empty or moved to the output register
+	rd_en <= '1' when num_data > 0 and (ram_valid = '0' or advance = '1') else '0';
+
+	----------------------------------------------------------------------------
+	-- Block RAM
+	----------------------------------------------------------------------------
+
+	ram : process(clk)
+	begin
+		if clk'event and clk='1' then
+			if push = '1' then
+				memory(wr_ptr) <= in_TLast & in_TData;
+			end if;
+
+			-- registered read, required for block RAM inference
+			if rd_en = '1' then
+				ram_data <= memory(rd_ptr);
+			end if;
+		end if;
+	end process;
+
+	----------------------------------------------------------------------------
+	-- Pointers and output registers
+	----------------------------------------------------------------------------
+
+	ctrl : process(clk)
+		variable v_num_data : natural range 0 to G_DEPTH; -- number of entries in the block RAM
+	begin
+		if clk'event and clk='1' then
+			if rst = G_RST_ACTIVE then
+				rd_ptr    <= 0;
+				wr_ptr    <= 0;
+				num_data  <= 0;
+				ram_valid <= '0';
+				out_valid <= '0';
+			else
+				v_num_data := num_data;
+
+				-- writing to the block RAM, write pointer wraps around
+				if push = '1' then
+					if wr_ptr < G_DEPTH-1 then
+						wr_ptr <= wr_ptr + 1;
+					else
+						wr_ptr <= 0;
+					end if;
+
+					v_num_data := v_num_data + 1;
+				end if;
+
+				-- reading from the block RAM, read pointer wraps around
+				if rd_en = '1' then
+					if rd_ptr < G_DEPTH-1 then
+						rd_ptr <= rd_ptr + 1;
+					else
+						rd_ptr <= 0;
+					end if;
+
+					v_num_data := v_num_data - 1;
+				end if;
+
+				-- the read port holds a value, if it has been read or has not been moved
+				if rd_en = '1' then
+					ram_valid <= '1';
+				elsif advance = '1' then
+					ram_valid <= '0';
+				end if;
+
+				-- move the read port to the output register or empty the output register
+				if advance = '1' then
+					out_data  <= ram_data;
+					out_valid <= '1';
+				elsif pop = '1' then
+					out_valid <= '0';
+				end if;
+
+				num_data <= v_num_data;
+			end if; -- rst
+		end if; -- clk
+	end process;
+
+	----------------------------------------------------------------------------
+	-- Outputs
+	----------------------------------------------------------------------------
+
+	-- Ready to receive data if the block RAM is not full
+	in_TReady <= '1' when num_data < G_DEPTH else
+	             '0';
+
+	-- Ready to send data if the output register is valid
+	out_TValid <= out_valid;
+	out_TData  <= out_data(G_BW-1 downto 0);
+	out_TLast  <= out_data(G_BW);
+
+end rtl;
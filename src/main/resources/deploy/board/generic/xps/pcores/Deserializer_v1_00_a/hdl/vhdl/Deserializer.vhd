@@ -0,0 +1,96 @@
+--!
+--! @file
+--! @brief Axi4-Stream deserializer ip core (words to value)
+--! @author Thomas Fischer
+--! @date 18/10/2026
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+--! @details Assembles each value of G_BW bits from ceil(G_BW / G_WORD) words of G_WORD bits.
+--! @details Words are received starting with the most significant one, leading padding bits are dropped.
+--! @details Values up to G_WORD bits are taken from the least significant bits of a single word.
+--! @details A word is accepted in every cycle, unless it completes a value while the previous value
+--!          is still waiting at the output.
+--! @details m_axis_tlast is set with a value, if s_axis_tlast was set with its last word.
+
+entity Deserializer is
+  generic (G_RESET_ACTIVE : std_logic := '1';  --! reset is active on level '1' (rst active high) or '0' (rst active low)
+           G_BW           : integer := 48;     --! bit width of values
+           G_WORD         : integer := 32);    --! bit width of words
+  port(
+    clk           : in  std_logic;
+    rst           : in  std_logic;
+    s_axis_tdata  : in  std_logic_vector(G_WORD - 1 downto 0);
+    s_axis_tlast  : in  std_logic;
+    s_axis_tvalid : in  std_logic;
+    s_axis_tready : out std_logic;
+    m_axis_tdata  : out std_logic_vector(G_BW - 1 downto 0);
+    m_axis_tlast  : out std_logic;
+    m_axis_tvalid : out std_logic;
+    m_axis_tready : in  std_logic);
+end Deserializer;
+
+architecture Behavioral of Deserializer is
+
+  --! number of words per value
+  constant NUM_WORDS : natural := (G_BW + G_WORD - 1) / G_WORD;
+
+  signal s_acc   : std_logic_vector(NUM_WORDS*G_WORD - 1 downto 0) := (others => '0');
+  signal s_cnt   : natural range 0 to NUM_WORDS - 1 := 0;   --! words of the current value received so far
+  signal s_word  : std_logic_vector(NUM_WORDS*G_WORD - 1 downto 0);
+  signal s_ready : std_logic;
+
+  signal m_reg   : std_logic_vector(G_BW - 1 downto 0) := (others => '0');
+  signal m_last  : std_logic := '0';
+  signal m_valid : std_logic := '0';
+
+begin
+
+  -- a word is accepted, if it does not complete a value or the output register is free in the next cycle
+  s_ready <= '1' when s_cnt < NUM_WORDS - 1 or m_valid = '0' or m_axis_tready = '1' else '0';
+
+  -- the accumulated words followed by the received word
+  multi : if NUM_WORDS > 1 generate
+    s_word <= s_acc((NUM_WORDS - 1)*G_WORD - 1 downto 0) & s_axis_tdata;
+  end generate multi;
+  single : if NUM_WORDS = 1 generate
+    s_word <= s_axis_tdata;
+  end generate single;
+
+  process(clk)
+  begin
+    if (clk'event and clk = '1') then
+      if (rst = G_RESET_ACTIVE) then
+        s_cnt   <= 0;
+        m_valid <= '0';
+      else
+        -- the output register is read
+        if (m_axis_tready = '1') then
+          m_valid <= '0';
+        end if;
+
+        if (s_ready = '1' and s_axis_tvalid = '1') then
+          if (s_cnt = NUM_WORDS - 1) then
+            -- the value is complete, drop the padding bits
+            m_reg   <= s_word(G_BW - 1 downto 0);
+            m_last  <= s_axis_tlast;
+            m_valid <= '1';
+            s_cnt   <= 0;
+          else
+            s_acc   <= s_word;
+            s_cnt   <= s_cnt + 1;
+          end if;
+        end if;
+      end if;
+    end if;
+  end process;
+
+  s_axis_tready <= s_ready;
+
+  m_axis_tdata  <= m_reg;
+  m_axis_tvalid <= m_valid;
+  m_axis_tlast  <= m_last;
+
+end architecture behavioral;
@@ -0,0 +1,74 @@
+--!
+--! @file
+--! @brief Axi4-Stream serializer ip core (value to words)
+--! @author Thomas Fischer
+--! @date 18/10/2026
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+--! @details Splits each value of G_BW bits into ceil(G_BW / G_WORD) words of G_WORD bits.
+--! @details Values are padded with leading zeroes and sent starting with the most significant word.
+--! @details Values up to G_WORD bits are zero-extended to a single word.
+--! @details The next value is accepted in the same cycle the last word of a value is sent,
+--!          so that the output is busy in every cycle as long as values are available.
+--! @details m_axis_tlast is set with the last word of a value, if s_axis_tlast was set with the value.
+
+entity Serializer is
+  generic (G_RESET_ACTIVE : std_logic := '1';  --! reset is active on level '1' (rst active high) or '0' (rst active low)
+           G_BW           : integer := 48;     --! bit width of values
+           G_WORD         : integer := 32);    --! bit width of words
+  port(
+    clk           : in  std_logic;
+    rst           : in  std_logic;
+    s_axis_tdata  : in  std_logic_vector(G_BW - 1 downto 0);
+    s_axis_tlast  : in  std_logic;
+    s_axis_tvalid : in  std_logic;
+    s_axis_tready : out std_logic;
+    m_axis_tdata  : out std_logic_vector(G_WORD - 1 downto 0);
+    m_axis_tlast  : out std_logic;
+    m_axis_tvalid : out std_logic;
+    m_axis_tready : in  std_logic);
+end Serializer;
+
+architecture Behavioral of Serializer is
+
+  --! number of words per value
+  constant NUM_WORDS : natural := (G_BW + G_WORD - 1) / G_WORD;
+
+  signal s_reg    : std_logic_vector(NUM_WORDS*G_WORD - 1 downto 0) := (others => '0');
+  signal s_last   : std_logic := '0';
+  signal s_remain : natural range 0 to NUM_WORDS := 0;   --! words of the current value not sent yet
+  signal s_ready  : std_logic;
+
+begin
+
+  -- a new value is accepted, if no value is stored or the last word of the stored value is sent
+  s_ready <= '1' when s_remain = 0 or (s_remain = 1 and m_axis_tready = '1') else '0';
+
+  process(clk)
+  begin
+    if (clk'event and clk = '1') then
+      if (rst = G_RESET_ACTIVE) then
+        s_remain <= 0;
+      elsif (s_ready = '1' and s_axis_tvalid = '1') then
+        s_reg    <= std_logic_vector(resize(unsigned(s_axis_tdata), NUM_WORDS*G_WORD));
+        s_last   <= s_axis_tlast;
+        s_remain <= NUM_WORDS;
+      elsif (s_remain > 0 and m_axis_tready = '1') then
+        if (NUM_WORDS > 1) then
+          s_reg <= std_logic_vector(shift_left(unsigned(s_reg), G_WORD));
+        end if;
+        s_remain <= s_remain - 1;
+      end if;
+    end if;
+  end process;
+
+  s_axis_tready <= s_ready;
+
+  m_axis_tdata  <= s_reg(NUM_WORDS*G_WORD - 1 downto (NUM_WORDS - 1)*G_WORD);
+  m_axis_tvalid <= '1' when s_remain > 0 else '0';
+  m_axis_tlast  <= s_last when s_remain = 1 else '0';
+
+end architecture behavioral;
@@ -0,0 +1,155 @@
+/*
+ * mailbox.c
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include "mailbox.h"
+
+#include "xil_io.h"
+#include "xil_mmu.h"
+#include "xpseudo_asm.h"
+
+/**
+ * Returns the number of values stored in a ring.
+ * @param ring The ring.
+ * @return Number of stored values.
+ */
+static inline unsigned int used(MailboxRing *ring) {
+	return (ring->head + MAILBOX_CAP - ring->tail) % MAILBOX_CAP;
+}
+
+/**
+ * Returns the number of free slots of a ring.
+ * @param ring The ring.
+ * @return Number of free slots.
+ */
+static inline unsigned int vacant(MailboxRing *ring) {
+	return MAILBOX_CAP - 1 - used(ring);
+}
+
+void mailbox_init() {
+	unsigned int i, request;
+
+	Xil_SetTlbAttributes(MAILBOX_BASE, MAILBOX_ATTRIBUTES);
+
+	// discard a request left over from a previous run (a waiting stream processor repeats its request)
+	mailbox->request = 0;
+	dmb();
+
+	// wake up the second core, if it still waits in the boot rom (otherwise, this has no effect)
+	Xil_Out32(STREAM_START_ADDR, STREAM_ENTRY);
+	dsb();
+	__asm__ __volatile__("sev");
+
+	// wait for the stream processor, which must not use the rings, while they are cleared
+	while((request = mailbox->request) == 0) { }
+
+	for(i = 0; i < IN_STREAM_COUNT;  i++) mailbox->in[i].head  = mailbox->in[i].tail  = 0;
+	for(i = 0; i < OUT_STREAM_COUNT; i++) mailbox->out[i].head = mailbox->out[i].tail = 0;
+
+	// answer the request only after the rings have been cleared
+	dmb();
+	mailbox->ready = request;
+	dmb();
+}
+
+void mailbox_wait() {
+	unsigned int seq;
+
+	Xil_SetTlbAttributes(MAILBOX_BASE, MAILBOX_ATTRIBUTES);
+
+	// the sequence number has to differ from an answer of a previous run (and must not be 0)
+	seq = mailbox->ready + 1;
+	if(seq == 0) seq = 1;
+
+	// repeat the request, since the medium processor discards requests when starting up
+	while(mailbox->ready != seq) mailbox->request = seq;
+	dmb();
+}
+
+int mailbox_write_burst(int *vals, unsigned int n, int target) {
+	MailboxRing *ring = &mailbox->in[target];
+	unsigned int i, head = ring->head;
+
+	if(n > vacant(ring)) n = vacant(ring);
+	if(n == 0) return 0;
+
+	for(i = 0; i < n; i++) {
+		mailbox->inValues[target][head] = vals[i];
+		if(++head == MAILBOX_CAP) head = 0;
+	}
+
+	// publish the values only after they have been written
+	dmb();
+	ring->head = head;
+
+	return n;
+}
+
+int mailbox_read_burst(int *vals, unsigned int n, int target) {
+	MailboxRing *ring = &mailbox->out[target];
+	unsigned int i, tail = ring->tail;
+
+	if(n > used(ring)) n = used(ring);
+	if(n == 0) return 0;
+
+	// the values must not be read before the head index
+	dmb();
+	for(i = 0; i < n; i++) {
+		vals[i] = mailbox->outValues[target][tail];
+		if(++tail == MAILBOX_CAP) tail = 0;
+	}
+
+	// release the slots only after the values have been read
+	dmb();
+	ring->tail = tail;
+
+	return n;
+}
+
+int *mailbox_in_front(unsigned int pid, unsigned int *count) {
+	MailboxRing *ring = &mailbox->in[pid];
+	unsigned int tail = ring->tail;
+
+	// limited by the stored values and by the end of the ring
+	*count = used(ring);
+	if(*count > MAILBOX_CAP - tail) *count = MAILBOX_CAP - tail;
+
+	// the values must not be read before the head index
+	dmb();
+	return &mailbox->inValues[pid][tail];
+}
+
+void mailbox_in_drop(unsigned int pid, unsigned int count) {
+	MailboxRing *ring = &mailbox->in[pid];
+
+	if(count == 0) return;
+
+	// release the slots only after the values have been read
+	dmb();
+	ring->tail = (ring->tail + count) % MAILBOX_CAP;
+}
+
+int *mailbox_out_reserve(unsigned int pid, unsigned int *count) {
+	MailboxRing *ring = &mailbox->out[pid];
+	unsigned int head = ring->head;
+
+	// limited by the free slots and by the end of the ring
+	*count = vacant(ring);
+	if(*count > MAILBOX_CAP - head) *count = MAILBOX_CAP - head;
+
+	// the slots must not be written before the tail index has been read
+	dmb();
+	return &mailbox->outValues[pid][head];
+}
+
+void mailbox_out_commit(unsigned int pid, unsigned int count) {
+	MailboxRing *ring = &mailbox->out[pid];
+
+	if(count == 0) return;
+
+	// publish the values only after they have been written
+	dmb();
+	ring->head = (ring->head + count) % MAILBOX_CAP;
+}
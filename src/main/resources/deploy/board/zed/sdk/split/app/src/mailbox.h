@@ -0,0 +1,138 @@
+/**
+ * Mailbox between the medium and the stream processor of the split scheduler.
+ *
+ * The mailbox consists of a ring buffer for each stream in the upper on-chip memory,
+ * which is shared by both Cortex-A9 cores and not cached.
+ * Values are published with a memory barrier before the respective index is updated.
+ * Each ring has exactly one producer and one consumer. The producer only writes the head index
+ * and the consumer only writes the tail index of a ring, so that no locks are required.
+ * A slot of each ring always remains free to distinguish a full from an empty ring.
+ *
+ * The medium processor writes values of in-going streams to their rings and reads values of
+ * out-going streams from their rings. The stream processor moves these values between the rings
+ * and the hardware queues.
+ *
+ * The on-chip memory keeps its contents across soft resets and debugger downloads, so the mailbox
+ * may still hold the state of a previous run. Therefore, the stream processor requests the mailbox
+ * with a sequence number differing from the last answered one, and the medium processor answers
+ * the request by echoing the number, after it has cleared all rings.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef MAILBOX_H_
+#define MAILBOX_H_
+
+#include "constants.h"
+
+/** Base address of the mailbox in the upper on-chip memory. */
+#define MAILBOX_BASE 0xFFFF0000
+
+/** Memory attributes of the mailbox section (shareable and not cached). */
+#define MAILBOX_ATTRIBUTES 0x14de2
+
+/** Address, from which the second core reads its start address, when it is woken up. */
+#define STREAM_START_ADDR 0xFFFFFFF0
+
+/** Start address of the application of the stream processor (see its linker script). */
+#define STREAM_ENTRY 0x00010000
+
+/**
+ * Indices of a ring buffer of the mailbox.
+ */
+typedef struct MailboxRing {
+	/** Index of the next slot to be written. Only written by the producer. */
+	volatile unsigned int head;
+	/** Index of the next slot to be read. Only written by the consumer. */
+	volatile unsigned int tail;
+} MailboxRing;
+
+/**
+ * Layout of the mailbox.
+ */
+typedef struct Mailbox {
+	/** Sequence number of the current request of the stream processor, 0 if there is none. */
+	volatile unsigned int request;
+	/** Sequence number of the last answered request, set after all rings have been cleared. */
+	volatile unsigned int ready;
+	/** Rings of the in-going streams, written by the medium processor. */
+	MailboxRing in[IN_STREAM_COUNT];
+	/** Rings of the out-going streams, written by the stream processor. */
+	MailboxRing out[OUT_STREAM_COUNT];
+	/** Slots of the rings of the in-going streams. */
+	int inValues[IN_STREAM_COUNT][MAILBOX_CAP];
+	/** Slots of the rings of the out-going streams. */
+	int outValues[OUT_STREAM_COUNT][MAILBOX_CAP];
+} Mailbox;
+
+/** The mailbox shared by both processors. */
+#define mailbox ((Mailbox*)MAILBOX_BASE)
+
+/**
+ * Starts the stream processor, waits for its request and clears all rings of the mailbox.
+ * Called by the medium processor before any values are exchanged.
+ */
+void mailbox_init();
+
+/**
+ * Requests the mailbox and waits until the medium processor has set it up.
+ * Called by the stream processor before any values are exchanged.
+ */
+void mailbox_wait();
+
+/**
+ * Writes a block of values to the ring of an in-going stream.
+ * Called by the medium processor. Does not block.
+ * @param vals Values to be written.
+ * @param n Number of values to be written.
+ * @param target Id of the in-going stream.
+ * @return Number of values actually written.
+ */
+int mailbox_write_burst(int *vals, unsigned int n, int target);
+
+/**
+ * Reads a block of values from the ring of an out-going stream.
+ * Called by the medium processor. Does not block.
+ * @param vals Memory area, where the read values will be stored.
+ * @param n Number of values to be read.
+ * @param target Id of the out-going stream.
+ * @return Number of values actually read.
+ */
+int mailbox_read_burst(int *vals, unsigned int n, int target);
+
+/**
+ * Returns the values at the front of the ring of an in-going stream, which are contiguous in memory.
+ * Called by the stream processor. The values are removed using #mailbox_in_drop afterwards.
+ * @param pid Id of the in-going stream.
+ * @param count Variable, where the number of contiguous values is stored.
+ * @return Pointer to the first value.
+ */
+int *mailbox_in_front(unsigned int pid, unsigned int *count);
+
+/**
+ * Removes values from the front of the ring of an in-going stream, that have been returned by #mailbox_in_front.
+ * Called by the stream processor.
+ * @param pid Id of the in-going stream.
+ * @param count Number of removed values. Must not exceed the number returned by #mailbox_in_front.
+ */
+void mailbox_in_drop(unsigned int pid, unsigned int count);
+
+/**
+ * Returns the free slots at the back of the ring of an out-going stream, which are contiguous in memory.
+ * Called by the stream processor. Values written into these slots are appended using #mailbox_out_commit.
+ * @param pid Id of the out-going stream.
+ * @param count Variable, where the number of contiguous free slots is stored.
+ * @return Pointer to the first free slot.
+ */
+int *mailbox_out_reserve(unsigned int pid, unsigned int *count);
+
+/**
+ * Appends values to the ring of an out-going stream, that have been written into the slots returned by #mailbox_out_reserve.
+ * Called by the stream processor.
+ * @param pid Id of the out-going stream.
+ * @param count Number of appended values. Must not exceed the number returned by #mailbox_out_reserve.
+ */
+void mailbox_out_commit(unsigned int pid, unsigned int count);
+
+#endif /* MAILBOX_H_ */
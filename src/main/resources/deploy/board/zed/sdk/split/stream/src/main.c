@@ -0,0 +1,38 @@
+/**
+ * Main of the stream processor of the split scheduler.
+ *
+ * Waits for the medium processor to set up the mailbox and starts the scheduling loop,
+ * which moves values between the mailbox and the hardware queues.
+ *
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include "mailbox.h"
+
+void schedule();
+
+/**
+ * Drops log records of the stream processor.
+ * Only the medium processor is connected to the host-side driver, which formats log records.
+ * @param severity Severity of the record.
+ * @param id Id of the log call site.
+ * @param argc Number of integer arguments.
+ * @param format Format string of the call site (not transmitted).
+ */
+void send_log(unsigned char severity, unsigned int id, unsigned int argc, const char *format, ...) { }
+
+/**
+ * Waits for the mailbox and starts the scheduling loop.
+ * @return 0.
+ */
+int main() {
+	// the medium processor clears the mailbox and initialises all components
+	mailbox_wait();
+
+	// start the scheduler
+	schedule();
+
+	return 0;
+}
@@ -0,0 +1,362 @@
+/**
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include "cluster.h"
+#include "setup.h"
+#include "../logger.h"
+
+#include <sys/socket.h>
+#include <sys/wait.h>
+#include <signal.h>
+#include <unistd.h>
+#include <errno.h>
+#include <stdint.h>
+
+#include <algorithm>
+#include <deque>
+
+/** Header of a job sent from the cluster to a worker, followed by the values of the job. */
+struct request {
+	/** Sequence number of the job. */
+	uint64_t seq;
+	/** Id of the in-going port. */
+	uint32_t in;
+	/** Id of the out-going port. */
+	uint32_t out;
+	/** Number of values written to the in-going port. */
+	uint64_t n_in;
+	/** Number of values read from the out-going port. */
+	uint64_t n_out;
+};
+
+/** Header of the results sent from a worker to the cluster, followed by the result values. */
+struct response {
+	/** Sequence number of the job. */
+	uint64_t seq;
+	/** Size of the result values in bytes. */
+	uint64_t size;
+	/** 0 if the job was processed successfully, -1 otherwise. */
+	int32_t status;
+};
+
+/**
+ * Reads a fixed number of bytes from a socket.
+ * @param fd The socket.
+ * @param buf Memory, where the bytes should be stored.
+ * @param size Number of bytes to be read.
+ * @return true if all bytes have been read, false if the socket was closed or failed.
+ */
+static bool read_fully(int fd, void *buf, size_t size) {
+	char *p = (char*)buf;
+	while(size > 0) {
+		ssize_t i = recv(fd, p, size, 0);
+		if(i < 0 && errno == EINTR) continue;
+		if(i <= 0) return false;
+		p += i; size -= i;
+	}
+	return true;
+}
+
+/**
+ * Writes a fixed number of bytes to a socket.
+ * Does not raise a signal, if the other end of the socket has been closed.
+ * @param fd The socket.
+ * @param buf The bytes to be written.
+ * @param size Number of bytes to be written.
+ * @return true if all bytes have been written, false if the socket was closed or failed.
+ */
+static bool write_fully(int fd, const void *buf, size_t size) {
+	const char *p = (const char*)buf;
+	while(size > 0) {
+		ssize_t i = send(fd, p, size, MSG_NOSIGNAL);
+		if(i < 0 && errno == EINTR) continue;
+		if(i <= 0) return false;
+		p += i; size -= i;
+	}
+	return true;
+}
+
+/**
+ * Drives a single board of a cluster. Never returns.
+ *
+ * Jobs received from the cluster are written to the board without waiting for previous results,
+ * while a separate thread reads the results of all jobs in order and sends them back to the cluster.
+ * The worker terminates, when the cluster closes the connection or a job fails.
+ * @param fd Socket connecting the worker with the cluster.
+ * @param ip IP address of the board.
+ */
+static void work(int fd, const std::string &ip) {
+	try {
+		startup(ip);
+	} catch(std::exception &e) {
+		logger_host << ERROR << "failed to connect to board " << ip << ": " << e.what() << std::endl;
+		_exit(1);
+	}
+
+	std::mutex reads_mutex;
+	std::condition_variable can_read;
+	std::deque<request> reads;
+
+	std::thread reader([&]() {
+		std::vector<unsigned char> buf;
+		while(true) {
+			request r;
+			{
+				std::unique_lock<std::mutex> lock(reads_mutex);
+				while(reads.empty()) can_read.wait(lock);
+				r = reads.front();
+				reads.pop_front();
+			}
+
+			buf.resize(r.n_out * loopy_out_value_size(r.out));
+			response rsp = { r.seq, buf.size(), loopy_read(r.out, buf.data(), r.n_out) };
+			if(rsp.status != 0) {
+				logger_host << ERROR << "failed to read results from board " << ip << ": " << loopy_error() << std::endl;
+				rsp.size = 0;
+			}
+
+			if(!write_fully(fd, &rsp, sizeof(rsp)) || rsp.status != 0) _exit(1);
+			if(!write_fully(fd, buf.data(), buf.size())) _exit(1);
+		}
+	});
+
+	request r;
+	std::vector<unsigned char> vals;
+	while(read_fully(fd, &r, sizeof(r))) {
+		vals.resize(r.n_in * loopy_in_value_size(r.in));
+		if(!read_fully(fd, vals.data(), vals.size())) break;
+
+		// values are copied by the driver, so the buffer can be reused immediately
+		loopy_handle *h = loopy_nbwrite(r.in, vals.data(), r.n_in);
+		if(h == NULL) {
+			logger_host << ERROR << "failed to write values to board " << ip << ": " << loopy_error() << std::endl;
+			_exit(1);
+		}
+		loopy_release(h);
+
+		std::unique_lock<std::mutex> lock(reads_mutex);
+		reads.push_back(r);
+		can_read.notify_one();
+	}
+
+	// the cluster closed the connection, pending reads are abandoned
+	shutdown();
+	reader.detach();
+	_exit(0);
+}
+
+cluster::cluster(std::vector<std::string> ips, unsigned int window, unsigned int timeout) :
+	next(0), window(window), timeout(timeout), closing(false) {
+
+	if(ips.empty()) throw std::invalid_argument("a cluster requires at least one board");
+	if(window == 0) throw std::invalid_argument("the credit window of a cluster has to allow at least one job");
+
+	boards.resize(ips.size());
+	for(unsigned int b = 0; b < ips.size(); b++) {
+		boards[b].ip       = ips[b];
+		boards[b].alive    = true;
+		boards[b].receiver = NULL;
+	}
+
+	// all workers are forked, before any thread of the cluster is started
+	for(unsigned int b = 0; b < boards.size(); b++) {
+		try {
+			fork_worker(b);
+		} catch(std::runtime_error &e) {
+			for(unsigned int c = 0; c < b; c++) {
+				close(boards[c].fd);
+				kill(boards[c].worker, SIGKILL);
+				waitpid(boards[c].worker, NULL, 0);
+			}
+			throw;
+		}
+	}
+
+	for(unsigned int b = 0; b < boards.size(); b++)
+		boards[b].receiver = new std::thread(&cluster::receive, this, b);
+}
+
+cluster::~cluster() {
+	{
+		std::unique_lock<std::mutex> lock(cluster_mutex);
+		closing = true;
+
+		// closing the connection lets the workers shut down their drivers
+		for(unsigned int b = 0; b < boards.size(); b++)
+			if(boards[b].alive) ::shutdown(boards[b].fd, SHUT_WR);
+	}
+
+	for(unsigned int b = 0; b < boards.size(); b++) {
+		boards[b].receiver->join();
+		delete boards[b].receiver;
+		close(boards[b].fd);
+		waitpid(boards[b].worker, NULL, 0);
+	}
+}
+
+void cluster::fork_worker(unsigned int b) {
+	int fds[2];
+	if(socketpair(AF_UNIX, SOCK_STREAM, 0, fds) != 0)
+		throw std::runtime_error(std::string("failed to create socket for worker: ") + strerror(errno));
+
+	pid_t pid = fork();
+	if(pid < 0) {
+		close(fds[0]);
+		close(fds[1]);
+		throw std::runtime_error(std::string("failed to fork worker: ") + strerror(errno));
+	}
+
+	if(pid == 0) {
+		// close the sockets of the cluster, so that other workers notice, when the cluster closes them
+		close(fds[0]);
+		for(unsigned int c = 0; c < b; c++) close(boards[c].fd);
+		work(fds[1], boards[b].ip);
+	}
+
+	close(fds[1]);
+	boards[b].worker = pid;
+	boards[b].fd     = fds[0];
+}
+
+void cluster::receive(unsigned int b) {
+	int fd = boards[b].fd;
+	response rsp;
+	rsp.status = 0;
+	std::vector<unsigned char> rslt;
+
+	while(read_fully(fd, &rsp, sizeof(rsp)) && rsp.status == 0) {
+		rslt.resize(rsp.size);
+		if(!read_fully(fd, rslt.data(), rslt.size())) break;
+
+		std::unique_lock<std::mutex> lock(cluster_mutex);
+		board &brd = boards[b];
+		brd.progress = std::chrono::steady_clock::now();
+		brd.outstanding.erase(std::remove(brd.outstanding.begin(), brd.outstanding.end(), rsp.seq), brd.outstanding.end());
+
+		// discard results of jobs, that have been submitted to another board in the meantime
+		std::map<unsigned long, job>::iterator j = jobs.find(rsp.seq);
+		if(j != jobs.end() && j->second.board == b && !j->second.done) {
+			j->second.rslt.swap(rslt);
+			j->second.vals.clear();
+			j->second.done = true;
+		}
+		progress.notify_all();
+	}
+
+	std::unique_lock<std::mutex> lock(cluster_mutex);
+	if(!closing) fail(b, rsp.status != 0 ? "failed to process a job" : "worker terminated");
+}
+
+void cluster::assign(unsigned long seq, unsigned int b) {
+	job &j = jobs[seq];
+	j.board = b;
+
+	if(boards[b].outstanding.empty()) boards[b].progress = std::chrono::steady_clock::now();
+	boards[b].outstanding.push_back(seq);
+
+	request r = { seq, j.in, j.out, j.n_in, j.n_out };
+	if(!write_fully(boards[b].fd, &r, sizeof(r)) || !write_fully(boards[b].fd, j.vals.data(), j.vals.size()))
+		fail(b, "failed to send a job");
+}
+
+unsigned int cluster::choose(bool credit) {
+	unsigned int c = boards.size();
+	for(unsigned int b = 0; b < boards.size(); b++) {
+		if(!boards[b].alive) continue;
+		if(credit && boards[b].outstanding.size() >= window) continue;
+		if(c == boards.size() || boards[b].outstanding.size() < boards[c].outstanding.size()) c = b;
+	}
+	return c;
+}
+
+void cluster::fail(unsigned int b, const std::string &reason) {
+	if(!boards[b].alive) return;
+
+	logger_host << ERROR << "board " << boards[b].ip << " failed: " << reason << std::endl;
+
+	boards[b].alive = false;
+	::shutdown(boards[b].fd, SHUT_RDWR);
+	kill(boards[b].worker, SIGKILL);
+
+	// submit outstanding jobs to the remaining boards regardless of their credit, keeping their order
+	std::vector<unsigned long> orphans;
+	orphans.swap(boards[b].outstanding);
+	for(unsigned long seq : orphans) {
+		unsigned int c = choose(false);
+		if(c == boards.size()) jobs[seq].failed = true;
+		else assign(seq, c);
+	}
+
+	progress.notify_all();
+}
+
+void cluster::check_timeouts() {
+	std::chrono::steady_clock::time_point now = std::chrono::steady_clock::now();
+	for(unsigned int b = 0; b < boards.size(); b++)
+		if(boards[b].alive && !boards[b].outstanding.empty() && now - boards[b].progress > timeout)
+			fail(b, "no results within " + std::to_string(timeout.count()) + " ms");
+}
+
+unsigned int cluster::size() {
+	std::unique_lock<std::mutex> lock(cluster_mutex);
+
+	unsigned int alive = 0;
+	for(unsigned int b = 0; b < boards.size(); b++) if(boards[b].alive) alive++;
+	return alive;
+}
+
+unsigned long cluster::submit_raw(unsigned int in, const void *buf, size_t n_in, unsigned int out, size_t n_out) {
+	size_t in_size = loopy_in_value_size(in), out_size = loopy_out_value_size(out);
+	if(in_size  == 0) throw std::invalid_argument("no in-going port with id "  + std::to_string(in));
+	if(out_size == 0) throw std::invalid_argument("no out-going port with id " + std::to_string(out));
+
+	std::unique_lock<std::mutex> lock(cluster_mutex);
+
+	// wait for credit of any connected board
+	unsigned int b;
+	while((b = choose(true)) == boards.size()) {
+		if(choose(false) == boards.size()) throw std::runtime_error("no board of the cluster is connected");
+		progress.wait_for(lock, timeout);
+		check_timeouts();
+	}
+
+	unsigned long seq = next++;
+	job &j = jobs[seq];
+	j.in     = in;
+	j.out    = out;
+	j.n_in   = n_in;
+	j.n_out  = n_out;
+	j.vals.assign((const unsigned char*)buf, (const unsigned char*)buf + n_in * in_size);
+	j.done   = false;
+	j.failed = false;
+
+	assign(seq, b);
+	return seq;
+}
+
+std::vector<unsigned char> cluster::collect_raw() {
+	std::unique_lock<std::mutex> lock(cluster_mutex);
+
+	if(jobs.empty()) throw std::logic_error("there is no submitted job to be collected");
+
+	// jobs are ordered by their sequence numbers
+	std::map<unsigned long, job>::iterator j = jobs.begin();
+	while(!j->second.done && !j->second.failed) {
+		progress.wait_for(lock, timeout);
+		check_timeouts();
+	}
+
+	if(j->second.failed) {
+		unsigned long seq = j->first;
+		jobs.erase(j);
+		throw std::runtime_error("job " + std::to_string(seq) +
+			" could not be processed, since no board of the cluster is connected");
+	}
+
+	std::vector<unsigned char> rslt;
+	rslt.swap(j->second.rslt);
+	jobs.erase(j);
+	return rslt;
+}
@@ -0,0 +1,243 @@
+/**
+ * Describes clusters of boards with the same board description.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef CLUSTER_H_
+#define CLUSTER_H_
+
+#include <sys/types.h>
+
+#include <chrono>
+#include <condition_variable>
+#include <cstring>
+#include <map>
+#include <mutex>
+#include <stdexcept>
+#include <string>
+#include <thread>
+#include <vector>
+
+#include "loopy.h"
+
+/**
+ * A cluster of boards, which are configured with the same board description.
+ *
+ * The driver itself can only drive a single board. Therefore, the cluster drives each board
+ * from a separate worker process, which is forked from the application when the cluster is created.
+ * The cluster replaces the startup of the driver, the application must neither start up
+ * nor shut down the driver itself while using a cluster.
+ * Since forking a process with several threads is unsafe, the cluster has to be created
+ * before the application starts any threads.
+ *
+ * Work is submitted to the cluster as jobs. A job consists of values written to an in-going port
+ * and a number of result values read from an out-going port of the same board.
+ * Ports are addressed by their ids, as in the C interface (see loopy.h).
+ * Each job is assigned to the connected board with the fewest outstanding jobs, as long as
+ * the board has less outstanding jobs than the credit window of the cluster.
+ * Otherwise, the submission waits until a board collected its results.
+ * Results are collected in order of submission, regardless of the board processing a job.
+ *
+ * A board is considered failed, if its worker terminates or if it does not return
+ * any results for outstanding jobs within the timeout of the cluster.
+ * Outstanding jobs of a failed board are submitted to the remaining boards again,
+ * so that results of jobs should not depend on previous jobs processed by the same board.
+ *
+ * Jobs may be submitted by several threads, but results have to be collected by a single thread.
+ */
+class cluster {
+private:
+	/** A board of the cluster. */
+	struct board {
+		/** IP address of the board. */
+		std::string ip;
+		/** Process id of the worker driving the board. */
+		pid_t worker;
+		/** Socket connecting the cluster with the worker. */
+		int fd;
+		/** Flag stating if the board is still connected. */
+		bool alive;
+		/** Sequence numbers of jobs submitted to the board and not yet returned in order of submission. */
+		std::vector<unsigned long> outstanding;
+		/** Point in time of the last progress of the board. */
+		std::chrono::steady_clock::time_point progress;
+		/** Thread receiving results from the worker. */
+		std::thread *receiver;
+	};
+
+	/** A submitted, but not yet collected job. */
+	struct job {
+		/** Id of the in-going port. */
+		unsigned int in;
+		/** Id of the out-going port. */
+		unsigned int out;
+		/** Number of values written to the in-going port. */
+		size_t n_in;
+		/** Number of values read from the out-going port. */
+		size_t n_out;
+		/** Values written to the in-going port in their memory representation. */
+		std::vector<unsigned char> vals;
+		/** Values read from the out-going port in their memory representation. */
+		std::vector<unsigned char> rslt;
+		/** Index of the board processing the job. */
+		unsigned int board;
+		/** Flag stating if the results of the job have been received. */
+		bool done;
+		/** Flag stating if the job could not be processed by any board. */
+		bool failed;
+	};
+
+	/** All boards of the cluster. */
+	std::vector<board> boards;
+	/** Uncollected jobs by their sequence numbers. */
+	std::map<unsigned long, job> jobs;
+	/** Sequence number of the next submitted job. */
+	unsigned long next;
+	/** Maximal number of outstanding jobs of a single board. */
+	unsigned int window;
+	/** Time after which a board without progress is considered failed. */
+	std::chrono::milliseconds timeout;
+	/** Flag stating if the cluster is shutting down. */
+	bool closing;
+
+	/** Cluster mutex, which has to be acquired before modifying boards or jobs. */
+	std::mutex cluster_mutex;
+	/** Notify this variable, when results have been received or a board failed. */
+	std::condition_variable progress;
+
+	/**
+	 * Forks the worker of a board.
+	 * @param b Index of the board.
+	 * @throws runtime_error If the worker could not be forked.
+	 */
+	void fork_worker(unsigned int b);
+
+	/**
+	 * Receives results of a board until its worker terminates.
+	 * @param b Index of the board.
+	 */
+	void receive(unsigned int b);
+
+	/**
+	 * Assigns a job to a board and sends it to the worker.
+	 * If sending fails, the board is considered failed.
+	 * The cluster lock has to be held by the caller.
+	 * @param seq Sequence number of the job.
+	 * @param b Index of the board.
+	 */
+	void assign(unsigned long seq, unsigned int b);
+
+	/**
+	 * Chooses the connected board with the fewest outstanding jobs.
+	 * The cluster lock has to be held by the caller.
+	 * @param credit If set, only boards with outstanding jobs below the credit window are considered.
+	 * @return Index of the board or the number of boards, if no board can be chosen.
+	 */
+	unsigned int choose(bool credit);
+
+	/**
+	 * Disconnects a failed board and submits its outstanding jobs to the remaining boards.
+	 * Jobs are marked as failed, if no board remains.
+	 * The cluster lock has to be held by the caller.
+	 * @param b Index of the board.
+	 * @param reason Description of the failure.
+	 */
+	void fail(unsigned int b, const std::string &reason);
+
+	/**
+	 * Fails all boards, which did not make any progress within the timeout.
+	 * The cluster lock has to be held by the caller.
+	 */
+	void check_timeouts();
+
+public:
+	/**
+	 * Constructor for a cluster, starting a worker for each board.
+	 * Each worker starts up the driver with the ip address of its board.
+	 * @param ips IP addresses of all boards of the cluster.
+	 * @param window Maximal number of outstanding jobs of a single board.
+	 * @param timeout Time in milliseconds after which a board without progress is considered failed.
+	 * @throws invalid_argument If no board or an empty credit window is provided.
+	 * @throws runtime_error If a worker could not be started.
+	 */
+	cluster(std::vector<std::string> ips, unsigned int window = 4, unsigned int timeout = 5000);
+
+	/**
+	 * Destructor for a cluster.
+	 * Shuts down the drivers of all workers and waits for the workers to terminate.
+	 * Uncollected jobs are discarded.
+	 */
+	~cluster();
+
+	/**
+	 * Returns the number of boards of this cluster, which are still connected.
+	 * @return Number of connected boards.
+	 */
+	unsigned int size();
+
+	/**
+	 * Submits a job to a board of the cluster.
+	 * Values are given in the memory representation of the in-going port (see loopy.h).
+	 * This is a non-blocking write unless all connected boards exhausted their credit window,
+	 * in which case the submitting program waits until a board returned results.
+	 * @param in Id of the in-going port.
+	 * @param buf Values to be written to the in-going port.
+	 * @param n_in Number of values to be written.
+	 * @param out Id of the out-going port.
+	 * @param n_out Number of result values to be read from the out-going port.
+	 * @return Sequence number of the job.
+	 * @throws invalid_argument If one of the ports does not exist.
+	 * @throws runtime_error If no board of the cluster is connected.
+	 */
+	unsigned long submit_raw(unsigned int in, const void *buf, size_t n_in, unsigned int out, size_t n_out);
+
+	/**
+	 * Collects the results of the oldest uncollected job.
+	 * Values are given in the memory representation of the out-going port (see loopy.h).
+	 * This is a blocking read, meaning that the program waits until all results of the job have been received.
+	 * @return The result values of the job.
+	 * @throws logic_error If there is no uncollected job.
+	 * @throws runtime_error If the job could not be processed, since no board of the cluster is connected.
+	 */
+	std::vector<unsigned char> collect_raw();
+
+	/**
+	 * Submits a job to a board of the cluster.
+	 * This is a non-blocking write unless all connected boards exhausted their credit window,
+	 * in which case the submitting program waits until a board returned results.
+	 * @param in Id of the in-going port.
+	 * @param vals Values to be written to the in-going port.
+	 * @param out Id of the out-going port.
+	 * @param n_out Number of result values to be read from the out-going port.
+	 * @tparam S Value type of the in-going port.
+	 * @return Sequence number of the job.
+	 * @throws invalid_argument If one of the ports does not exist or the value type does not match the port.
+	 * @throws runtime_error If no board of the cluster is connected.
+	 */
+	template <class S>
+	unsigned long submit(unsigned int in, const std::vector<S> &vals, unsigned int out, size_t n_out) {
+		if(loopy_in_value_size(in) != sizeof(S))
+			throw std::invalid_argument("value type does not match in-going port " + std::to_string(in));
+		return submit_raw(in, vals.data(), vals.size(), out, n_out);
+	}
+
+	/**
+	 * Collects the results of the oldest uncollected job.
+	 * This is a blocking read, meaning that the program waits until all results of the job have been received.
+	 * @tparam T Value type of the out-going port of the job.
+	 * @return The result values of the job.
+	 * @throws logic_error If there is no uncollected job.
+	 * @throws runtime_error If the job could not be processed, since no board of the cluster is connected.
+	 */
+	template <class T>
+	std::vector<T> collect() {
+		std::vector<unsigned char> raw = collect_raw();
+		std::vector<T> rslt(raw.size() / sizeof(T));
+		memcpy(rslt.data(), raw.data(), rslt.size() * sizeof(T));
+		return rslt;
+	}
+};
+
+#endif /* CLUSTER_H_ */
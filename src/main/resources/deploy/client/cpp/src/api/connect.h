@@ -0,0 +1,72 @@
+/**
+ * Describes host-side connections between out-going and in-going ports.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef CONNECT_H_
+#define CONNECT_H_
+
+#include "portIn.h"
+#include "portOut.h"
+
+/**
+ * Connects an out-going port with an in-going port without specified width.
+ * Should not be called directly. Use the typed #connect method instead.
+ * @param src The out-going port, whose values should be forwarded.
+ * @param dst The in-going port, to which the values should be forwarded.
+ * @throws invalid_argument If one of the ports is already connected or the
+ *                          out-going port has unfinished read tasks.
+ */
+void connect_ports(abstractOutPort *src, abstractInPort *dst);
+
+/**
+ * Disconnects an out-going port without specified width.
+ * Should not be called directly. Use the typed #disconnect method instead.
+ * @param src The out-going port, which should be disconnected.
+ */
+void disconnect_ports(abstractOutPort *src);
+
+/**
+ * Connects an out-going port with an in-going port of the same width.
+ *
+ * All values received at the out-going port are directly forwarded to the in-going port
+ * by the reader thread of the driver. No application thread is involved in forwarding,
+ * and the values are neither converted nor buffered in the read queue of the out-going port.
+ *
+ * Flow control is propagated in both directions. The in-going port sends forwarded values
+ * only when the board acknowledged previous values, as with every other write.
+ * If the out-going port is a polling port, values are requested from the board only
+ * when forwarded values got acknowledged, so at most as many values as fit into the
+ * board-side software queue of the in-going port are in transit between both ports.
+ *
+ * While connected, the out-going port should not be read by the application.
+ * @param src The out-going port, whose values should be forwarded.
+ * @param dst The in-going port, to which the values should be forwarded.
+ * @tparam width Bitwidth of both ports.
+ * @tparam S Value type of the out-going port.
+ * @tparam T Value type of the in-going port.
+ * @throws invalid_argument If one of the ports is already connected or the
+ *                          out-going port has unfinished read tasks.
+ */
+template <int width, class S, class T>
+void connect(outPort<width, S> &src, inPort<width, T> &dst) {
+	connect_ports(&src, &dst);
+}
+
+/**
+ * Disconnects an out-going port from the in-going port it is forwarding to.
+ * Values already forwarded will still be written to the in-going port.
+ * Values received afterwards are stored at the out-going port again.
+ * Does nothing, if the port is not connected.
+ * @param src The out-going port, which should be disconnected.
+ * @tparam width Bitwidth of the port.
+ * @tparam T Value type of the port.
+ */
+template <int width, class T>
+void disconnect(outPort<width, T> &src) {
+	disconnect_ports(&src);
+}
+
+#endif /* CONNECT_H_ */
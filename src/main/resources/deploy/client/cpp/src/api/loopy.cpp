@@ -0,0 +1,172 @@
+/**
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include "loopy.h"
+#include "setup.h"
+#include "../io/io.h"
+
+#include <climits>
+#include <exception>
+#include <string>
+
+/** Handle of a non-blocking read or write operation. */
+struct loopy_handle {
+	/** State of the operation. */
+	std::shared_ptr<state> s;
+};
+
+/** Description of the last error of the calling thread. */
+static thread_local std::string error;
+
+/**
+ * Stores the description of an error for the calling thread.
+ * @param message Description of the error.
+ * @return -1 for convenience.
+ */
+static int fail(const std::string &message) {
+	error = message;
+	return -1;
+}
+
+/**
+ * Looks up an in-going port and checks the requested number of values.
+ * @param port Id of the port.
+ * @param n_values Number of values to be written.
+ * @return The port or NULL, if the port does not exist or too many values are requested.
+ */
+static abstractInPort *in_port(unsigned int port, size_t n_values) {
+	if(port >= IN_PORT_COUNT || inPorts[port] == NULL) {
+		fail("no in-going port with id " + std::to_string(port));
+		return NULL;
+	}
+	if(n_values > UINT_MAX) {
+		fail("too many values for a single write");
+		return NULL;
+	}
+	return inPorts[port];
+}
+
+/**
+ * Looks up an out-going port and checks the requested number of values.
+ * @param port Id of the port.
+ * @param n_values Number of values to be read.
+ * @return The port or NULL, if the port does not exist or too many values are requested.
+ */
+static abstractOutPort *out_port(unsigned int port, size_t n_values) {
+	if(port >= OUT_PORT_COUNT || outPorts[port] == NULL) {
+		fail("no out-going port with id " + std::to_string(port));
+		return NULL;
+	}
+	if(n_values > UINT_MAX) {
+		fail("too many values for a single read");
+		return NULL;
+	}
+	return outPorts[port];
+}
+
+int loopy_startup(const char *ip) {
+	try {
+#if defined(IP)
+		// the address is fixed by the board description
+		(void)ip;
+		startup();
+#elif defined(UART_DEVICE)
+		// the serial device of the board description is only a default
+		if(ip == NULL) startup();
+		else startup(ip);
+#else
+		if(ip == NULL) return fail("no ip address provided");
+		startup(ip);
+#endif
+	} catch(std::exception &e) {
+		return fail(e.what());
+	}
+	return 0;
+}
+
+void loopy_shutdown(void) {
+	try {
+		shutdown();
+	} catch(std::exception &e) {
+		fail(e.what());
+	}
+}
+
+size_t loopy_in_value_size(unsigned int port) {
+	abstractInPort *p = in_port(port, 0);
+	return p == NULL ? 0 : p->raw_size();
+}
+
+size_t loopy_out_value_size(unsigned int port) {
+	abstractOutPort *p = out_port(port, 0);
+	return p == NULL ? 0 : p->raw_size();
+}
+
+int loopy_write(unsigned int port, const void *buf, size_t n_values) {
+	abstractInPort *p = in_port(port, n_values);
+	if(p == NULL) return -1;
+
+	try {
+		std::shared_ptr<abstractWriteState> s = p->write_raw(buf, n_values, true);
+		if(s->failed()) return fail(s->message());
+	} catch(std::exception &e) {
+		return fail(e.what());
+	}
+	return 0;
+}
+
+int loopy_read(unsigned int port, void *buf, size_t n_values) {
+	abstractOutPort *p = out_port(port, n_values);
+	if(p == NULL) return -1;
+
+	try {
+		std::shared_ptr<abstractReadState> s = p->read_raw(buf, n_values, true);
+		if(s->failed()) return fail(s->message());
+	} catch(std::exception &e) {
+		return fail(e.what());
+	}
+	return 0;
+}
+
+loopy_handle *loopy_nbwrite(unsigned int port, const void *buf, size_t n_values) {
+	abstractInPort *p = in_port(port, n_values);
+	if(p == NULL) return NULL;
+
+	try {
+		return new loopy_handle { p->write_raw(buf, n_values, false) };
+	} catch(std::exception &e) {
+		fail(e.what());
+		return NULL;
+	}
+}
+
+loopy_handle *loopy_nbread(unsigned int port, void *buf, size_t n_values) {
+	abstractOutPort *p = out_port(port, n_values);
+	if(p == NULL) return NULL;
+
+	try {
+		return new loopy_handle { p->read_raw(buf, n_values, false) };
+	} catch(std::exception &e) {
+		fail(e.what());
+		return NULL;
+	}
+}
+
+int loopy_test(loopy_handle *handle) {
+	if(handle->s->failed()) return fail(handle->s->message());
+	return handle->s->finished() ? 1 : 0;
+}
+
+size_t loopy_processed(loopy_handle *handle) {
+	return handle->s->processed();
+}
+
+void loopy_release(loopy_handle *handle) {
+	delete handle;
+}
+
+const char *loopy_error(void) {
+	return error.c_str();
+}
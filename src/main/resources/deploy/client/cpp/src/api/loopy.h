@@ -0,0 +1,136 @@
+/**
+ * Describes the C interface of the driver.
+ *
+ * The C interface allows using the driver from C and other languages
+ * with a foreign function interface, e.g. when the driver is built as shared library.
+ * Ports are addressed by their ids, which are defined as LOOPY_IN_&lt;INSTANCE&gt;_&lt;PORT&gt;
+ * and LOOPY_OUT_&lt;INSTANCE&gt;_&lt;PORT&gt; in constants.h.
+ *
+ * Values are transferred as complete buffers without any per-value conversion of the caller.
+ * The memory representation of a value depends on the bitwidth of the port:
+ *  - Values of ports up to 64 bit are represented by the smallest fitting unsigned integer type,
+ *    i.e. uint8_t, uint16_t, uint32_t or uint64_t.
+ *  - Values of wider ports are represented by several 32-bit integers in the wire format,
+ *    starting with the most significant one.
+ *
+ * #loopy_in_value_size and #loopy_out_value_size return the size of a single value of a port.
+ * None of the functions throws an exception. Errors are indicated by the return value,
+ * and a description of the last error of the calling thread can be obtained using #loopy_error.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef LOOPY_H_
+#define LOOPY_H_
+
+#include <stddef.h>
+
+#include "../constants.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+/** Handle of a non-blocking read or write operation. */
+typedef struct loopy_handle loopy_handle;
+
+/**
+ * Starts up the driver.
+ * @param ip IP address of the board. Ignored, if the address is fixed by the board description.
+ *           For UART, the serial device, the board is attached with, or NULL for the default device.
+ * @return 0 if successful, -1 otherwise.
+ */
+int loopy_startup(const char *ip);
+
+/**
+ * Shuts down the driver.
+ */
+void loopy_shutdown(void);
+
+/**
+ * Returns the size of a single value of an in-going port in its memory representation.
+ * @param port Id of the in-going port.
+ * @return Size of a value in bytes or 0, if the port does not exist.
+ */
+size_t loopy_in_value_size(unsigned int port);
+
+/**
+ * Returns the size of a single value of an out-going port in its memory representation.
+ * @param port Id of the out-going port.
+ * @return Size of a value in bytes or 0, if the port does not exist.
+ */
+size_t loopy_out_value_size(unsigned int port);
+
+/**
+ * Writes values to an in-going port and waits for the write to return.
+ * @param port Id of the in-going port.
+ * @param buf Values to be written.
+ * @param n_values Number of values to be written.
+ * @return 0 if successful, -1 otherwise.
+ */
+int loopy_write(unsigned int port, const void *buf, size_t n_values);
+
+/**
+ * Reads values from an out-going port and waits for the read to return.
+ * @param port Id of the out-going port.
+ * @param buf Memory, where the read values should be stored.
+ * @param n_values Number of values to be read.
+ * @return 0 if successful, -1 otherwise.
+ */
+int loopy_read(unsigned int port, void *buf, size_t n_values);
+
+/**
+ * Writes values to an in-going port without waiting for the write to return.
+ * The values are copied, so the buffer can be reused immediately.
+ * @param port Id of the in-going port.
+ * @param buf Values to be written.
+ * @param n_values Number of values to be written.
+ * @return Handle of the write or NULL, if the write could not be started.
+ *         The handle has to be released using #loopy_release.
+ */
+loopy_handle *loopy_nbwrite(unsigned int port, const void *buf, size_t n_values);
+
+/**
+ * Reads values from an out-going port without waiting for the read to return.
+ * The buffer has to remain valid until the read has finished.
+ * @param port Id of the out-going port.
+ * @param buf Memory, where the read values should be stored.
+ * @param n_values Number of values to be read.
+ * @return Handle of the read or NULL, if the read could not be started.
+ *         The handle has to be released using #loopy_release.
+ */
+loopy_handle *loopy_nbread(unsigned int port, void *buf, size_t n_values);
+
+/**
+ * Checks the progress of a non-blocking operation.
+ * @param handle Handle of the operation.
+ * @return 1 if the operation has finished, 0 if it is still in progress, -1 if it has failed.
+ */
+int loopy_test(loopy_handle *handle);
+
+/**
+ * Returns the number of values already processed by a non-blocking operation.
+ * @param handle Handle of the operation.
+ * @return Number of processed values.
+ */
+size_t loopy_processed(loopy_handle *handle);
+
+/**
+ * Releases the handle of a non-blocking operation.
+ * Releasing the handle does not cancel the operation.
+ * @param handle Handle of the operation.
+ */
+void loopy_release(loopy_handle *handle);
+
+/**
+ * Returns a description of the last error, that occurred in the calling thread.
+ * @return The description or an empty string, if no error occurred.
+ */
+const char *loopy_error(void);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif /* LOOPY_H_ */
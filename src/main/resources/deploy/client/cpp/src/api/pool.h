@@ -0,0 +1,202 @@
+/**
+ * Describes pools of replicated core instances.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef POOL_H_
+#define POOL_H_
+
+#include <vector>
+#include <deque>
+#include <memory>
+#include <mutex>
+#include <stdexcept>
+
+#include "portIn.h"
+#include "portOut.h"
+#include "../exceptions.h"
+
+/**
+ * Strategies for choosing the replica, that processes a submitted job.
+ */
+enum dispatch {
+	/** Replicas are chosen in turn. */
+	ROUND_ROBIN,
+	/** The replica with the fewest uncollected jobs is chosen. */
+	LEAST_OUTSTANDING,
+	/** The replica is chosen by the key of a job, so that jobs with equal keys are processed by the same replica. */
+	STICKY
+};
+
+/**
+ * A pool of replicated core instances, each with a single in-going and a single out-going port.
+ *
+ * A job consists of values written to the in-going port of a replica and a number of
+ * result values read from the out-going port of the same replica. Jobs are spread across
+ * all replicas, but their results are collected in the order of submission.
+ * Since each replica processes its jobs in order, the results of a job are
+ * exactly the next values of the chosen replica.
+ *
+ * Jobs may be submitted by several threads, but results have to be collected by a single thread.
+ * If the values of a job could not be written, the failure is reported when collecting the job.
+ * @tparam win Bitwidth of the in-going ports.
+ * @tparam S Value type of the in-going ports.
+ * @tparam wout Bitwidth of the out-going ports.
+ * @tparam T Value type of the out-going ports.
+ */
+template <int win, class S, int wout, class T>
+class pool {
+private:
+	/** A submitted, but not yet collected job. */
+	struct job {
+		/** Index of the replica processing the job. */
+		unsigned int replica;
+		/** Number of result values of the job. */
+		unsigned int count;
+		/** State of the write of the job values. */
+		std::shared_ptr<writeState<win, S>> write;
+	};
+
+	/** In-going ports of all replicas. */
+	std::vector<inPort<win, S>*> ins;
+	/** Out-going ports of all replicas. */
+	std::vector<outPort<wout, T>*> outs;
+	/** Number of uncollected jobs of each replica. */
+	std::vector<unsigned int> outstanding;
+	/** Uncollected jobs in order of submission. */
+	std::deque<job> jobs;
+	/** Strategy for choosing replicas. */
+	dispatch strategy;
+	/** Replica considered first for the next job. */
+	unsigned int next;
+	/** Pool mutex, which has to be acquired before modifying jobs or counters. */
+	std::mutex pool_mutex;
+
+	/**
+	 * Chooses the replica for a new job. The pool lock has to be held by the caller.
+	 * @param key Key of the job, only regarded by the #STICKY strategy.
+	 * @return Index of the chosen replica.
+	 */
+	unsigned int choose(unsigned int key) {
+		unsigned int r = next;
+
+		switch(strategy) {
+		case STICKY:
+			return key % ins.size();
+		case LEAST_OUTSTANDING:
+			// ties are resolved in turn, starting with the replica after the last chosen one
+			for(unsigned int i = 1; i < ins.size(); i++) {
+				unsigned int c = (next + i) % ins.size();
+				if(outstanding[c] < outstanding[r]) r = c;
+			}
+			break;
+		case ROUND_ROBIN:
+			break;
+		}
+
+		next = (r + 1) % ins.size();
+		return r;
+	}
+
+public:
+	/**
+	 * Constructor for a pool, initialising all counters.
+	 * @param ins In-going ports of all replicas.
+	 * @param outs Out-going ports of all replicas in the same order.
+	 * @throws invalid_argument If no ports or different numbers of in-going and out-going ports are provided.
+	 */
+	pool(std::vector<inPort<win, S>*> ins, std::vector<outPort<wout, T>*> outs) :
+		ins(ins), outs(outs), outstanding(ins.size(), 0), strategy(ROUND_ROBIN), next(0) {
+
+		if(ins.empty() || ins.size() != outs.size())
+			throw std::invalid_argument("a pool requires one in-going and one out-going port for each replica");
+	}
+	~pool() { }
+
+	/**
+	 * Returns the number of replicas of this pool.
+	 * @return Number of replicas.
+	 */
+	unsigned int size() {
+		return ins.size();
+	}
+
+	/**
+	 * Sets the strategy for choosing the replicas of subsequently submitted jobs.
+	 * The default strategy is #ROUND_ROBIN.
+	 * @param strategy The new strategy.
+	 */
+	void policy(dispatch strategy) {
+		std::unique_lock<std::mutex> lock(pool_mutex);
+		this->strategy = strategy;
+	}
+
+	/**
+	 * Submits a job to a replica of the pool.
+	 * This is a non-blocking write, meaning that the submitting program does not wait for the values to be written.
+	 * @param vals Values to be written to the in-going port of the replica.
+	 * @param count Number of result values to be read from the out-going port of the replica.
+	 * @param key Key of the job. Jobs with equal keys are processed by the same replica,
+	 *            if the #STICKY strategy is used. Otherwise, the key is ignored.
+	 * @return Index of the replica processing the job.
+	 * @throws mediumException If the values could not be written. The job is not submitted in this case.
+	 */
+	unsigned int submit(const std::vector<S> &vals, unsigned int count, unsigned int key = 0) {
+		std::unique_lock<std::mutex> lock(pool_mutex);
+
+		unsigned int r = choose(key);
+		std::shared_ptr<writeState<win, S>> write = ins[r]->nbwrite(vals);
+		if(write->failed()) throw mediumException(write->message());
+
+		outstanding[r]++;
+		jobs.push_back(job{r, count, write});
+
+		return r;
+	}
+
+	/**
+	 * Collects the results of the oldest uncollected job.
+	 * This is a blocking read, meaning that the program waits until all results of the job have been read.
+	 * @return The result values of the job.
+	 * @throws logic_error If there is no uncollected job.
+	 * @throws mediumException If the values of the job could not be written.
+	 *                         The job is discarded, since its results will never arrive.
+	 */
+	std::vector<T> collect() {
+		job j;
+
+		{
+			std::unique_lock<std::mutex> lock(pool_mutex);
+			if(jobs.empty()) throw std::logic_error("there is no submitted job to be collected");
+			j = jobs.front();
+			jobs.pop_front();
+
+			if(j.write->failed()) {
+				outstanding[j.replica]--;
+				throw mediumException(j.write->message());
+			}
+		}
+
+		// read without holding the pool lock, so that jobs can be submitted in the meantime
+		std::vector<T> rslt(j.count);
+		outs[j.replica]->read(rslt);
+
+		std::unique_lock<std::mutex> lock(pool_mutex);
+		outstanding[j.replica]--;
+
+		return rslt;
+	}
+
+	/**
+	 * Returns the number of submitted, but not yet collected jobs.
+	 * @return Number of uncollected jobs.
+	 */
+	unsigned int pending() {
+		std::unique_lock<std::mutex> lock(pool_mutex);
+		return jobs.size();
+	}
+};
+
+#endif /* POOL_H_ */
@@ -10,13 +10,16 @@
 
 #include <memory>
 #include <bitset>
+#include <stdint.h>
 #include <mutex>
 
 #include "../utils.h"
 #include "../linkedQueue.h"
 #include "../io/state.h"
+#include "../trace.h"
 
 class abstractInPort;
+class abstractOutPort;
 /** List of all in-going ports of this driver. */
 extern abstractInPort *inPorts[];
 /** The writer mutex, which is required for notification of the writer. */
@@ -33,55 +36,41 @@ friend void scheduleWriter();
 friend void recv_ack_unsafe(unsigned char pid, unsigned int count);
 friend void recv_ack(unsigned char pid, unsigned int count);
 friend void recv_poll(unsigned char pid);
+friend void forward_unsafe(abstractInPort *dst, const int val[], int size);
+friend void connect_ports(abstractOutPort *src, abstractInPort *dst);
+friend void disconnect_ports(abstractOutPort *src);
 protected:
 	/** ID of the port. */
 	int pid;
+	/** Out-going port forwarding its values to this port. NULL, if the port is not connected. */
+	abstractOutPort *source;
 	/** The queue of write tasks to be performed by the port. */
 	std::shared_ptr<LinkedQueue<abstractWriteState>> writeTaskQueue;
 	/** Counter of values currently in transit. -1 marks a blocked port. */
 	std::shared_ptr<int> transit;
+	/** Counter of sent values, which have not been acknowledged yet. Unlike #transit, it is kept while the port is blocked. */
+	unsigned int unacked;
 
 	/** Port mutex, which has to be acquired before modifying the task queue. */
 	std::mutex port_mutex;
 	/** Condition variable, waiting for the task queue to get empty. */
 	std::condition_variable_any task_empty;
-public:
-	/**
-	 * Constructor for unparameterised in-going ports, initialising all queues and parameters.
-	 * @param pid ID of the port.
-	 */
-	abstractInPort(int pid) : pid(pid), transit(new int(0)){
-		inPorts[pid] = this;
-
-		writeTaskQueue = std::shared_ptr<LinkedQueue<abstractWriteState>>(new LinkedQueue<abstractWriteState>());
-	}
-	virtual ~abstractInPort() { }
-};
-
-/**
- * An abstract representation of an in-going AXI-Stream port.
- * Instances of this class represent in-going ports of IPCores.
- * Communication with a core should be handled through these ports.
- */
-template <int width>
-class inPort : public abstractInPort {
-protected:
 
 	/**
-	 * Underlying read operation, called by more usable read methods.
-	 * This operation does actually block until the read is finished or
-	 * no more values are available.
-	 * @param state #state of the read operation to be executed.
+	 * Underlying write operation, called by more usable write methods.
+	 * This operation does actually block until the write is finished.
+	 * @param state #state of the write operation to be executed.
 	 * @return updated #state
 	 */
-	void write(writeState<width> *state) {
-		std::shared_ptr<writeState<width>> s(state);
+	std::shared_ptr<abstractWriteState> write_state(abstractWriteState *state) {
+		std::shared_ptr<abstractWriteState> s(state);
 
 		// acquire port lock
 		std::unique_lock<std::mutex> port_lock(port_mutex);
 
 		// put the value in the queue
 		writeTaskQueue->put(s);
+		TRACE_EVENT("enqueue", pid, s->total());
 
 		// acquire writer lock
 		std::unique_lock<std::mutex> write_lock(writer_mutex);
@@ -94,23 +83,26 @@ protected:
 
 		// wait for the queue to get empty
 		task_empty.wait(write_lock);
+
+		return s;
 	}
 
 	/**
-	 * Underlying read operation, called by more usable read methods.
+	 * Underlying write operation, called by more usable write methods.
 	 * This operation does not block until the value is written.
 	 * Still, it waits for locks and may therefore take some time to finish.
-	 * @param state #state of the read operation to be executed.
+	 * @param state #state of the write operation to be executed.
 	 * @return updated #state
 	 */
-	std::shared_ptr<writeState<width>> nbwrite(writeState<width> *state) {
-		std::shared_ptr<writeState<width>> s(state);
+	std::shared_ptr<abstractWriteState> nbwrite_state(abstractWriteState *state) {
+		std::shared_ptr<abstractWriteState> s(state);
 
 		// acquire port lock
 		std::unique_lock<std::mutex> port_lock(port_mutex);
 
 		// put the value in the queue
 		writeTaskQueue->put(s);
+		TRACE_EVENT("enqueue", pid, s->total());
 
 		// acquire writer lock
 		std::unique_lock<std::mutex> write_lock(writer_mutex);
@@ -118,18 +110,85 @@ protected:
 		// notify, if the port is ready
 		if(*transit == 0) can_write.notify_one();
 
+		// release the port lock before the writer lock, so that the writer can lock the port when waking up
+		port_lock.unlock();
+
 		// release locks and return state pointer
 		return s;
 	}
 
+public:
+	/** Bitwidth of the port. */
+	const int bitwidth;
+
+	/**
+	 * Constructor for unparameterised in-going ports, initialising all queues and parameters.
+	 * @param pid ID of the port.
+	 * @param width Bitwidth of the port.
+	 */
+	abstractInPort(int pid, int width) : pid(pid), source(NULL), transit(new int(0)), unacked(0), bitwidth(width) {
+		inPorts[pid] = this;
+
+		writeTaskQueue = std::shared_ptr<LinkedQueue<abstractWriteState>>(new LinkedQueue<abstractWriteState>());
+	}
+	virtual ~abstractInPort() { }
+
+	/**
+	 * Returns the size of a single value in its raw memory representation.
+	 * @see #write_raw for the raw memory representation of values.
+	 * @return Size of a value in bytes.
+	 */
+	virtual unsigned int raw_size() = 0;
+
+	/**
+	 * Writes values provided in their raw memory representation to this port.
+	 * Values of ports typed on a native integer type are expected as an array of this type.
+	 * Values of ports typed on bitsets are expected as 32-bit integers, several per value,
+	 * starting with the most significant one.
+	 * @param vals Memory containing the values to be written.
+	 * @param size Number of values to be written.
+	 * @param block If true, waits for the write to return.
+	 * @return A #state representing this write.
+	 */
+	virtual std::shared_ptr<abstractWriteState> write_raw(const void *vals, unsigned int size, bool block) = 0;
+};
+
+/**
+ * An abstract representation of an in-going AXI-Stream port.
+ * Instances of this class represent in-going ports of IPCores.
+ * Communication with a core should be handled through these ports.
+ *
+ * Values are either represented by bitsets of the port width or, for narrow ports,
+ * by native unsigned integer types. Native values are passed to the wire format
+ * without bitwise conversion.
+ * @tparam width Bitwidth of the port.
+ * @tparam T Type representing a single value. Either a bitset of the bitwidth
+ *           or an unsigned integer type, which is at least as wide as the bitwidth.
+ */
+template <int width, class T = std::bitset<width> >
+class inPort : public abstractInPort {
+private:
+	/** Bitset of the port width, if values are represented by a native integer type. */
+	typedef typename bitsetAlternative<width, T>::type B;
+
 public:
 	/**
 	 * Constructor for in-going ports, initialising all queues and parameters.
 	 * @param pid ID of the port.
 	 */
-	inPort(int pid) : abstractInPort(pid) { }
+	inPort(int pid) : abstractInPort(pid, width) { }
 	~inPort() { }
 
+	unsigned int raw_size() {
+		return raw_value_size<width>((T*)NULL);
+	}
+
+	std::shared_ptr<abstractWriteState> write_raw(const void *vals, unsigned int size, bool block) {
+		abstractWriteState *s = raw_write_state<width>(vals, size, (T*)NULL);
+
+		return block ? write_state(s) : nbwrite_state(s);
+	}
+
 	/**
 	 * Writes a bit vector to this port and waits for the write to return.
 	 * This implies waiting for the board to receive and acknowledge the written value.
@@ -144,8 +203,8 @@ public:
 	 *          until the microblaze has received the value, not until the component
 	 *          has received it. This will be fixed in a later version
 	 */
-	void write(const std::bitset<width> val) {
-		write(new writeState<width>(&val, 1));
+	void write(const T val) {
+		write_state(new writeState<width, T>(&val, 1));
 	}
 
 	/**
@@ -162,8 +221,8 @@ public:
 	 *          until the microblaze has received the value, not until the component
 	 *          has received it. This will be fixed in a later version
 	 */
-	void write(const std::vector<std::bitset<width>> vals) {
-		write(new writeState<width>(vals.data(), vals.size()));
+	void write(const std::vector<T> vals) {
+		write_state(new writeState<width, T>(vals.data(), vals.size()));
 	}
 
 	/**
@@ -181,8 +240,8 @@ public:
 	 *          until the microblaze has received the value, not until the component
 	 *          has received it. This will be fixed in a later version
 	 */
-	void write(const std::bitset<width> vals[], unsigned int size) {
-		write(new writeState<width>(vals, size));
+	void write(const T vals[], unsigned int size) {
+		write_state(new writeState<width, T>(vals, size));
 	}
 
 	/**
@@ -205,7 +264,7 @@ public:
 	 *          has received it. This will be fixed in a later version
 	 */
 	void write(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
-	    std::vector<std::bitset<width>> vals = read_file<width>(file, delim, f);
+	    std::vector<T> vals = read_file<width, T>(file, delim, f);
 	    write(vals);
 	}
 
@@ -216,8 +275,8 @@ public:
 	 * @param val The bit vector to be written.
 	 * @return A #state representing this write.
 	 */
-	std::shared_ptr<writeState<width>> nbwrite(const std::bitset<width> val) {
-		return nbwrite(new writeState<width>(&val, 1));
+	std::shared_ptr<writeState<width, T>> nbwrite(const T val) {
+		return std::static_pointer_cast<writeState<width, T>>(nbwrite_state(new writeState<width, T>(&val, 1)));
 	}
 
 	/**
@@ -227,8 +286,8 @@ public:
      * @param vals The bit vectors to be written.
 	 * @return A #state representing this write.
 	 */
-	std::shared_ptr<writeState<width>> nbwrite(const std::vector<std::bitset<width>> vals) {
-		return nbwrite(new writeState<width>(vals.data(), vals.size()));
+	std::shared_ptr<writeState<width, T>> nbwrite(const std::vector<T> vals) {
+		return std::static_pointer_cast<writeState<width, T>>(nbwrite_state(new writeState<width, T>(vals.data(), vals.size())));
 	}
 
 	/**
@@ -239,8 +298,8 @@ public:
 	 * @param size The size of the bit vector array.
 	 * @return A #state representing this write.
 	 */
-	std::shared_ptr<writeState<width>> nbwrite(const std::bitset<width> vals[], unsigned int size) {
-		return nbwrite(new writeState<width>(vals, size));
+	std::shared_ptr<writeState<width, T>> nbwrite(const T vals[], unsigned int size) {
+		return std::static_pointer_cast<writeState<width, T>>(nbwrite_state(new writeState<width, T>(vals, size)));
 	}
 
     /**
@@ -254,8 +313,8 @@ public:
      * @return A #state representing this write.
      * @throws invalidArgument If the provided file does not exist.
      */
-	std::shared_ptr<writeState<width>> nbwrite(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
-        std::vector<std::bitset<width>> vals = read_file<width>(file, delim, f);
+	std::shared_ptr<writeState<width, T>> nbwrite(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
+        std::vector<T> vals = read_file<width, T>(file, delim, f);
         return nbwrite(vals);
     }
 
@@ -276,7 +335,7 @@ public:
 	 *          until the microblaze has received the value, not until the component
 	 *          has received it. This will be fixed in a later version
 	 */
-	friend inPort& operator <<(inPort &i, const std::bitset<width> val) {
+	friend inPort& operator <<(inPort &i, const T val) {
 		i.write(val);
 		return i;
 	}
@@ -298,7 +357,85 @@ public:
 	 *          until the microblaze has received the value, not until the component
 	 *          has received it. This will be fixed in a later version
 	 */
-	friend inPort& operator <<(inPort &i, const std::vector<std::bitset<width>> vals) {
+	friend inPort& operator <<(inPort &i, const std::vector<T> vals) {
+		i.write(vals);
+		return i;
+	}
+
+	/**
+	 * Writes a bit vector to a port typed on a native integer type and waits for the write to return.
+	 * @see #write(const T) for further details.
+	 * @param val The bit vector to be written.
+	 */
+	void write(const B val) {
+		write_state(new writeState<width, B>(&val, 1));
+	}
+
+	/**
+	 * Writes a vector of bit vectors to a port typed on a native integer type and waits for the write to return.
+	 * @see #write(const std::vector<T>) for further details.
+	 * @param vals The bit vectors to be written.
+	 */
+	void write(const std::vector<B> vals) {
+		write_state(new writeState<width, B>(vals.data(), vals.size()));
+	}
+
+	/**
+	 * Writes an array of bit vectors to a port typed on a native integer type and waits for the write to return.
+	 * @see #write(const T[], unsigned int) for further details.
+	 * @param vals The bit vectors to be written.
+	 * @param size The size of the bit vector array.
+	 */
+	void write(const B vals[], unsigned int size) {
+		write_state(new writeState<width, B>(vals, size));
+	}
+
+	/**
+	 * Writes a bit vector to a port typed on a native integer type without waiting for it to return.
+	 * @param val The bit vector to be written.
+	 * @return A #state representing this write.
+	 */
+	std::shared_ptr<writeState<width, B>> nbwrite(const B val) {
+		return std::static_pointer_cast<writeState<width, B>>(nbwrite_state(new writeState<width, B>(&val, 1)));
+	}
+
+	/**
+	 * Writes a vector of bit vectors to a port typed on a native integer type without waiting for it to return.
+	 * @param vals The bit vectors to be written.
+	 * @return A #state representing this write.
+	 */
+	std::shared_ptr<writeState<width, B>> nbwrite(const std::vector<B> vals) {
+		return std::static_pointer_cast<writeState<width, B>>(nbwrite_state(new writeState<width, B>(vals.data(), vals.size())));
+	}
+
+	/**
+	 * Writes an array of bit vectors to a port typed on a native integer type without waiting for it to return.
+	 * @param vals The bit vector array to be written.
+	 * @param size The size of the bit vector array.
+	 * @return A #state representing this write.
+	 */
+	std::shared_ptr<writeState<width, B>> nbwrite(const B vals[], unsigned int size) {
+		return std::static_pointer_cast<writeState<width, B>>(nbwrite_state(new writeState<width, B>(vals, size)));
+	}
+
+	/**
+	 * Writes a bit vector to a port typed on a native integer type and waits for the write to return.
+	 * @param i The port, the value should be written to.
+	 * @param val The bit vector to be written.
+	 * @return The port, the vector has been written to.
+	 */
+	friend inPort& operator <<(inPort &i, const B val) {
+		i.write(val);
+		return i;
+	}
+
+	/**
+	 * Writes a vector of bit vectors to a port typed on a native integer type and waits for the write to return.
+	 * @param i The port, the value should be written to.
+	 * @param vals The bit vectors to be written.
+	 * @return The port, the vectors have been written to.
+	 */
+	friend inPort& operator <<(inPort &i, const std::vector<B> vals) {
 		i.write(vals);
 		return i;
 	}
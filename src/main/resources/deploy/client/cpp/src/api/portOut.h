@@ -10,11 +10,14 @@
 
 #include <memory>
 #include <bitset>
+#include <stdint.h>
 
 #include "../utils.h"
 #include "../linkedQueue.h"
 #include "../io/state.h"
+#include "../trace.h"
 
+class abstractInPort;
 class abstractOutPort;
 /** List of all out-going ports of this driver. */
 extern abstractOutPort *outPorts[];
@@ -33,11 +36,16 @@ class abstractOutPort {
 friend void scheduleReader();
 friend void recv_data_unsafe(unsigned char pid, int val);
 friend void recv_data(unsigned char pid, int val[], int size);
+friend void recv_ack(unsigned char pid, unsigned int count);
+friend void connect_ports(abstractOutPort *src, abstractInPort *dst);
+friend void disconnect_ports(abstractOutPort *src);
 protected:
 	/** ID of the port. */
 	int pid;
 	/** Flag for polling ports. If true, port is set to polling mode (cf. documentation for more details). */
 	bool polling;
+	/** In-going port, to which received values are forwarded. NULL, if the port is not connected. */
+	abstractInPort *target;
 	/** The queue of read tasks to be performed by the port. */
 	std::shared_ptr<LinkedQueue<abstractReadState>> readTaskQueue;
 	/** The queue of values that have been forwarded, but not yet read. */
@@ -47,29 +55,6 @@ protected:
 	std::mutex port_mutex;
 	/** Condition variable, waiting for the task queue to get empty. */
 	std::condition_variable task_empty;
-public:
-	/**
-	 * Constructor for unparameterised out-going ports, initialising all queues and parameters.
-	 * @param pid ID of the port.
-	 * @param polling Flag for polling ports. If true, port is set to polling mode (cf. documentation for more details).
-	 */
-	abstractOutPort(int pid, bool polling) : pid(pid), polling(polling) {
-		outPorts[pid] = this;
-
-		readValueQueue = std::shared_ptr<LinkedQueue<int>>(new LinkedQueue<int>());
-		readTaskQueue  = std::shared_ptr<LinkedQueue<abstractReadState>>(new LinkedQueue<abstractReadState>());
-	}
-	virtual ~abstractOutPort() { }
-};
-
-/**
- * An abstract representation of an out-going AXI-Stream port.
- * Instances of this class represent out-going ports of IPCores.
- * Communication with a core should be handled through these ports.
- */
-template <int width>
-class outPort : public abstractOutPort {
-protected:
 
 	/**
 	 * Underlying read operation, called by more usable read methods.
@@ -78,12 +63,14 @@ protected:
 	 * the semantics of a non-blocking read, the difference in runtime
 	 * should be negligible, even for larger read operations.
 	 * @param state #state of the read operation to be executed.
+	 * @return Shared pointer to the #state
 	 */
-	void read(readState<width> *state) {
-		std::shared_ptr<readState<width>> s(state);
+	std::shared_ptr<abstractReadState> read_state(abstractReadState *state) {
+		std::shared_ptr<abstractReadState> s(state);
 
 		// acquire port lock
 		std::unique_lock<std::mutex> lock(port_mutex);
+		TRACE_EVENT("read", pid, s->total());
 
 		// send a poll request for the read values to the board,
 		// either to fill the task or re-fill the queue
@@ -100,11 +87,13 @@ protected:
 				break;
 			}
 			// otherwise, take a value, update the state and do another iteration
-			s->store(*readValueQueue->take());
+			s->store(readValueQueue->take().get(), 1);
 		}
 
 		// if there are still unfinished tasks, wait until all have been processed
 		if(! readTaskQueue->empty()) task_empty.wait(lock);
+
+		return s;
 	}
 
 	/**
@@ -116,11 +105,12 @@ protected:
 	 * @param state #state of the read operation to be executed.
 	 * @return Shared pointer to the #state
 	 */
-	std::shared_ptr<readState<width>> nbread(readState<width> *state) {
-		std::shared_ptr<readState<width>> s(state);
+	std::shared_ptr<abstractReadState> nbread_state(abstractReadState *state) {
+		std::shared_ptr<abstractReadState> s(state);
 
 		// acquire port lock
 		std::unique_lock<std::mutex> lock(port_mutex);
+		TRACE_EVENT("read", pid, s->total());
 
 		// send a poll request for the read values to the board,
 		// either to fill the task or re-fill the queue
@@ -139,30 +129,95 @@ protected:
 				return s;
 			}
 			// otherwise, take a value, update the state and do another iteration
-			s->store(*readValueQueue->take());
+			s->store(readValueQueue->take().get(), 1);
 		}
 
 		return s;
 	}
 
+public:
+	/** Bitwidth of the port. */
+	const int bitwidth;
+
+	/**
+	 * Constructor for unparameterised out-going ports, initialising all queues and parameters.
+	 * @param pid ID of the port.
+	 * @param width Bitwidth of the port.
+	 * @param polling Flag for polling ports. If true, port is set to polling mode (cf. documentation for more details).
+	 */
+	abstractOutPort(int pid, int width, bool polling) : pid(pid), polling(polling), target(NULL), bitwidth(width) {
+		outPorts[pid] = this;
+
+		readValueQueue = std::shared_ptr<LinkedQueue<int>>(new LinkedQueue<int>());
+		readTaskQueue  = std::shared_ptr<LinkedQueue<abstractReadState>>(new LinkedQueue<abstractReadState>());
+	}
+	virtual ~abstractOutPort() { }
+
+	/**
+	 * Returns the size of a single value in its raw memory representation.
+	 * @see #read_raw for the raw memory representation of values.
+	 * @return Size of a value in bytes.
+	 */
+	virtual unsigned int raw_size() = 0;
+
+	/**
+	 * Reads values from this port into their raw memory representation.
+	 * Values of ports typed on a native integer type are stored as an array of this type.
+	 * Values of ports typed on bitsets are stored as 32-bit integers, several per value,
+	 * starting with the most significant one.
+	 * @param vals Memory reserved for the values to be read.
+	 * @param size Number of values to be read.
+	 * @param block If true, waits for the read to return.
+	 * @return A #state representing this read.
+	 */
+	virtual std::shared_ptr<abstractReadState> read_raw(void *vals, unsigned int size, bool block) = 0;
+};
+
+/**
+ * An abstract representation of an out-going AXI-Stream port.
+ * Instances of this class represent out-going ports of IPCores.
+ * Communication with a core should be handled through these ports.
+ *
+ * Values are either represented by bitsets of the port width or, for narrow ports,
+ * by native unsigned integer types. Native values are passed to the wire format
+ * without bitwise conversion.
+ * @tparam width Bitwidth of the port.
+ * @tparam T Type representing a single value. Either a bitset of the bitwidth
+ *           or an unsigned integer type, which is at least as wide as the bitwidth.
+ */
+template <int width, class T = std::bitset<width> >
+class outPort : public abstractOutPort {
+private:
+	/** Bitset of the port width, if values are represented by a native integer type. */
+	typedef typename bitsetAlternative<width, T>::type B;
+
 public:
 	/**
 	 * Constructor for out-going ports, initialising all queues and parameters.
 	 * @param pid ID of the port.
 	 * @param polling Flag for polling ports. If true, port is set to polling mode (cf. documentation for more details).
 	 */
-	outPort(int pid, bool polling) : abstractOutPort(pid, polling) { }
+	outPort(int pid, bool polling) : abstractOutPort(pid, width, polling) { }
 	~outPort() { }
 
+	unsigned int raw_size() {
+		return raw_value_size<width>((T*)NULL);
+	}
+
+	std::shared_ptr<abstractReadState> read_raw(void *vals, unsigned int size, bool block) {
+		abstractReadState *s = raw_read_state<width>(vals, size, (T*)NULL);
+		return block ? read_state(s) : nbread_state(s);
+	}
+
 	/**
 	 * Reads a single value from this port.
 	 * This is a blocking read, meaning that the reading program will wait until a value is returned.
 	 * @return The read value.
 	 * @throws readException if the read failed.
 	 */
-	std::bitset<width> read() {
-		std::bitset<width> val;
-		read(new readState<width>(&val, 1));
+	T read() {
+		T val;
+		read_state(new readState<width, T>(&val, 1));
 		return val;
 	}
 
@@ -172,8 +227,8 @@ public:
 	 * @param val Variable, where the read value should be stored
 	 * @throws readException if the read failed.
 	 */
-	void read(std::bitset<width> &val) {
-		read(new readState<width>(&val, 1));
+	void read(T &val) {
+		read_state(new readState<width, T>(&val, 1));
 	}
 
 	/**
@@ -182,8 +237,8 @@ public:
 	 * @param vals The vector, into which the values are stored.
 	 * @throws readException if the read failed.
 	 */
-	void read(std::vector<std::bitset<width>> &vals) {
-		read(new readState<width>(vals.data(), vals.size()));
+	void read(std::vector<T> &vals) {
+		read_state(new readState<width, T>(vals.data(), vals.size()));
 	}
 
 	/**
@@ -193,8 +248,8 @@ public:
 	 * @param size The number of values that should be read and the size of the array.
 	 * @throws readException if the read failed.
 	 */
-	void read(std::bitset<width> vals[], unsigned int size) {
-		read(new readState<width>(vals, size));
+	void read(T vals[], unsigned int size) {
+		read_state(new readState<width, T>(vals, size));
 	}
 
     /**
@@ -209,9 +264,9 @@ public:
      * @throws readException if the read failed.
      */
 	void read(int count, const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
-	    std::vector<std::bitset<width>> vals(count);
+	    std::vector<T> vals(count);
 	    read(vals);
-	    write_file<width>(file, delim, f, vals);
+	    write_file<width, T>(file, delim, f, vals);
 	}
 
 	/**
@@ -220,8 +275,8 @@ public:
 	 * @param val Variable, where the read value should be stored
 	 * @return A #state representing this read.
 	 */
-	std::shared_ptr<readState<width>> nbread(std::bitset<width> &val) {
-		return nbread(new readState<width>(&val, 1));
+	std::shared_ptr<readState<width, T>> nbread(T &val) {
+		return std::static_pointer_cast<readState<width, T>>(nbread_state(new readState<width, T>(&val, 1)));
 	}
 
 	/**
@@ -230,8 +285,8 @@ public:
 	 * @param vals The vector, into which the values are stored.
 	 * @return A #state representing this read.
 	 */
-	std::shared_ptr<readState<width>> nbread(std::vector<std::bitset<width>> &vals) {
-		return nbread(new readState<width>(vals.data(), vals.size()));
+	std::shared_ptr<readState<width, T>> nbread(std::vector<T> &vals) {
+		return std::static_pointer_cast<readState<width, T>>(nbread_state(new readState<width, T>(vals.data(), vals.size())));
 	}
 
 	/**
@@ -241,8 +296,8 @@ public:
 	 * @param size The number of values that should be read and the size of the array.
 	 * @return A #state representing this read.
 	 */
-	std::shared_ptr<readState<width>> nbread(std::bitset<width> vals[], unsigned int size) {
-		return nbread(new readState<width>(vals, size));
+	std::shared_ptr<readState<width, T>> nbread(T vals[], unsigned int size) {
+		return std::static_pointer_cast<readState<width, T>>(nbread_state(new readState<width, T>(vals, size)));
 	}
 
 	/**
@@ -254,7 +309,7 @@ public:
      *         Returning the port allows concatenating stream operations.
 	 * @throws readException if the read failed.
 	 */
-	friend outPort& operator >>(outPort &o, std::bitset<width> &val) {
+	friend outPort& operator >>(outPort &o, T &val) {
 		o.read(val);
 		return o;
 	}
@@ -267,7 +322,91 @@ public:
 	 *         Returning the port allows concatenating stream operations.
 	 * @throws readException if the read failed.
 	 */
-	friend outPort& operator >>(outPort &o, std::vector<std::bitset<width>> &vals) {
+	friend outPort& operator >>(outPort &o, std::vector<T> &vals) {
+		o.read(vals);
+		return o;
+	}
+
+	/**
+	 * Reads a single value from a port typed on a native integer type into a bit vector.
+	 * This is a blocking read, meaning that the reading program will wait until a value is returned.
+	 * @param val Variable, where the read value should be stored
+	 * @throws readException if the read failed.
+	 */
+	void read(B &val) {
+		read_state(new readState<width, B>(&val, 1));
+	}
+
+	/**
+	 * Reads several values from a port typed on a native integer type into a vector of bit vectors.
+	 * This is a blocking read, meaning that the reading program will wait until a value is returned.
+	 * @param vals The vector, into which the values are stored.
+	 * @throws readException if the read failed.
+	 */
+	void read(std::vector<B> &vals) {
+		read_state(new readState<width, B>(vals.data(), vals.size()));
+	}
+
+	/**
+	 * Reads several values from a port typed on a native integer type into an array of bit vectors.
+	 * This is a blocking read, meaning that the reading program will wait until a value is returned.
+	 * @param vals The array, into which the values are stored.
+	 * @param size The number of values that should be read and the size of the array.
+	 * @throws readException if the read failed.
+	 */
+	void read(B vals[], unsigned int size) {
+		read_state(new readState<width, B>(vals, size));
+	}
+
+	/**
+	 * Reads a single value from a port typed on a native integer type into a bit vector.
+	 * This is a non-blocking read, meaning that the reading program does not wait for a value to be read.
+	 * @param val Variable, where the read value should be stored
+	 * @return A #state representing this read.
+	 */
+	std::shared_ptr<readState<width, B>> nbread(B &val) {
+		return std::static_pointer_cast<readState<width, B>>(nbread_state(new readState<width, B>(&val, 1)));
+	}
+
+	/**
+	 * Reads several values from a port typed on a native integer type into a vector of bit vectors.
+	 * This is a non-blocking read, meaning that the reading program does not wait for a value to be read.
+	 * @param vals The vector, into which the values are stored.
+	 * @return A #state representing this read.
+	 */
+	std::shared_ptr<readState<width, B>> nbread(std::vector<B> &vals) {
+		return std::static_pointer_cast<readState<width, B>>(nbread_state(new readState<width, B>(vals.data(), vals.size())));
+	}
+
+	/**
+	 * Reads several values from a port typed on a native integer type into an array of bit vectors.
+	 * This is a non-blocking read, meaning that the reading program does not wait for a value to be read.
+	 * @param vals The array, into which the values are stored.
+	 * @param size The number of values that should be read and the size of the array.
+	 * @return A #state representing this read.
+	 */
+	std::shared_ptr<readState<width, B>> nbread(B vals[], unsigned int size) {
+		return std::static_pointer_cast<readState<width, B>>(nbread_state(new readState<width, B>(vals, size)));
+	}
+
+	/**
+	 * Reads a single value from a port typed on a native integer type into a bit vector.
+	 * @param o Port, where the value should be read from.
+	 * @param val Variable, where the read value should be stored.
+	 * @return The port, the value has been read from.
+	 */
+	friend outPort& operator >>(outPort &o, B &val) {
+		o.read(val);
+		return o;
+	}
+
+	/**
+	 * Reads a vector of values from a port typed on a native integer type into bit vectors.
+	 * @param o Port, where the values should be read from.
+	 * @param vals The vector, where the read values should be stored.
+	 * @return The port, the values have been read from.
+	 */
+	friend outPort& operator >>(outPort &o, std::vector<B> &vals) {
 		o.read(vals);
 		return o;
 	}
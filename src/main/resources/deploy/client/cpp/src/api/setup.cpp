@@ -6,32 +6,55 @@
 #include "setup.h"
 #include "../logger.h"
 #include "../io/io.h"
+#include "../trace.h"
 
 #include <thread>
 
 std::thread *writerThread;
 std::thread *readerThread;
 
+/** Path of the capture file. Empty, if traffic should not be recorded. */
+static std::string captureFile;
+
 /**
  * Starts writer and reader threads
  */
 static void startThreads() {
+	// wrap the medium, if traffic should be recorded
+	if(!captureFile.empty()) intrfc = new recorder(intrfc, captureFile.c_str());
+
 	writerThread = new std::thread(scheduleWriter);
 	readerThread = new std::thread(scheduleReader);
 }
 
+#if defined(UART_DEVICE)
+void startup() {
+	intrfc = new uart(UART_DEVICE, UART_BAUDRATE);
+	startThreads();
+}
+
+void startup(std::string address) {
+	intrfc = new uart(address.c_str(), UART_BAUDRATE);
+	startThreads();
+}
+#else
 #ifdef IP
 void startup() {
 	intrfc = new ethernet(IP, PORT);
 	startThreads();
 }
-#else
-void startup(std::string ip) {
-	intrfc = new ethernet(ip.c_str(), PORT);
+#endif
+
+void startup(std::string address) {
+	intrfc = new ethernet(address.c_str(), PORT);
 	startThreads();
 }
 #endif
 
+void record(std::string file) {
+	captureFile = file;
+}
+
 void shutdownWriteLoop() {
 	// acquire writer lock
     std::unique_lock<std::mutex> lock(writer_mutex);
@@ -49,6 +72,18 @@ void shutdown() {
 	shutdownWriteLoop();
 	writerThread->join(); writerThread = NULL;
 	readerThread->join(); readerThread = NULL;
+
+	// complete the capture file
+	if(!captureFile.empty()) {
+		delete intrfc;
+		intrfc = NULL;
+	}
+
+#if TRACE
+	// export recorded trace events
+	if(trace_export(TRACE_FILE)) logger_host << INFO << "exported trace events to " << TRACE_FILE << std::endl;
+	else logger_host << ERROR << "failed to export trace events to " << TRACE_FILE << std::endl;
+#endif
 }
 
 
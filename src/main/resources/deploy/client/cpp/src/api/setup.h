@@ -13,19 +13,33 @@
 
 /**
  * Starts up the client-side driver by starting
- * writer and reader threads and setting up ethernet-specific
- * configuration.
+ * writer and reader threads and setting up the medium-specific
+ * configuration of the board description.
  */
-// TODO Currently only considers Ethernet.
-// Other mediums should be supported from here already as well, resulting in different startup methods.
-#ifdef IP
+#if defined(IP) || defined(UART_DEVICE)
 void startup();
-#else
-void startup(std::string ip);
 #endif
 
+/**
+ * Starts up the client-side driver for the board with the given address.
+ * For Ethernet, this is the ip address of the board. If the address is fixed by the board description,
+ * the provided address overrides it. This allows driving one of several boards with the same board description.
+ * For UART, this is the serial device, the board is attached with.
+ * @param address IP address or serial device of the board.
+ */
+void startup(std::string address);
+
+/**
+ * Records all traffic between host and board to a capture file.
+ * Has to be called before #startup. The capture can be replayed afterwards
+ * using the replay tool, e.g. for performance regression tests without a board.
+ * @param file Path of the capture file.
+ */
+void record(std::string file);
+
 /**
  * Shuts down the writer and reader threads.
+ * If traffic is recorded, the capture file is completed afterwards.
  */
 void shutdown();
 
@@ -0,0 +1,136 @@
+/**
+ * Describes the format of wire-traffic capture files.
+ *
+ * A capture file starts with the magic string "LOOPYCAP" followed by a single
+ * version byte. Afterwards, an arbitrary number of records follows. Each record consists of
+ *  - a direction byte (#CAPTURE_TO_BOARD or #CAPTURE_TO_HOST),
+ *  - the time since the previous record in microseconds (variable-length encoded),
+ *  - the number of 32-bit values of the record (variable-length encoded) and
+ *  - the 32-bit values in host byte order, exactly as they were written to or read from the medium.
+ *
+ * Variable-length values are encoded with 7 bits per byte, least significant group first.
+ * The most significant bit of a byte marks, that another byte follows.
+ *
+ * This header does not depend on any generated files, so that tools working
+ * with capture files can be built without a generated driver.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef CAPTURE_H_
+#define CAPTURE_H_
+
+#include <cstdio>
+#include <istream>
+#include <ostream>
+#include <string>
+#include <vector>
+
+/** Magic string at the beginning of each capture file. */
+#define CAPTURE_MAGIC "LOOPYCAP"
+/** Version of the capture format. */
+#define CAPTURE_VERSION 1
+
+/** Direction of records sent from the host to the board. */
+#define CAPTURE_TO_BOARD 0
+/** Direction of records sent from the board to the host. */
+#define CAPTURE_TO_HOST  1
+
+/** A single record of a capture file. */
+struct captureRecord {
+	/** Direction of the record. */
+	unsigned char dir;
+	/** Time since the previous record in microseconds. */
+	unsigned long long delta;
+	/** The transmitted 32-bit values. */
+	std::vector<int> vals;
+};
+
+/**
+ * Writes a variable-length encoded value to a stream.
+ * @param os The stream to write to.
+ * @param val The value to be written.
+ */
+inline void capture_write_varint(std::ostream &os, unsigned long long val) {
+	while(val >= 0x80) {
+		os.put((char)((val & 0x7f) | 0x80));
+		val >>= 7;
+	}
+	os.put((char)val);
+}
+
+/**
+ * Reads a variable-length encoded value from a stream.
+ * @param is The stream to read from.
+ * @param val Variable, where the read value is stored.
+ * @return true if successful, false otherwise.
+ */
+inline bool capture_read_varint(std::istream &is, unsigned long long &val) {
+	val = 0;
+	for(unsigned int shift = 0; shift < 64; shift += 7) {
+		int c = is.get();
+		if(c == EOF) return false;
+
+		val |= (unsigned long long)(c & 0x7f) << shift;
+		if(!(c & 0x80)) return true;
+	}
+	return false;
+}
+
+/**
+ * Writes the header of a capture file.
+ * @param os The stream to write to.
+ */
+inline void capture_write_header(std::ostream &os) {
+	os.write(CAPTURE_MAGIC, sizeof(CAPTURE_MAGIC) - 1);
+	os.put((char)CAPTURE_VERSION);
+}
+
+/**
+ * Reads and checks the header of a capture file.
+ * @param is The stream to read from.
+ * @return true if the header is valid, false otherwise.
+ */
+inline bool capture_read_header(std::istream &is) {
+	char magic[sizeof(CAPTURE_MAGIC)] = { 0 };
+	is.read(magic, sizeof(CAPTURE_MAGIC) - 1);
+	if(!is || std::string(magic) != CAPTURE_MAGIC) return false;
+
+	return is.get() == CAPTURE_VERSION;
+}
+
+/**
+ * Writes a single record to a capture file.
+ * @param os The stream to write to.
+ * @param rec The record to be written.
+ */
+inline void capture_write_record(std::ostream &os, const captureRecord &rec) {
+	os.put((char)rec.dir);
+	capture_write_varint(os, rec.delta);
+	capture_write_varint(os, rec.vals.size());
+	os.write((const char*)rec.vals.data(), rec.vals.size() * sizeof(int));
+}
+
+/**
+ * Reads a single record from a capture file.
+ * @param is The stream to read from.
+ * @param rec Record, where the read values are stored.
+ * @return true if successful, false at the end of the file or for a truncated record.
+ */
+inline bool capture_read_record(std::istream &is, captureRecord &rec) {
+	int dir = is.get();
+	if(dir == EOF) return false;
+	rec.dir = dir;
+
+	unsigned long long size;
+	if(!capture_read_varint(is, rec.delta)) return false;
+	if(!capture_read_varint(is, size)) return false;
+
+	rec.vals.resize(size);
+	is.read((char*)rec.vals.data(), size * sizeof(int));
+
+	return (bool)is;
+}
+
+#endif /* CAPTURE_H_ */
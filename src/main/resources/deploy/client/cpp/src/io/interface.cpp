@@ -16,6 +16,8 @@
 
 #include <netdb.h>
 #include <errno.h>
+#include <fcntl.h>
+#include <termios.h>
 #include <sys/types.h>
 #include <sys/socket.h>
 #include <arpa/inet.h>
@@ -222,26 +224,222 @@ bool ethernet::waitForData(unsigned int timeout, unsigned int utimeout) {
 	//	if(n > 0) printf("\ngot a new socket!!!");
 }
 
-//uart::uart() {
-//	setup();
-//}
-//
-//uart::~uart() {
-//	teardown();
-//}
-//
-//bool uart::send(int val) {
-//	return false;
-//}
-//
-//bool uart::send(int val[], int size) {
-//	return false;
-//}
-//
-//void uart::setup() {
-//	printf("\nsetup uart");
-//}
-//
-//void uart::teardown() {
-//	printf("\nteardown uart");
-//}
+recorder::recorder(interface *medium, const char *file) : medium(medium),
+		capture(file, std::ofstream::out | std::ofstream::binary | std::ofstream::trunc) {
+
+	if(!capture.is_open()) throw mediumException(std::string("failed to open capture file ") + file);
+
+	logger_host << INFO << "recording medium traffic to " << file << std::endl;
+
+	capture_write_header(capture);
+	last = std::chrono::steady_clock::now();
+
+	pending.dir = CAPTURE_TO_HOST;
+}
+
+recorder::~recorder() {
+	std::unique_lock<std::mutex> lock(capture_mutex);
+
+	flush_pending();
+	capture.close();
+
+	delete medium;
+}
+
+void recorder::write_record(captureRecord &rec, std::chrono::steady_clock::time_point time) {
+	rec.delta = std::chrono::duration_cast<std::chrono::microseconds>(time - last).count();
+	last = time;
+
+	capture_write_record(capture, rec);
+}
+
+void recorder::flush_pending() {
+	if(pending.vals.empty()) return;
+
+	write_record(pending, pending_time);
+	pending.vals.clear();
+}
+
+void recorder::send(int val) {
+	send(&val, 1);
+}
+
+void recorder::send(std::vector<int> val) {
+	send(val.data(), val.size());
+}
+
+void recorder::send(int val[], int size) {
+	{
+		std::unique_lock<std::mutex> lock(capture_mutex);
+
+		// received values precede this message
+		flush_pending();
+
+		// record the message before sending it, since its reply may be read right away
+		// (sending without the lock, so that a blocked send cannot stall the reader)
+		captureRecord rec;
+		rec.dir = CAPTURE_TO_BOARD;
+		rec.vals.assign(val, val + size);
+		write_record(rec, std::chrono::steady_clock::now());
+	}
+
+	medium->send(val, size);
+}
+
+void recorder::readInt(int *val) {
+	medium->readInt(val);
+
+	std::unique_lock<std::mutex> lock(capture_mutex);
+
+	// values are read one by one, but are gathered into a single record
+	// as long as they arrive in quick succession
+	std::chrono::steady_clock::time_point now = std::chrono::steady_clock::now();
+	if(!pending.vals.empty() && now - pending_time > std::chrono::microseconds(100)) flush_pending();
+
+	if(pending.vals.empty()) pending_time = now;
+	pending.vals.push_back(*val);
+}
+
+bool recorder::waitForData(unsigned int timeout, unsigned int utimeout) {
+	return medium->waitForData(timeout, utimeout);
+}
+
+uart::uart(const char *device, unsigned int baudrate) :
+		fd(-1), device(device), baudrate(baudrate) {
+
+	setup();
+}
+
+uart::~uart() {
+	teardown();
+}
+
+void uart::setup() {
+
+	struct termios tio;
+	speed_t speed;
+
+	logger_host << INFO << "setting up serial device " << device << " @" << baudrate << " baud ...";
+
+	switch(baudrate) {
+	case 9600:   speed = B9600;   break;
+	case 19200:  speed = B19200;  break;
+	case 38400:  speed = B38400;  break;
+	case 57600:  speed = B57600;  break;
+	case 115200: speed = B115200; break;
+	case 230400: speed = B230400; break;
+	case 460800: speed = B460800; break;
+	case 921600: speed = B921600; break;
+	default: throw mediumException("unsupported baud rate " + std::to_string(baudrate));
+	}
+
+	fd = open(device, O_RDWR | O_NOCTTY);
+	if(-1 == fd) throw mediumException(std::string("failed to open serial device: ") +
+			strerror(errno) + " (" + std::to_string(errno) + ")");
+
+	// raw 8N1 communication without flow control, as provided by the UART of the board
+	if(0 != tcgetattr(fd, &tio)) {
+		close(fd);
+		throw mediumException(std::string("failed to read serial device settings: ") +
+				strerror(errno) + " (" + std::to_string(errno) + ")");
+	}
+
+	cfmakeraw(&tio);
+	tio.c_cflag |= CLOCAL | CREAD;
+	tio.c_cflag &= ~(CSTOPB | CRTSCTS);
+	tio.c_cc[VMIN]  = 1;
+	tio.c_cc[VTIME] = 0;
+	cfsetispeed(&tio, speed);
+	cfsetospeed(&tio, speed);
+
+	if(0 != tcsetattr(fd, TCSANOW, &tio)) {
+		close(fd);
+		throw mediumException(std::string("failed to configure serial device: ") +
+				strerror(errno) + " (" + std::to_string(errno) + ")");
+	}
+
+	// discard anything received before the driver was started
+	tcflush(fd, TCIOFLUSH);
+
+	logger_host << " done" << std::endl;
+}
+
+void uart::teardown() {
+	if(close(fd) != 0) throw mediumException(
+			std::string("failed to close serial device: ") +
+			strerror(errno) + " (" + std::to_string(errno) + ")");
+}
+
+void uart::send(int val) {
+	send(&val, 1);
+}
+
+void uart::send(std::vector<int> val) {
+	// use array method
+	send(val.data(), val.size());
+}
+
+void uart::send(int buf[], int size) {
+	// print debug message
+	logger_host << FINE << "sending package of size " << size << "with values: ";
+	int i;
+	for(i = 0; i < size; i++) {
+		logger_host << buf[i];
+		if(i < size-1) logger_host << ", ";
+	}
+	logger_host << " ...";
+
+	// most significant byte first
+	std::vector<unsigned char> bytes(size*4);
+	for(i = 0; i < size; i++)
+		for(int j = 0; j < 4; j++) bytes[i*4+j] = (unsigned int)buf[i] >> ((3-j)*8);
+
+	// write data (serial devices may accept only parts of it at once)
+	size_t sent = 0;
+	while(sent < bytes.size()) {
+		ssize_t n = write(fd, bytes.data() + sent, bytes.size() - sent);
+		if(n < 0) throw mediumException(
+				std::string("failed writing to serial device: ") +
+				strerror(errno) + " (" + std::to_string(errno) + ")");
+		sent += n;
+	}
+
+	// print finishing debug message
+	logger_host << " done" << std::endl;
+}
+
+void uart::readInt(int *val) {
+	unsigned char bytes[4];
+	int i = 0;
+
+	while(i < 4) {
+		ssize_t n = read(fd, bytes + i, 4-i);
+		if(n < 0) throw mediumException(
+			std::string("failed reading from serial device: ") +
+			strerror(errno) + " (" + std::to_string(errno) + ")");
+		if(n == 0) throw mediumException("serial device has been closed");
+		i += n;
+	}
+
+	// most significant byte first
+	*val = (bytes[0] << 24) | (bytes[1] << 16) | (bytes[2] << 8) | bytes[3];
+}
+
+bool uart::waitForData(unsigned int timeout, unsigned int utimeout) {
+
+	struct timeval tv;
+	fd_set readfds;
+
+	tv.tv_sec = timeout;
+	tv.tv_usec = utimeout;
+
+	FD_ZERO(&readfds);
+	FD_SET(fd, &readfds);
+
+	// wait for the timeout or data
+	if(select(fd+1, &readfds, NULL, NULL, &tv) < 0) throw mediumException(
+			std::string("failed while waiting for incoming messages: ") +
+			strerror(errno) + " (" + std::to_string(errno) + ")");
+
+	return FD_ISSET(fd, &readfds);
+}
@@ -13,6 +13,11 @@
 #include <arpa/inet.h>
 
 #include <vector>
+#include <chrono>
+#include <fstream>
+#include <mutex>
+
+#include "capture.h"
 
 /**
  * An abstract representation of a communication medium.
@@ -154,28 +159,95 @@ public:
 	 */
 	bool waitForData(unsigned int timeout, unsigned int utimeout);
 };
-//
-///**
-// * An abstract representation of a uart medium.
-// * Encapsulates communication with a board attached with uart/usb.
-// */
-//class uart : public interface {
-//public:
-//	// constructor & destructor
-//	/**
-//	 * Constructor for an UART/USB-type communication medium.
-//	 */
-//	uart();
-//	~uart();
-//
-//	// communication
-//	bool send(int val);
-//	bool send(int val[], int size);
-//	bool send(std::vector<int> val);
-//private:
-//	// connection management
-//	void setup();
-//	void teardown();
-//};
+
+/**
+ * A communication medium recording all traffic of another medium.
+ * All values sent to and read from the wrapped medium are written to a capture file
+ * together with their timestamps (cf. capture.h for the file format).
+ * The capture can be replayed afterwards using the replay tool.
+ */
+class recorder : public interface {
+private:
+	/** The wrapped medium, which actually communicates with the board. */
+	interface *medium;
+	/** Stream of the capture file. */
+	std::ofstream capture;
+	/** Mutex for the capture file, since the medium is used by several threads. */
+	std::mutex capture_mutex;
+	/** Time of the last written record. */
+	std::chrono::steady_clock::time_point last;
+	/** Values read from the board, which have not been written to the capture file yet. */
+	captureRecord pending;
+	/** Time of the first pending value. */
+	std::chrono::steady_clock::time_point pending_time;
+
+// -------------------- connection management -----------------------------
+	/** The wrapped medium is already set up. */
+	void setup() { }
+	/** The wrapped medium is torn down on destruction. */
+	void teardown() { }
+
+	/**
+	 * Writes a record to the capture file. The capture lock has to be held.
+	 * @param rec The record to be written.
+	 * @param time Time of the record.
+	 */
+	void write_record(captureRecord &rec, std::chrono::steady_clock::time_point time);
+	/** Writes all pending values to the capture file. The capture lock has to be held. */
+	void flush_pending();
+public:
+// ---------------- constructor & destructor -------------------------
+	/**
+	 * Constructor for a recording communication medium.
+	 * @param medium The medium, whose traffic should be recorded.
+	 * @param file Path of the capture file.
+	 * @throws mediumException If the capture file cannot be opened.
+	 */
+	recorder(interface *medium, const char *file);
+	/** Writes pending values and deletes the wrapped medium. */
+	~recorder();
+
+// -------------------- communication -----------------------------
+	void send(int val);
+	void send(std::vector<int> val);
+	void send(int val[], int size);
+	void readInt(int *val);
+	bool waitForData(unsigned int timeout, unsigned int utimeout);
+};
+
+/**
+ * An abstract representation of a uart medium.
+ * Encapsulates communication with a board attached with uart/usb.
+ * Values are transferred most significant byte first.
+ */
+class uart : public interface {
+private:
+	int fd;
+	const char *device;
+	unsigned int baudrate;
+
+// -------------------- connection management -----------------------------
+	/** Opens the serial device and configures it for raw 8N1 communication. */
+	void setup();
+	/** Closes the serial device. */
+	void teardown();
+public:
+// ---------------- constructor & destructor -------------------------
+	/**
+	 * Constructor for an UART/USB-type communication medium.
+	 * @param device Path of the serial device, the board is attached with.
+	 * @param baudrate Baud rate of the UART of the board.
+	 * @throws mediumException If the device cannot be opened or the baud rate is not supported.
+	 */
+	uart(const char *device, unsigned int baudrate);
+	~uart();
+
+// -------------------- communication -----------------------------
+	void send(int val);
+	void send(std::vector<int> val);
+	void send(int val[], int size);
+	void readInt(int *val);
+	bool waitForData(unsigned int timeout, unsigned int utimeout);
+};
 
 #endif /* INTERFACE_H_ */
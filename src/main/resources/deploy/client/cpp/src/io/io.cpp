@@ -12,12 +12,17 @@
 #include "protocol.h"
 #include "../constants.h"
 #include "../logger.h"
+#include "../trace.h"
 
 #include <math.h>
 
 // exceptions
+#include <stdexcept>
 #include "../exceptions.h"
 
+// port connections
+#include "../api/connect.h"
+
 // communication interface
 interface *intrfc;
 
@@ -35,6 +40,9 @@ abstract_gpo *gpos [GPO_COUNT];
 
 bool is_active = true;
 
+// sizes of the board-side software queues of in-going ports
+static const unsigned int inPortWindow[] = IN_PORT_WINDOWS;
+
 std::vector<int> take(std::shared_ptr<LinkedQueue<abstractWriteState>> q, unsigned int count) {
 	std::vector<int> rslt;
 
@@ -114,8 +122,8 @@ void scheduleWriter() {
 			// skip the port, if it's task queue is empty
 			if(inPorts[i]->writeTaskQueue->empty()) continue;
 
-			// TODO this should be set individually for each port binding! not global
-			unsigned int size = QUEUE_SIZE_SW;
+			// the board accepts at most as many values, as fit into the software queue of the port
+			unsigned int size = inPortWindow[i];
 			unsigned int sendSize = std::min(size, proto->max_size());
 			// gather i values to be sent, where i the minimum of the maximal numbers of values
 			// receivable by the board and the maximal size of a message with the used protocol version
@@ -123,13 +131,16 @@ void scheduleWriter() {
 
 			// set the transit counter and write variable
 			*inPorts[i]->transit  = val.size();
+			 inPorts[i]->unacked  = val.size();
 
 			// append a header with the specified protocol
 			val = proto->encode_data(i, val);
+			TRACE_EVENT("encode", i, val.size());
 
 			// send the values
 			try {
 				intrfc->send(val);
+				TRACE_EVENT("send", i, val.size());
 			} catch (mediumException &e) {
 				while(!inPorts[i]->writeTaskQueue->empty()) {
 					std::shared_ptr<abstractWriteState> s = inPorts[i]->writeTaskQueue->take();
@@ -188,6 +199,7 @@ void send_poll(unsigned char pid, unsigned int count) {
 	std::vector<int> val = proto->encode_poll(pid, count);
 	try {
 		intrfc->send(val);
+		TRACE_EVENT("poll", pid, count);
 		} catch (mediumException &e) {
 		} catch (protocolException &e) {
 		}
@@ -213,12 +225,44 @@ void recv_data_unsafe(unsigned char pid, int val) {
 		std::shared_ptr<abstractReadState> s = outPorts[pid]->readTaskQueue->peek();
 		s->store(&val, 1);
 
-		if(s->finished()) outPorts[pid]->readTaskQueue->take();
+		if(s->finished()) {
+			outPorts[pid]->readTaskQueue->take();
+			TRACE_EVENT("read done", pid, s->total());
+		}
 	}
 
 	logger_host << " done" << std::endl;
 }
 
+/**
+ * forward read values to the in-going port connected to an out-going port.
+ * The port lock of the out-going port has to be held by the caller.
+ * @param dst The in-going port, to which values are forwarded.
+ * @param val Values to be forwarded.
+ * @param size Number of values to be forwarded.
+ */
+void forward_unsafe(abstractInPort *dst, const int val[], int size) {
+	if(size == 0) return;
+
+	logger_host << FINE << " forwarding values (count: " << size << ") to port " << dst->pid << std::endl;
+
+	// acquire the port lock of the target port
+	std::unique_lock<std::mutex> port_lock(dst->port_mutex);
+
+	// append the values as a new write task
+	dst->writeTaskQueue->put(std::shared_ptr<abstractWriteState>(new rawWriteState(val, size)));
+	TRACE_EVENT("forward", dst->pid, size);
+
+	// notify the writer, if the target port is ready
+	if(*dst->transit == 0) {
+		std::unique_lock<std::mutex> lock(writer_mutex);
+
+		// release the port lock, so that the writer can lock the port when waking up
+		port_lock.unlock();
+		can_write.notify_one();
+	}
+}
+
 void recv_data(unsigned char pid, int val[], int size) {
 
     logger_host << FINE << " locking port " << pid << " ...";
@@ -227,8 +271,15 @@ void recv_data(unsigned char pid, int val[], int size) {
 
 	// acquire the port lock
 	std::unique_lock<std::mutex> lock(outPorts[pid]->port_mutex);
+	TRACE_EVENT("data", pid, size);
 
 	logger_host << " done" << std::endl;
+
+	// if the port is connected, forward the values without waking the application
+	if(outPorts[pid]->target != NULL) {
+		forward_unsafe(outPorts[pid]->target, val, size);
+		return;
+	}
 	logger_host << FINE << " storing values (count: " << size << ") ..." << std::endl;
 
 	std::cout.flush();
@@ -240,6 +291,21 @@ void recv_data(unsigned char pid, int val[], int size) {
 	if(outPorts[pid]->readTaskQueue->empty()) outPorts[pid]->task_empty.notify_one();
 }
 
+/**
+ * Reduces the transit counter of a port by a number of acknowledged values.
+ * The board merges acknowledgments, so an acknowledgment may cover more values than
+ * are counted as in transit or be split into several messages. In the latter case,
+ * the port may already be marked as blocked. A blocked port is unblocked as soon as
+ * all of its values got acknowledged and otherwise stays blocked until the next poll.
+ * @param transit Transit counter of the acknowledged port.
+ * @param unacked Number of unacknowledged values of the port.
+ * @param count Number of acknowledged values.
+ */
+static void reduce_transit(int &transit, unsigned int &unacked, unsigned int count) {
+	unacked = count >= unacked ? 0 : unacked - count;
+	if(transit > 0 || unacked == 0) transit = unacked;
+}
+
 // acknowledge without locking or notifications
 void recv_ack_unsafe(unsigned char pid, unsigned int count) {
 
@@ -256,9 +322,10 @@ void recv_ack_unsafe(unsigned char pid, unsigned int count) {
 		std::shared_ptr<abstractWriteState> s = inPorts[pid]->writeTaskQueue->take();
 
 		// update count, transit counter and state
-		                 count -= (s->size - s->done);
-		*inPorts[pid]->transit -= (s->size - s->done);
-		               s->done  = s->size;
+		count -= (s->size - s->done);
+		reduce_transit(*inPorts[pid]->transit, inPorts[pid]->unacked, s->size - s->done);
+		s->done = s->size;
+		TRACE_EVENT("write done", pid, s->total());
 
 		// acknowledge further values
 		recv_ack_unsafe(pid, count);
@@ -267,7 +334,7 @@ void recv_ack_unsafe(unsigned char pid, unsigned int count) {
 		inPorts[pid]->writeTaskQueue->peek()->done += count;
 
 		// update transit counter
-		*inPorts[pid]->transit -= count;
+		reduce_transit(*inPorts[pid]->transit, inPorts[pid]->unacked, count);
 
 	}
 }
@@ -276,10 +343,15 @@ void recv_ack_unsafe(unsigned char pid, unsigned int count) {
 void recv_ack(unsigned char pid, unsigned int count) {
 	// acquire port lock
 	std::unique_lock<std::mutex> port_lock(inPorts[pid]->port_mutex);
+	TRACE_EVENT("ack", pid, count);
 
 	// acknowledge the data without recursive locking
 	recv_ack_unsafe(pid, count);
 
+	// if values are forwarded to this port from a polling port, request as many values as got acknowledged
+	abstractOutPort *source = inPorts[pid]->source;
+	if(source != NULL && source->polling && count > 0) send_poll(source->pid, count);
+
 	// if task queue is empty, notify the port cv and return
 	if(inPorts[pid]->writeTaskQueue->empty()) {
 		inPorts[pid]->task_empty.notify_one();
@@ -291,7 +363,11 @@ void recv_ack(unsigned char pid, unsigned int count) {
 	std::unique_lock<std::mutex> lock(writer_mutex);
 
 	// notify writer thread, if everything was acknowledged
-	if(*inPorts[pid]->transit == 0) can_write.notify_one();
+	if(*inPorts[pid]->transit == 0) {
+		// release the port lock, so that the writer can lock the port when waking up
+		port_lock.unlock();
+		can_write.notify_one();
+	}
 	// otherwise, set the transit counter to -1 to mark a blocked port
 	else *inPorts[pid]->transit = -1;
 }
@@ -303,8 +379,9 @@ void recv_poll(unsigned char pid) {
     // ignore the poll, if there are unacknowledged values in transit
     if(*inPorts[pid]->transit > 0) return;
 
-	// set transit counter to 0 to enable transmissions
+	// set transit counter to 0 to enable transmissions (values not acknowledged so far have been dropped by the board)
 	*inPorts[pid]->transit = 0;
+	 inPorts[pid]->unacked = 0;
 
 	// notify writer thread, if there are waiting tasks
 	if(!inPorts[pid]->writeTaskQueue->empty()) {
@@ -326,3 +403,46 @@ void recv_gpio(unsigned char gid, unsigned char val) {
 	// notify gpo condition variable
 	gpis[gid]->has_changed.notify_one();
 }
+
+void connect_ports(abstractOutPort *src, abstractInPort *dst) {
+	// acquire both port locks (always out-going before in-going port)
+	std::unique_lock<std::mutex> src_lock(src->port_mutex);
+	std::unique_lock<std::mutex> dst_lock(dst->port_mutex);
+
+	if(src->target != NULL) throw std::invalid_argument(
+			"out-going port " + std::to_string(src->pid) + " is already connected");
+	if(dst->source != NULL) throw std::invalid_argument(
+			"in-going port " + std::to_string(dst->pid) + " is already connected");
+	if(!src->readTaskQueue->empty()) throw std::invalid_argument(
+			"out-going port " + std::to_string(src->pid) + " has unfinished read tasks");
+
+	logger_host << INFO << "connecting out-going port " << src->pid << " to in-going port " << dst->pid << std::endl;
+
+	src->target = dst;
+	dst->source = src;
+
+	// move values already received at the out-going port
+	std::vector<int> vals;
+	while(!src->readValueQueue->empty()) vals.push_back(*src->readValueQueue->take());
+
+	// release the target lock, since it is re-acquired while forwarding
+	dst_lock.unlock();
+	forward_unsafe(dst, vals.data(), vals.size());
+
+	// request an initial window of values for polling ports, sized to the window of the in-going port
+	if(src->polling) send_poll(src->pid, inPortWindow[dst->pid]);
+}
+
+void disconnect_ports(abstractOutPort *src) {
+	std::unique_lock<std::mutex> src_lock(src->port_mutex);
+
+	// nothing to do, if the port is not connected
+	if(src->target == NULL) return;
+
+	std::unique_lock<std::mutex> dst_lock(src->target->port_mutex);
+
+	logger_host << INFO << "disconnecting out-going port " << src->pid << " from in-going port " << src->target->pid << std::endl;
+
+	src->target->source = NULL;
+	src->target = NULL;
+}
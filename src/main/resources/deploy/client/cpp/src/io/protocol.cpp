@@ -9,6 +9,7 @@
 // standard library
 #include <cmath>
 #include <stdio.h>
+#include <string.h>
 #include <iostream>
 
 // constants
@@ -27,6 +28,7 @@ protocol::protocol() {}
 // message types
 #define reset 0
 #define debug 7
+#define record 8
 #define data  9
 #define poll 10
 #define gpio 14
@@ -36,6 +38,48 @@ protocol::protocol() {}
 #define warning 8
 #define error  13
 
+/**
+ * Formats a binary log record of the board using the format string of its call site.
+ * Only integer conversions are supported, since the board sends raw integer arguments.
+ * Records of unknown call sites are printed raw.
+ * @param id Id of the log call site.
+ * @param args Raw arguments of the log record.
+ * @param argc Number of arguments.
+ * @return The formatted message.
+ */
+static std::string format_record(unsigned int id, const int *args, unsigned int argc) {
+	if(id >= BOARD_LOG_COUNT) {
+		std::string raw = "unknown log record " + std::to_string(id) + ":";
+		for(unsigned int i = 0; i < argc; i++) raw += " " + std::to_string(args[i]);
+		return raw;
+	}
+
+	std::string msg, conv;
+	const char *c = board_log_formats[id];
+	unsigned int arg = 0;
+	char buf[64];
+
+	while(*c != '\0') {
+		if(*c != '%') { msg += *c++; continue; }
+
+		// collect the conversion up to its conversion character
+		conv = *c++;
+		while(*c != '\0' && strchr("diouxXc%", *c) == NULL) conv += *c++;
+		if(*c == '\0') break;
+		conv += *c++;
+
+		if(conv == "%%") msg += '%';
+		// the generator only admits int conversions without wider length modifiers, so the argument is an int
+		else {
+			snprintf(buf, sizeof(buf), conv.c_str(), arg < argc ? args[arg] : 0);
+			msg += buf;
+			arg++;
+		}
+	}
+
+	return msg;
+}
+
 protocol_v1::protocol_v1() {}
 
 unsigned int protocol_v1::max_size() {
@@ -120,6 +164,28 @@ void protocol_v1::decode(int first) {
             logger_board << (severity)id << (char*)payload << std::endl;
         }
 
+        break;
+    case record: // This is a binary log record, which has to be formatted on this side.
+        if(size == 0) break;
+        else { // need a new scope here...
+
+            // the record consists of the call site id followed by the raw arguments
+            unsigned int i;
+            int payload[size];
+
+            for(i = 0; i < size; i++) {
+                try {
+                    if(intrfc->waitForData(0, 250000)) intrfc->readInt(payload + i);
+                } catch(mediumException &e) {
+                    logger_host << ERROR << e.what() << std::endl;
+                    intrfc->waitForData(0, 250000);
+                }
+            }
+
+            // stream severity to logger
+            logger_board << (severity)id << format_record(payload[0], payload + 1, size - 1) << std::endl;
+        }
+
         break;
 	case  data: // This is a blocking data package.
 		if(size == 0) break;
@@ -179,6 +245,8 @@ void protocol_v1::decode(int first) {
 				std::to_string(GPI_COUNT) + ")");
 		recv_gpio(id, size); break;
 	case ack: // This is an acknowledgment.
+		// The board merges acknowledgments of a port and piggy-backs them onto other messages.
+		// Consequently, an acknowledgment may cover several data messages.
 		if(id > IN_PORT_COUNT-1) throw protocolException(std::string("pid value (") +
 				std::to_string(id) + ") of received acknowledgment exceeded count of in-going ports (" +
 				std::to_string(IN_PORT_COUNT) + ")");
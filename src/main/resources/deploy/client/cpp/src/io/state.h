@@ -19,8 +19,6 @@
 
 #include "../logger.h"
 
-template <int width>
-class outPort;
 
 /**
  * Abstract representation of the state of an operation.
@@ -90,6 +88,18 @@ public:
 	unsigned int total() {
 		return size / intPerValue;
 	}
+
+	/**
+	 * Checks, if a call has failed.
+	 * @return true if the operation has failed, false otherwise.
+	 */
+	bool failed() { return fail; }
+
+	/**
+	 * Returns the message of the exception that caused a call to fail.
+	 * @return The message or an empty string, if the operation has not failed.
+	 */
+	const std::string &message() { return m; }
 };
 
 /**
@@ -125,6 +135,7 @@ public:
  * It is to be only used by the I/O threads which are independent of the actual bitwidth of a port.
  */
 class abstractReadState : public state {
+friend class abstractOutPort;
 friend void scheduleReader();
 friend void recv_data_unsafe(unsigned char pid, int val);
 private:
@@ -149,16 +160,170 @@ public:
 
 
 
+/**
+ * Write state for values, which are already represented by 32-bit integers in the wire format.
+ * Values are handed to the writer without any conversion. These states are used for
+ * values forwarded from an out-going port to an in-going port and for values
+ * written through the C interface.
+ */
+class rawWriteState : public abstractWriteState {
+private:
+	/** The 32-bit values to be written. */
+	std::vector<int> vals;
+
+	unsigned int peek(int val[], unsigned int count) {
+		unsigned int read = 0;
+
+		while(read < count && read + done < size) {
+			val[read] = vals[read + done];
+			read++;
+		}
+
+		return read;
+	}
+
+public:
+	/**
+	 * Constructor of the raw write state.
+	 * @param vals Array of 32-bit values to be written. Each value of the states bitwidth
+	 *             is represented by several 32-bit values, starting with the most significant one.
+	 * @param size Number of values (in the states bitwidth) to be written.
+	 * @param width Actual bitwidth of the state.
+	 */
+	rawWriteState(const int vals[], unsigned int size, int width = 32) :
+		abstractWriteState(size, width), vals(vals, vals + this->size) { }
+	~rawWriteState() { }
+};
+
+/**
+ * Read state for values, which are stored as 32-bit integers in the wire format.
+ * Each value of the states bitwidth is stored as several 32-bit values,
+ * starting with the most significant one. These states are used for
+ * values read through the C interface.
+ */
+class rawReadState : public abstractReadState {
+private:
+	/** Memory, where read 32-bit values should be stored. */
+	int *vals;
+
+	unsigned int store(int val[], unsigned int count) {
+		unsigned int put = 0;
+
+		while(put < count && put + done < size) {
+			vals[put + done] = val[put];
+			put++;
+		}
+
+		done = done + put;
+		return put;
+	}
+
+public:
+	/**
+	 * Constructor of the raw read state.
+	 * @param vals Memory reserved for the 32-bit values to be read.
+	 * @param size Number of values (in the states bitwidth) to be read.
+	 * @param width Actual bitwidth of the state.
+	 */
+	rawReadState(int vals[], unsigned int size, int width) : abstractReadState(size, width), vals(vals) { }
+	~rawReadState() { }
+};
+
+/**
+ * Extracts a 32-bit value for transmission from a value represented by a bitset.
+ * @param val The value represented by a bitset.
+ * @param i Index of the 32-bit value, starting with the most significant one.
+ * @param n Number of 32-bit values representing the value.
+ * @return The requested 32-bit value.
+ */
+template <size_t width>
+int value_word(const std::bitset<width> &val, unsigned int i, unsigned int n) {
+	unsigned int offset = (n - 1 - i) * (sizeof(int) * 8);
+	int rslt = 0;
+	for(unsigned int j = 0; j < (sizeof(int) * 8); j++) {
+		if(offset + j == val.size()) break;
+		else rslt += val[offset + j] << j;
+	}
+	return rslt;
+}
+
+/**
+ * Extracts a 32-bit value for transmission from a value represented by a native integer.
+ * @param val The value represented by an unsigned integer type.
+ * @param i Index of the 32-bit value, starting with the most significant one.
+ * @param n Number of 32-bit values representing the value.
+ * @return The requested 32-bit value.
+ */
+template <class T>
+int value_word(const T &val, unsigned int i, unsigned int n) {
+	return (int)((unsigned long long)val >> ((n - 1 - i) * (sizeof(int) * 8)));
+}
+
+/**
+ * Appends a received 32-bit value to a partially received value represented by a bitset.
+ * @param cur The partially received value, which is shifted by 32 bit.
+ * @param val The received 32-bit value.
+ */
+template <size_t width>
+void value_append(std::bitset<width> &cur, int val) {
+	// left shift current value
+	cur = cur << (sizeof(int) * 8);
+
+	// append next integer values
+	// looks dangerous, but the shift above implies, there are no collisions here...
+	cur |= (unsigned int)val;
+}
+
+/**
+ * Appends a received 32-bit value to a partially received value represented by a native integer.
+ * @param cur The partially received value, which is shifted by 32 bit.
+ * @param val The received 32-bit value.
+ */
+template <class T>
+void value_append(T &cur, int val) {
+	cur = (T)(((unsigned long long)cur << (sizeof(int) * 8)) | (unsigned int)val);
+}
+
+/**
+ * Selects the bitset type, which a port accepts in addition to its value type.
+ * Ports typed on native integers still read and write bitsets of their width,
+ * so that client code written for bitset ports keeps working.
+ * @tparam width Bitwidth of the port.
+ * @tparam T Type representing a single value of the port.
+ */
+template <int width, class T>
+struct bitsetAlternative {
+	/** Bitset of the port width. */
+	typedef std::bitset<width> type;
+};
+
+/**
+ * Ports typed on bitsets require no additional type.
+ * The placeholder type is never used, but avoids duplicate declarations of the bitset overloads.
+ * @tparam width Bitwidth of the port.
+ * @tparam w Bitwidth of the bitset, which equals the bitwidth of the port.
+ */
+template <int width, size_t w>
+struct bitsetAlternative<width, std::bitset<w> > {
+	/** Placeholder, which does not represent values. */
+	struct none { };
+	/** The placeholder type. */
+	typedef none type;
+};
+
 /**
  * Abstract representation of the state of a write operation.
  * These are used as return values for non-blocking calls and
  * allow users to check the progress of the call.
+ * @tparam width Bitwidth of the written values.
+ * @tparam T Type representing a single value. Either a bitset of the bitwidth
+ *           or an unsigned integer type, which is at least as wide as the bitwidth.
  */
-template <int width>
+template <int width, class T = std::bitset<width> >
 class writeState : public abstractWriteState {
 private:
 	/** The values (in the states bitwidth) to be written. */
-	std::bitset<width> *vals;
+	std::vector<T> vals;
 
 	// this is basically the exposed method for reading from the value queue!
 	unsigned int peek(int val[], unsigned int count) {
@@ -166,44 +331,20 @@ private:
 
 		while(read < count) {
 			if(read + done == size) break;
-			std::deque<int> currentValue = convert(vals[int(floor((read + done) / intPerValue))]);
-			val[read] = currentValue[(read + done) % intPerValue];
+			val[read] = value_word(vals[(read + done) / intPerValue], (read + done) % intPerValue, intPerValue);
 			read++;
 		}
 
 		return read;
 	}
 
-	/**
-	 * Transforms a value of the states width to a deque of integer values for transmission.
-	 * @param val The value represented by a bitset
-	 * @return A deque of integer values representing the value
-	 */
-	std::deque<int> convert (const std::bitset<width> val) {
-		std::deque<int> vals;
-		for(unsigned int i = 0; i < ceil((double)val.size() / (sizeof(int) * 8)); i++) {
-			int rslt = 0;
-			for(unsigned int j = 0; j < (sizeof(int) * 8); j++) {
-				if(i*(sizeof(int) * 8) + j == val.size()) break;
-				else rslt += val[i*(sizeof(int) * 8) + j] << j;
-			}
-			vals.push_front(rslt);
-		}
-		return vals;
-	}
-
 public:
 	/**
 	 * Constructor of the write state.
 	 * @param vals Array of values to be written.
 	 * @param size Number of values to be written (i.e. size of the array).
 	 */
-	writeState(const std::bitset<width> vals[], unsigned int size) : abstractWriteState(size, width) {
-		// allocate memory for the values
-		this->vals = (std::bitset<width>*)malloc(this->size * sizeof(std::bitset<width>));
-		// make a local copy of each value
-		for(unsigned int i = 0; i < size; i++) this->vals[i] = vals[i];
-	}
+	writeState(const T vals[], unsigned int size) : abstractWriteState(size, width), vals(vals, vals + size) { }
 
 	~writeState() { }
 };
@@ -212,49 +353,30 @@ public:
  * Abstract representation of the state of a write operation.
  * These are used as return values for non-blocking calls and
  * allow users to check the progress of the call.
+ * @tparam width Bitwidth of the read values.
+ * @tparam T Type representing a single value. Either a bitset of the bitwidth
+ *           or an unsigned integer type, which is at least as wide as the bitwidth.
  */
-template <int width>
+template <int width, class T = std::bitset<width> >
 class readState : public abstractReadState {
-friend class outPort<width>;
 private:
 	/** Memory, where read values (in the states bitwidth) should be stored. */
-	std::bitset<width> *vals;
+	T *vals;
 
 	/**
 	 * The value in the states bitwidth, that is currently being read.
 	 * Additional 32-bit values can be added by shifting this value beforehand.
 	 */
-	std::bitset<width> currentValue;
+	T currentValue;
 	/** Index, how many 32-bit values have been read into the current value. */
 	unsigned int currentValueIndex;
 
 	/**
-	 * Stores a single integer value to the read state.
+	 * Stores integer values to the read state.
 	 * This includes shifting the current value by 32-bit, adding the new integer,
 	 * and - if the current value is finished - adding the current value to the
 	 * value array and resetting it.
-	 * @param val 32-bit value to be stored.
 	 */
-	void store(int val) {
-		// left shift current value
-		currentValue = currentValue << (sizeof(int) * 8);
-
-		// append next integer values
-		// looks dangerous, but the shift above implies, there are no collisions here...
-		currentValue |= val;
-
-		// increase value index and check for completeness of value
-		if(++currentValueIndex == intPerValue) {
-			// if complete, assign value
-			vals[int(floor(done / intPerValue))] = currentValue;
-			// reset value and index
-			currentValue = 0;
-			currentValueIndex = 0;
-		}
-		done++;
-	}
-
-	// this is basically the exposed method
 	unsigned int store(int val[], unsigned int count) {
 		unsigned int put = 0;
 		// idea: put as many values into state as possible
@@ -264,17 +386,13 @@ private:
 
 			logger_host << FINE << "storing value @ state: " << val[put] << std::endl;
 
-			// leftshift current value
-			currentValue = currentValue << (sizeof(int) * 8);
-
-			// append next integer values
-			// looks dangerous, but the shift above implies, there are no collisions here...
-			currentValue |= val[put];
+			// shift the current value and append the next integer value
+			value_append(currentValue, val[put]);
 
 			// increase value index and check for completeness of value
 			if(++currentValueIndex == intPerValue) {
 				// if complete, assign value
-				vals[int(floor((put + done) / intPerValue))] = currentValue;
+				vals[(put + done) / intPerValue] = currentValue;
 				// reset value and index
 				currentValue = 0;
 				currentValueIndex = 0;
@@ -297,10 +415,78 @@ public:
 	 * @param vals Memory reserved for values to be read.
 	 * @param size Number of values to be read (i.e. size of the array).
 	 */
-	readState(std::bitset<width> vals[], unsigned int size) : abstractReadState(size, width), vals(vals) {
+	readState(T vals[], unsigned int size) : abstractReadState(size, width), vals(vals), currentValue() {
 		currentValueIndex = 0;
 	}
 	~readState() { }
 };
 
+/**
+ * Returns the size of a value of a bitset port in its raw memory representation.
+ * @return Size of a value in bytes.
+ */
+template <int width, size_t w>
+unsigned int raw_value_size(std::bitset<w>*) {
+	return ((width + 31) / 32) * sizeof(int);
+}
+
+/**
+ * Returns the size of a value of a native integer port in its raw memory representation.
+ * @return Size of a value in bytes.
+ */
+template <int width, class T>
+unsigned int raw_value_size(T*) {
+	return sizeof(T);
+}
+
+/**
+ * Creates a write state for values provided in their raw memory representation.
+ * Values of bitset ports are expected as 32-bit integers in the wire format,
+ * i.e. several integers per value, starting with the most significant one.
+ * @param vals Memory containing the values to be written.
+ * @param size Number of values to be written.
+ * @return The write state.
+ */
+template <int width, size_t w>
+abstractWriteState *raw_write_state(const void *vals, unsigned int size, std::bitset<w>*) {
+	return new rawWriteState((const int*)vals, size, width);
+}
+
+/**
+ * Creates a write state for values provided in their raw memory representation.
+ * Values of native integer ports are expected as an array of the native type.
+ * @param vals Memory containing the values to be written.
+ * @param size Number of values to be written.
+ * @return The write state.
+ */
+template <int width, class T>
+abstractWriteState *raw_write_state(const void *vals, unsigned int size, T*) {
+	return new writeState<width, T>((const T*)vals, size);
+}
+
+/**
+ * Creates a read state storing values in their raw memory representation.
+ * Values of bitset ports are stored as 32-bit integers in the wire format,
+ * i.e. several integers per value, starting with the most significant one.
+ * @param vals Memory reserved for the values to be read.
+ * @param size Number of values to be read.
+ * @return The read state.
+ */
+template <int width, size_t w>
+abstractReadState *raw_read_state(void *vals, unsigned int size, std::bitset<w>*) {
+	return new rawReadState((int*)vals, size, width);
+}
+
+/**
+ * Creates a read state storing values in their raw memory representation.
+ * Values of native integer ports are stored as an array of the native type.
+ * @param vals Memory reserved for the values to be read.
+ * @param size Number of values to be read.
+ * @return The read state.
+ */
+template <int width, class T>
+abstractReadState *raw_read_state(void *vals, unsigned int size, T*) {
+	return new readState<width, T>((T*)vals, size);
+}
+
 #endif /* STATE_H_ */
@@ -94,6 +94,13 @@ public:
 extern logger logger_host;
 extern logger logger_board;
 
+/**
+ * Format strings of the log call sites of the board, indexed by call site id.
+ * The board sends only the id and the raw arguments of a log call,
+ * which are formatted using this table.
+ */
+extern const char *board_log_formats[];
+
 #endif /* LOGGER_H_ */
 
 
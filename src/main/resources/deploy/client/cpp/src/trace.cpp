@@ -0,0 +1,138 @@
+/**
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include "trace.h"
+
+#if TRACE
+
+#include <atomic>
+#include <chrono>
+#include <fstream>
+#include <iomanip>
+#include <mutex>
+#include <vector>
+
+/** A single recorded event. */
+struct event {
+	/** Name of the event. */
+	const char *name;
+	/** Timestamp of the event in nanoseconds since startup. */
+	long long ts;
+	/** Id of the port the event refers to. */
+	unsigned int id;
+	/** Number of values the event refers to. */
+	unsigned int size;
+};
+
+/**
+ * Event buffer of a single thread.
+ * Only the owning thread writes to the buffer. The count is published atomically,
+ * so an export can read all events up to the count without locking.
+ */
+struct buffer {
+	/** Sequential number of the owning thread. */
+	unsigned int tid;
+	/** Number of recorded events. */
+	std::atomic<unsigned int> count;
+	/** Number of dropped events. */
+	unsigned int dropped;
+	/** The recorded events. */
+	event events[TRACE_BUFFER_SIZE];
+};
+
+/** Buffers of all threads that recorded events. Buffers are never freed. */
+static std::vector<buffer*> buffers;
+/** Mutex for the buffer list. Only acquired once per thread and for exports. */
+static std::mutex buffers_mutex;
+/** Reference point for all timestamps. */
+static const std::chrono::steady_clock::time_point start = std::chrono::steady_clock::now();
+
+/**
+ * Registers a new buffer for the calling thread.
+ * @return The buffer of the calling thread.
+ */
+static buffer *register_buffer() {
+	buffer *b = new buffer();
+	b->count = 0;
+	b->dropped = 0;
+
+	std::lock_guard<std::mutex> lock(buffers_mutex);
+	b->tid = buffers.size();
+	buffers.push_back(b);
+
+	return b;
+}
+
+void trace_event(const char *name, unsigned int id, unsigned int size) {
+	static thread_local buffer *local = register_buffer();
+
+	unsigned int i = local->count.load(std::memory_order_relaxed);
+
+	// drop the event, if the buffer is full
+	if(i == TRACE_BUFFER_SIZE) {
+		local->dropped++;
+		return;
+	}
+
+	local->events[i].name = name;
+	local->events[i].ts   = std::chrono::duration_cast<std::chrono::nanoseconds>(
+			std::chrono::steady_clock::now() - start).count();
+	local->events[i].id   = id;
+	local->events[i].size = size;
+
+	// publish the event
+	local->count.store(i + 1, std::memory_order_release);
+}
+
+bool trace_export(const char *file) {
+	std::ofstream ofs(file, std::ofstream::out | std::ofstream::trunc);
+	if(!ofs.is_open()) return false;
+
+	std::lock_guard<std::mutex> lock(buffers_mutex);
+
+	ofs << "{\"traceEvents\":[";
+
+	bool first = true;
+	for(buffer *b : buffers) {
+		unsigned int count = b->count.load(std::memory_order_acquire);
+
+		// name the thread
+		if(!first) ofs << ",";
+		first = false;
+		ofs << "\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":" << b->tid
+			<< ",\"args\":{\"name\":\"thread " << b->tid << "\"}}";
+
+		// instant events with microsecond timestamps, scoped to the recording thread
+		for(unsigned int i = 0; i < count; i++) {
+			event &e = b->events[i];
+
+			ofs << ",\n{\"name\":\"" << e.name << "\",\"ph\":\"i\",\"s\":\"t\",\"pid\":0,\"tid\":" << b->tid
+				<< ",\"ts\":" << e.ts / 1000 << "." << std::setw(3) << std::setfill('0') << e.ts % 1000
+				<< ",\"args\":{\"port\":" << e.id << ",\"size\":" << e.size << "}}";
+		}
+
+		// mark dropped events after the last recorded event
+		if(b->dropped > 0 && count > 0) {
+			event &e = b->events[count - 1];
+
+			ofs << ",\n{\"name\":\"dropped\",\"ph\":\"i\",\"s\":\"t\",\"pid\":0,\"tid\":" << b->tid
+				<< ",\"ts\":" << e.ts / 1000 << "." << std::setw(3) << std::setfill('0') << e.ts % 1000
+				<< ",\"args\":{\"count\":" << b->dropped << "}}";
+		}
+	}
+
+	ofs << "\n]}\n";
+	ofs.close();
+
+	return !ofs.fail();
+}
+
+#else
+
+bool trace_export(const char *) {
+	return false;
+}
+
+#endif
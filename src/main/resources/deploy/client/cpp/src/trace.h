@@ -0,0 +1,48 @@
+/**
+ * Describes event tracing of the host-side driver.
+ *
+ * If tracing is enabled using the trace option of the board description,
+ * the I/O threads and ports record timestamped events for each step of a transmission.
+ * Events are stored in per-thread buffers without any locking and can be exported
+ * as Chrome trace JSON, which can be opened with chrome://tracing or Perfetto.
+ *
+ * If tracing is disabled, all trace macros expand to nothing.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#ifndef TRACE_H_
+#define TRACE_H_
+
+#include "constants.h"
+
+/** Maximal number of events recorded per thread. Further events are dropped. */
+#define TRACE_BUFFER_SIZE 65536
+
+#if TRACE
+/**
+ * Records a trace event of the calling thread.
+ * @param name Name of the event. Has to be a string literal.
+ * @param id Id of the port (or gpio component) the event refers to.
+ * @param size Number of values the event refers to.
+ */
+void trace_event(const char *name, unsigned int id, unsigned int size);
+
+/** Records a trace event, if tracing is enabled. */
+#define TRACE_EVENT(name, id, size) trace_event(name, id, size)
+#else
+/** Records a trace event, if tracing is enabled. */
+#define TRACE_EVENT(name, id, size)
+#endif
+
+/**
+ * Exports all events recorded so far as Chrome trace JSON.
+ * Events are not removed, so subsequent exports contain all events again.
+ * @param file Path of the file to which the events should be written.
+ * @return true, if the events were exported, false if tracing is disabled
+ *         or the file could not be written.
+ */
+bool trace_export(const char *file);
+
+#endif /* TRACE_H_ */
@@ -50,15 +50,17 @@ static bool from_string(T& t, const std::string& s, std::ios_base& (*f)(std::ios
  * @param delim Separation character between single values in the file.
  * @param f Function formatting values values to be read in (cf ios_base.h).
  * @tparam width Target bitwidth for the resulting bitset.
+ * @tparam T Type representing a single value. Either a bitset of the target bitwidth
+ *           or an unsigned integer type.
  * @return Transformed bitset in the target width.
  * @throws invalid_argument If the provided file does not exist.
  */
-template <int width>
-std::vector<std::bitset<width> > read_file(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
+template <int width, class T = std::bitset<width> >
+std::vector<T> read_file(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&)) {
     FILE *file_ptr;
     char *line_ptr = NULL;
     size_t len;
-    std::vector<std::bitset<width> > values;
+    std::vector<T> values;
 
     file_ptr = fopen(file, "r");
 
@@ -68,7 +70,7 @@ std::vector<std::bitset<width> > read_file(const char *file, const char delim, s
         std::string line = std::string(line_ptr);
         long long value;
         if(from_string<long long>(value, line_ptr, f)) // ignore bad lines
-            values.push_back(std::bitset<width> (value));   // push back value to vector
+            values.push_back(T(value));   // push back value to vector
     }
 
     fclose(file_ptr);
@@ -78,6 +80,26 @@ std::vector<std::bitset<width> > read_file(const char *file, const char delim, s
     return values;
 }
 
+/**
+ * Converts a bitset into a long long value.
+ * @param val The bitset to be converted.
+ * @return The converted value.
+ */
+template <size_t width>
+unsigned long long to_ullong(const std::bitset<width> &val) {
+    return val.to_ullong();
+}
+
+/**
+ * Converts a native integer value into a long long value.
+ * @param val The value to be converted.
+ * @return The converted value.
+ */
+template <class T>
+unsigned long long to_ullong(const T &val) {
+    return (unsigned long long)val;
+}
+
 /**
  * Write a bitset vector to a file.
  *
@@ -89,13 +111,15 @@ std::vector<std::bitset<width> > read_file(const char *file, const char delim, s
  * @param f Function formatting values values to be written in (cf ios_base.h).
  * @param vals Source vector to be written.
  * @tparam width Bitwidth of the source bitset vector.
+ * @tparam T Type representing a single value. Either a bitset of the bitwidth
+ *           or an unsigned integer type.
  */
-template <int width>
-void write_file(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&), std::vector<std::bitset<width> > vals) {
+template <int width, class T = std::bitset<width> >
+void write_file(const char *file, const char delim, std::ios_base& (*f)(std::ios_base&), std::vector<T> vals) {
     std::ofstream ofs(file, std::ofstream::out | std::ofstream::app);
 
     for(unsigned int i = 0; i < vals.size(); i++) {
-        ofs << f << vals.at(i).to_ullong();  // add number in provided format
+        ofs << f << to_ullong(vals.at(i));  // add number in provided format
         if(i < vals.size()-1) ofs << delim;  // add delimiter
     }
 
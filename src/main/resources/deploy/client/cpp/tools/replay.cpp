@@ -0,0 +1,209 @@
+/**
+ * Replays a wire-traffic capture recorded by the host-side driver.
+ *
+ * The tool either acts as the board, accepting a connection of a host-side driver,
+ * or as the host, connecting to a board (or a board stand-in). It sends all recorded values
+ * of its own side and expects the recorded values of the other side. Values of the other side
+ * are compared against the capture, and mismatches are reported.
+ *
+ * Records of the own side are either sent with the original timing relative to the
+ * previous record, or as fast as possible. Records of the other side are always awaited,
+ * which keeps both sides in the recorded order.
+ *
+ * Build with: g++ -std=c++11 -O2 -o replay tools/replay.cpp
+ *
+ * Usage: replay (board <port> | host <ip> <port>) <capture file> [max]
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+
+#include <chrono>
+#include <fstream>
+#include <iostream>
+#include <string>
+#include <thread>
+
+#include <errno.h>
+#include <stdlib.h>
+#include <string.h>
+#include <unistd.h>
+#include <sys/socket.h>
+#include <netinet/in.h>
+#include <arpa/inet.h>
+
+#include "../src/io/capture.h"
+
+/**
+ * Opens a listening socket and waits for a host-side driver to connect.
+ * @param port TCP port to listen on.
+ * @return The connected socket or -1 on failure.
+ */
+static int accept_host(unsigned short int port) {
+	int listenFD = socket(AF_INET, SOCK_STREAM, IPPROTO_TCP);
+	if(listenFD == -1) return -1;
+
+	int reuse = 1;
+	setsockopt(listenFD, SOL_SOCKET, SO_REUSEADDR, &reuse, sizeof(reuse));
+
+	struct sockaddr_in addr;
+	memset(&addr, 0, sizeof(addr));
+	addr.sin_family = AF_INET;
+	addr.sin_port = htons(port);
+	addr.sin_addr.s_addr = htonl(INADDR_ANY);
+
+	if(bind(listenFD, (struct sockaddr *)&addr, sizeof(addr)) == -1 || listen(listenFD, 1) == -1) {
+		close(listenFD);
+		return -1;
+	}
+
+	std::cout << "waiting for host-side driver on port " << port << " ..." << std::endl;
+
+	int socketFD = accept(listenFD, NULL, NULL);
+	close(listenFD);
+
+	return socketFD;
+}
+
+/**
+ * Connects to a board or board stand-in.
+ * @param ip IP address of the board.
+ * @param port TCP port of the board.
+ * @return The connected socket or -1 on failure.
+ */
+static int connect_board(const char *ip, unsigned short int port) {
+	int socketFD = socket(AF_INET, SOCK_STREAM, IPPROTO_TCP);
+	if(socketFD == -1) return -1;
+
+	struct sockaddr_in addr;
+	memset(&addr, 0, sizeof(addr));
+	addr.sin_family = AF_INET;
+	addr.sin_port = htons(port);
+
+	if(inet_pton(AF_INET, ip, &addr.sin_addr) != 1 ||
+			connect(socketFD, (struct sockaddr *)&addr, sizeof(addr)) == -1) {
+		close(socketFD);
+		return -1;
+	}
+
+	return socketFD;
+}
+
+/**
+ * Sends all values of a record.
+ * @param socketFD The connected socket.
+ * @param rec The record to be sent.
+ * @return true if successful, false otherwise.
+ */
+static bool send_record(int socketFD, const captureRecord &rec) {
+	const char *buf = (const char*)rec.vals.data();
+	size_t left = rec.vals.size() * sizeof(int);
+
+	while(left > 0) {
+		ssize_t n = write(socketFD, buf, left);
+		if(n <= 0) return false;
+		buf += n; left -= n;
+	}
+
+	return true;
+}
+
+/**
+ * Receives as many values as contained in a record and counts deviating values.
+ * @param socketFD The connected socket.
+ * @param rec The expected record.
+ * @param mismatches Counter of deviating values, which is incremented accordingly.
+ * @return true if successful, false otherwise.
+ */
+static bool recv_record(int socketFD, const captureRecord &rec, unsigned long long &mismatches) {
+	std::vector<int> vals(rec.vals.size());
+	char *buf = (char*)vals.data();
+	size_t left = vals.size() * sizeof(int);
+
+	while(left > 0) {
+		ssize_t n = recv(socketFD, buf, left, 0);
+		if(n <= 0) return false;
+		buf += n; left -= n;
+	}
+
+	for(unsigned int i = 0; i < vals.size(); i++) if(vals[i] != rec.vals[i]) mismatches++;
+
+	return true;
+}
+
+static void usage() {
+	std::cerr << "usage: replay (board <port> | host <ip> <port>) <capture file> [max]" << std::endl;
+	std::cerr << "  board  act as the board and wait for a host-side driver to connect" << std::endl;
+	std::cerr << "  host   act as the host and connect to a board" << std::endl;
+	std::cerr << "  max    send as fast as possible instead of using the recorded timing" << std::endl;
+}
+
+int main(int argc, char *argv[]) {
+	if(argc < 2) { usage(); return 1; }
+
+	std::string role(argv[1]);
+	bool asBoard = role == "board";
+	int argi = asBoard ? 3 : 4;
+
+	if((!asBoard && role != "host") || argc < argi + 1 || argc > argi + 2) { usage(); return 1; }
+
+	bool maxSpeed = argc == argi + 2 && std::string(argv[argi + 1]) == "max";
+
+	// open and check the capture file
+	std::ifstream capture(argv[argi], std::ifstream::in | std::ifstream::binary);
+	if(!capture.is_open() || !capture_read_header(capture)) {
+		std::cerr << "could not read capture file " << argv[argi] << std::endl;
+		return 1;
+	}
+
+	// set up the connection
+	int socketFD = asBoard ? accept_host(atoi(argv[2])) : connect_board(argv[2], atoi(argv[3]));
+	if(socketFD == -1) {
+		std::cerr << "failed to connect: " << strerror(errno) << std::endl;
+		return 1;
+	}
+
+	// the direction of records, which are sent by this side
+	unsigned char own = asBoard ? CAPTURE_TO_HOST : CAPTURE_TO_BOARD;
+
+	unsigned long long records = 0, sent = 0, received = 0, mismatches = 0;
+	captureRecord rec;
+
+	std::chrono::steady_clock::time_point start = std::chrono::steady_clock::now();
+	std::chrono::steady_clock::time_point last  = start;
+
+	while(capture_read_record(capture, rec)) {
+		bool success;
+
+		if(rec.dir == own) {
+			// keep the recorded distance to the previous record
+			if(!maxSpeed) std::this_thread::sleep_until(last + std::chrono::microseconds(rec.delta));
+
+			success = send_record(socketFD, rec);
+			sent += rec.vals.size();
+		} else {
+			success = recv_record(socketFD, rec, mismatches);
+			received += rec.vals.size();
+		}
+
+		if(!success) {
+			std::cerr << "connection failed at record " << records << std::endl;
+			close(socketFD);
+			return 1;
+		}
+
+		last = std::chrono::steady_clock::now();
+		records++;
+	}
+
+	close(socketFD);
+
+	double elapsed = std::chrono::duration_cast<std::chrono::microseconds>(last - start).count() / 1000000.0;
+
+	std::cout << "replayed " << records << " records in " << elapsed << " s" << std::endl;
+	std::cout << "  sent     " << sent << " values" << std::endl;
+	std::cout << "  received " << received << " values (" << mismatches << " deviating)" << std::endl;
+	if(elapsed > 0) std::cout << "  " << (sent + received) / elapsed << " values/s" << std::endl;
+
+	return mismatches == 0 ? 0 : 2;
+}
@@ -0,0 +1,124 @@
+package de.hopp.generator.backends.board.zed;
+
+import static de.hopp.generator.backends.BackendUtils.createUnparser;
+import static de.hopp.generator.model.BDL.BDLFilePos;
+import static de.hopp.generator.model.cpp.CPP.MFileInFile;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+import de.hopp.generator.Configuration;
+import de.hopp.generator.ErrorCollection;
+import de.hopp.generator.backends.BackendUtils.UnparserType;
+import de.hopp.generator.backends.workflow.ise.sdk.SDK;
+import de.hopp.generator.exceptions.Error;
+import de.hopp.generator.exceptions.InvalidConstruct;
+import de.hopp.generator.frontend.Parser;
+import de.hopp.generator.model.BDLFilePos;
+import de.hopp.generator.model.cpp.MFile;
+import de.hopp.generator.model.mhs.MHSFile;
+import de.hopp.generator.model.unparser.MHSUnparser;
+
+/**
+ * Compares the .mhs, .mss and C sources generated for the ZedBoard with golden files.
+ *
+ * Each case is a directory containing a board description system.bdl and the expected outputs.
+ * Outputs of the stream processor of the split scheduler are expected in the subdirectory stream.
+ * If the generated sources change on purpose, the golden files can be rewritten by running
+ * the tests with -Dgolden.update=true. The resulting diff has to be reviewed before committing it.
+ *
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+public class GoldenFileTest {
+
+    /** Directory of the test cases, relative to the project directory. */
+    private static final File cases = new File("src/test/resources/de/hopp/generator/backends/board/zed");
+
+    /** If set, golden files are rewritten instead of compared. */
+    private static final boolean update = Boolean.getBoolean("golden.update");
+
+    @Test
+    public void eventScheduler() throws Exception {
+        check("event");
+    }
+
+    @Test
+    public void splitScheduler() throws Exception {
+        check("split");
+    }
+
+    /**
+     * Generates all board-side sources of a case and compares them with its golden files.
+     * @param name Directory name of the case.
+     */
+    private void check(String name) throws IOException, InvalidConstruct {
+        File dir = new File(cases, name);
+
+        Configuration config = new Configuration();
+        config.enableQuiet();
+        ErrorCollection errors = new ErrorCollection();
+
+        BDLFilePos board = BDLFilePos(new Parser(config, errors).parse(new File(dir, "system.bdl")));
+        assertNoErrors(errors);
+
+        Zed zed = new Zed();
+        MHSFile mhs = zed.getMHS_14_6(errors).generateMHSFile(board);
+        SDK sdk = zed.getSDK_14_6(config, errors);
+        sdk.generate(board);
+        assertNoErrors(errors);
+
+        compare(new File(dir, "system.mhs"), unparse(mhs));
+        compare(new File(dir, "system.mss"), unparse(sdk.getMSS()));
+        compare(dir, sdk.getConstants(),  UnparserType.HEADER);
+        compare(dir, sdk.getComponents(), UnparserType.HEADER);
+        compare(dir, sdk.getComponents(), UnparserType.C);
+        compare(dir, sdk.getScheduler(),  UnparserType.HEADER);
+        compare(dir, sdk.getScheduler(),  UnparserType.C);
+
+        // the stream processor only exists for the split scheduler
+        File stream = new File(dir, "stream");
+        if(sdk.getStreamScheduler() == null) {
+            assertFalse("no stream processor sources generated", stream.isDirectory());
+            return;
+        }
+
+        compare(new File(stream, "system.mss"), unparse(sdk.getStreamMSS()));
+        compare(stream, sdk.getStreamConstants(),  UnparserType.HEADER);
+        compare(stream, sdk.getStreamComponents(), UnparserType.HEADER);
+        compare(stream, sdk.getStreamComponents(), UnparserType.C);
+        compare(stream, sdk.getStreamScheduler(),  UnparserType.HEADER);
+        compare(stream, sdk.getStreamScheduler(),  UnparserType.C);
+    }
+
+    private static void assertNoErrors(ErrorCollection errors) {
+        StringBuffer messages = new StringBuffer();
+        for(Error error : errors.getErrors()) messages.append("\n" + error.getMessage());
+        assertFalse("generation failed:" + messages, errors.hasErrors());
+    }
+
+    private static String unparse(MHSFile file) {
+        assertNotNull(file);
+
+        StringBuffer buffer = new StringBuffer();
+        new MHSUnparser(buffer).visit(file);
+        return buffer.toString();
+    }
+
+    private static void compare(File dir, MFile file, UnparserType type) throws IOException, InvalidConstruct {
+        assertNotNull(file);
+
+        StringBuffer buffer = new StringBuffer();
+        createUnparser(type, buffer, file.name()).visit(MFileInFile(file));
+        compare(new File(dir, file.name() + (type == UnparserType.HEADER ? ".h" : ".c")), buffer.toString());
+    }
+
+    private static void compare(File golden, String actual) throws IOException {
+        if(update) write(golden, actual);
+        else assertEquals(golden.getPath(), readFileToString(golden), actual);
+    }
+}
@@ -0,0 +1,35 @@
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+entity adder is
+	port (
+		aclk    : in  std_logic;
+		aresetn : in  std_logic;
+		in1_tready  : out std_logic;
+		in1_tvalid  : in  std_logic;
+		in1_tdata   : in  std_logic_vector(31 downto 0);
+		in1_tlast   : in  std_logic;
+		in2_tready  : out std_logic;
+		in2_tvalid  : in  std_logic;
+		in2_tdata   : in  std_logic_vector(31 downto 0);
+		in2_tlast   : in  std_logic;
+		out1_tready : in  std_logic;
+		out1_tvalid : out std_logic;
+		out1_tdata  : out std_logic_vector(15 downto 0);
+		out1_tlast  : out std_logic
+	);
+end adder;
+
+architecture behavioral of adder is
+	signal valid : std_logic;
+begin
+	valid <= in1_tvalid and in2_tvalid;
+
+	in1_tready  <= out1_tready and valid;
+	in2_tready  <= out1_tready and valid;
+
+	out1_tvalid <= valid;
+	out1_tdata  <= std_logic_vector(resize(unsigned(in1_tdata) + unsigned(in2_tdata), 16));
+	out1_tlast  <= in1_tlast;
+end behavioral;
@@ -0,0 +1,226 @@
+#include "components.h"
+
+#include "../constants.h"
+#include "../io.h"
+#include "gpio.h"
+#include "xil_io.h"
+int gpio_read(int target);
+int gpio_write(int target, int val);
+void send_gpio(unsigned char gid, unsigned char val);
+#include "../queueUntyped.h"
+#include "xparameters.h"
+// definitions of components
+/** GPO ID of the leds component */
+#define gpo_leds 0
+/** GPI ID of the switches component */
+#define gpi_switches 0
+/** Offset of the AXI-Stream FIFO register: transmit data FIFO vacancy (in values) */
+#define AXI_FIFO_TDFV 0x0C
+/** Offset of the AXI-Stream FIFO register: transmit data FIFO data write port */
+#define AXI_FIFO_TDFD 0x10
+/** Offset of the AXI-Stream FIFO register: transmit length (in bytes), starts the transmission of a packet */
+#define AXI_FIFO_TLR 0x14
+/** Offset of the AXI-Stream FIFO register: receive data FIFO occupancy (in values) */
+#define AXI_FIFO_RDFO 0x1C
+/** Offset of the AXI-Stream FIFO register: receive data FIFO data read port */
+#define AXI_FIFO_RDFD 0x20
+/** Offset of the AXI-Stream FIFO register: receive length (in bytes) of the next packet */
+#define AXI_FIFO_RLR 0x24
+
+// attributes of components
+/** Storage of the software queue of in-going stream 0. */
+static int (inQueue_0_values) [64];
+/** Software queue of in-going stream 0. */
+static Queue inQueue_0;
+/** Storage of the software queue of in-going stream 1. */
+static int (inQueue_1_values) [64];
+/** Software queue of in-going stream 1. */
+static Queue inQueue_1;
+/** Storage of both halves of the output buffer of out-going stream 0. */
+static int (outQueue_0_values) [2048];
+/** Base addresses of the AXI-Stream FIFOs, indexed by stream id. */
+static const unsigned int (axi_fifo) [2] = { XPAR_AXI_FIFO_MM_S_0_BASEADDR, XPAR_AXI_FIFO_MM_S_1_BASEADDR };
+
+// procedures of components
+/**
+ * The Xil_ExceptionHandler to be used as callback for the switches component.
+ * This handler executes user-defined code and clears the interrupt.
+ */
+void GpioHandler_switches ( void *CallbackRef ) {
+    XGpio *GpioPtr = (XGpio *)CallbackRef;
+
+    // transmit gpi state change to host
+    send_gpio(gpi_switches, gpio_read(gpi_switches));
+
+    // Clear the Interrupt
+    XGpio_InterruptClear(GpioPtr, GPIO_CHANNEL1);
+}
+
+/**
+ * Initialises all components on this board.
+ * This includes gpio components and user-defined IPCores,
+ * but not the communication medium this board is attached with.
+ */
+void init_components ( ) {
+    int status;
+    #if DEBUG
+        xil_printf("\ninitialise leds ...");
+    #endif /* DEBUG */
+    status = XGpio_Initialize(&gpo_components[gpo_leds], XPAR_LEDS_8BITS_DEVICE_ID);
+    if(status != XST_SUCCESS) {
+    #if DEBUG
+        xil_printf(" error setting up leds: %d", status);
+    #endif /* DEBUG */
+        return;
+    }
+    XGpio_SetDataDirection(&gpo_components[gpo_leds], GPIO_CHANNEL1, 0x0);
+    #if DEBUG
+        xil_printf(" done");
+    #endif /* DEBUG */
+
+    #if DEBUG
+    xil_printf("\ninitialise switches ...");
+    #endif /* DEBUG */
+    status = XGpio_Initialize(&gpi_components[gpi_switches], XPAR_SWITCHES_8BITS_DEVICE_ID);
+    if(status != XST_SUCCESS) {
+    #if DEBUG
+        xil_printf(" error setting up switches: %d", status);
+    #endif /* DEBUG */
+        return;
+    }
+    XGpio_SetDataDirection(&gpi_components[gpi_switches], GPIO_CHANNEL1, 0x0);
+    status = GpioIntrSetup(&gpi_components[gpi_switches], XPAR_SWITCHES_8BITS_DEVICE_ID,
+        XPAR_FABRIC_SWITCHES_8BITS_IP2INTC_IRPT_INTR, GPIO_CHANNEL1, GpioHandler_switches);
+    if(status != XST_SUCCESS) {
+    #if DEBUG
+        xil_printf(" error setting up switches: %d", status);
+    #endif /* DEBUG */
+        return;
+    }
+    #if DEBUG
+        xil_printf(" done");
+    #endif /* DEBUG */
+
+    initQueue(&inQueue_0, inQueue_0_values, 64, 64);
+    inQueue[0] = &inQueue_0;
+    inBurst[0] = 64;
+    initQueue(&inQueue_1, inQueue_1_values, 64, 64);
+    inQueue[1] = &inQueue_1;
+    inBurst[1] = 64;
+    outBuffer[0] = outQueue_0_values;
+    outQueue[0] = outQueue_0_values;
+    outQueueCap[0] = 1024;
+    outThreshold[0] = 1;
+    outTimeout[0] = 0;
+    outBurst[0] = 64;
+    isPolling[0] = 1;
+    pollCount[0] = 2;
+}
+
+/**
+ * Resets all components in this board.
+ * This includes gpio components and user-defined IPCores,
+ * but not the communication medium, this board is attached with.
+ */
+void reset_components ( ) { }
+
+/**
+ * Write a value to an AXI stream.
+ * The value is sent through the AXI-Stream FIFO of the stream as packet of its own.
+ * @param val Value to be written to the stream.
+ * @param target Target stream identifier.
+ * @return 0 if successful, 1 if the FIFO is full.
+ */
+int axi_write ( int val, int target ) {
+    log_finer("\nwriting to in-going port %d (value: %d) ...", target, val);
+    if(target > 1) {
+        log_error("unknown axi stream port %d", target);
+        return 1;
+    }
+    if(Xil_In32(axi_fifo[target] + AXI_FIFO_TDFV) == 0) {
+        log_finer(" (full)");
+        return 1;
+    }
+
+    Xil_Out32(axi_fifo[target] + AXI_FIFO_TDFD, val);
+    Xil_Out32(axi_fifo[target] + AXI_FIFO_TLR, sizeof(int));
+    return 0;
+}
+
+/**
+ * Read a value from an AXI stream.
+ * Each value is received through the AXI-Stream FIFO of the stream as packet of its own.
+ * @param val Pointer to the memory area, where the read value will be stored.
+ * @param target Target stream identifier.
+ * @return 0 if successful, 1 if the FIFO is empty.
+ */
+int axi_read ( int *val, int target ) {
+    log_finer("\nreading from out-going port %d ...", target);
+    if(target > 0) {
+        log_error("unknown axi stream port %d", target);
+        return 1;
+    }
+    if(Xil_In32(axi_fifo[target] + AXI_FIFO_RDFO) == 0) {
+        log_finer(" (empty)");
+        return 1;
+    }
+
+    // the packet length is always a single value, but has to be read to advance to the next packet
+    Xil_In32(axi_fifo[target] + AXI_FIFO_RLR);
+    *val = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFD);
+    log_finer("\n %d", *val);
+    return 0;
+}
+
+/**
+ * Write a block of values to an AXI stream.
+ * As many values as fit into the AXI-Stream FIFO of the stream are sent as a single packet.
+ * @param vals Values to be written to the stream.
+ * @param n Number of values to be written.
+ * @param target Target stream identifier.
+ * @return Number of values actually written.
+ */
+int axi_write_burst ( int *vals, unsigned int n, int target ) {
+    unsigned int i, vacancy;
+
+    if(target > 1) {
+        log_error("unknown axi stream port %d", target);
+        return 0;
+    }
+    vacancy = Xil_In32(axi_fifo[target] + AXI_FIFO_TDFV);
+    if(n > vacancy) n = vacancy;
+    if(n == 0) return 0;
+
+    for(i = 0; i < n; i++) Xil_Out32(axi_fifo[target] + AXI_FIFO_TDFD, vals[i]);
+    Xil_Out32(axi_fifo[target] + AXI_FIFO_TLR, n * sizeof(int));
+    log_finer("\nwrote %d values to in-going port %d", n, target);
+    return n;
+}
+
+/**
+ * Read a block of values from an AXI stream.
+ * All values available in the AXI-Stream FIFO of the stream are read, up to the requested number.
+ * Since each value is received as packet of its own, the length of each packet is read as well.
+ * @param vals Memory area, where the read values will be stored.
+ * @param n Number of values to be read.
+ * @param target Target stream identifier.
+ * @return Number of values actually read.
+ */
+int axi_read_burst ( int *vals, unsigned int n, int target ) {
+    unsigned int i, occupancy;
+
+    if(target > 0) {
+        log_error("unknown axi stream port %d", target);
+        return 0;
+    }
+    occupancy = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFO);
+    if(n > occupancy) n = occupancy;
+
+    for(i = 0; i < n; i++) {
+        Xil_In32(axi_fifo[target] + AXI_FIFO_RLR);
+        vals[i] = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFD);
+    }
+    log_finer("\nread %d values from out-going port %d", n, target);
+    return n;
+}
+
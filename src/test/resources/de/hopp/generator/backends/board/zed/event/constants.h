@@ -0,0 +1,88 @@
+/**
+ * Defines several constants used by the server.
+ * This includes medium-specific configuration.
+ * @file
+ */
+#ifndef CONSTANTS_H_
+#define CONSTANTS_H_
+
+#include <stdio.h>
+// definitions of constants
+/** Severity value of errors. */
+#define SEVERITY_ERROR 0
+/** Severity value of warnings. */
+#define SEVERITY_WARN 1
+/** Severity value of info messages. */
+#define SEVERITY_INFO 2
+/** Severity value of debug messages. */
+#define SEVERITY_FINE 3
+/** Severity value of finer debug messages. */
+#define SEVERITY_FINER 4
+/** Severity value of finest debug messages. */
+#define SEVERITY_FINEST 5
+/** Indicates, if additional messages should be logged on the console. */
+#define SEVERITY 0
+/** With the chosen debug level, errors will be reported to the host driver over Ethernet. */
+#define log_error(...) send_log(0, __VA_ARGS__)
+/** With the chosen debug level, warnings will not be reported to the host driver. */
+#define log_warn(...) 
+/** With the chosen debug level, info messages will not be reported to the host driver. */
+#define log_info(...) 
+/** With the chosen debug level, fine info messages will not be reported to the host driver. */
+#define log_fine(...) 
+/** With the chosen debug level, finer info messages will not be reported to the host driver. */
+#define log_finer(...) 
+/** With the chosen debug level, finest info messages will not be reported to the host driver. */
+#define log_finest(...) 
+/** Denotes protocol version, that should be used for sending messages. */
+#define PROTO_VERSION 1
+/** The first  8 bits of the MAC address of this board. */
+#define MAC_1 0x00
+/** The second 8 bits of the MAC address of this board. */
+#define MAC_2 0x0a
+/** The third  8 bits of the MAC address of this board. */
+#define MAC_3 0x35
+/** The fourth 8 bits of the MAC address of this board. */
+#define MAC_4 0x00
+/** The fifth  8 bits of the MAC address of this board. */
+#define MAC_5 0x01
+/** The sixth  8 bits of the MAC address of this board. */
+#define MAC_6 0x02
+/** The first  8 bits of the IP address of this board. */
+#define IP_1 192
+/** The second 8 bits of the IP address of this board. */
+#define IP_2 168
+/** The third  8 bits of the IP address of this board. */
+#define IP_3 2
+/** The fourth 8 bits of the IP address of this board. */
+#define IP_4 10
+/** The first  8 bits of the network mask of this board. */
+#define MASK_1 255
+/** The second 8 bits of the network mask of this board. */
+#define MASK_2 255
+/** The third  8 bits of the network mask of this board. */
+#define MASK_3 255
+/** The fourth 8 bits of the network mask of this board. */
+#define MASK_4 0
+/** The first  8 bits of the standard gateway of this board. */
+#define GW_1 192
+/** The second 8 bits of the standard gateway of this board. */
+#define GW_2 168
+/** The third  8 bits of the standard gateway of this board. */
+#define GW_3 2
+/** The fourth 8 bits of the standard gateway of this board. */
+#define GW_4 1
+/** The port for this boards TCP-connection. */
+#define PORT 8844
+/** Reception timeout for an attempt to free memory. */
+#define TIMEOUT 2
+/** Number of in-going stream interfaces. */
+#define IN_STREAM_COUNT 2
+/** Number of out-going stream interfaces. */
+#define OUT_STREAM_COUNT 1
+/** Number of gpi components */
+#define gpi_count 1
+/** Number of gpo components */
+#define gpo_count 1
+
+#endif /* CONSTANTS_H_ */
\ No newline at end of file
@@ -0,0 +1,97 @@
+#include "scheduler.h"
+
+int axi_read ( int *val, int target );
+int axi_read_burst ( int *vals, unsigned int n, int target );
+int axi_write ( int val, int target );
+int axi_write_burst ( int *vals, unsigned int n, int target );
+int medium_read();
+#include "constants.h"
+#include "io.h"
+#include "queueUntyped.h"
+// procedures of scheduler
+/**
+ * Starts the event-driven scheduling loop.
+ * The scheduling loop performs the following actions in each iteration:
+ *  - wait for the next message, if no port can make progress without one
+ *  - read and process messages from the medium
+ *  - acknowledge all received data packages
+ *  - write values from Microblaze input queue to hardware input queue for each input stream with pending values
+ *  - write values from hardware output queue to the medium for each output stream allowed to send
+ */
+void schedule ( ) {
+    unsigned int pid;
+    unsigned int i, n, done;
+    int *vals, full, idle;
+
+    while(1) {
+        // no port can make progress without a message, if no in-going port has pending values
+        // and all out-going ports are polling ports without remaining polls and pending values
+        idle = inPendingCount == 0;
+        for(pid = 0; idle && pid < OUT_STREAM_COUNT; pid++)
+            if((!isPolling[pid]) || pollCount[pid] > 0 || outQueueSize[pid] > outSent[pid]) idle = 0;
+        
+        // in this case, only watch the medium until a message arrives
+        if(idle) while(!medium_read()) { }
+        
+        // receive all available packages from the interface
+        // esp stores data packages in sw queue and marks the port as pending
+        while(medium_read()) { }
+        
+        // acknowledge all received data packages at once
+        send_acks();
+        
+        // write data from sw queue to hw queue for all pending ports
+        for(n = 0; n < inPendingCount; ) {
+            pid = inPending[n];
+            // go to next port if the sw queue is empty
+            while(inQueue[pid]->size > 0) {
+                vals = front(inQueue[pid], &i);
+                if(i > inBurst[pid]) i = inBurst[pid];
+                full = inQueue[pid]->size == inQueue[pid]->cap;
+                
+                // write as many values as possible and remove them from the queue
+                done = axi_write_burst(vals, i, pid);
+                drop(inQueue[pid], done);
+                
+                // if the queue was full beforehand, poll
+                if(full && done > 0) send_poll(pid);
+                
+                // skip if the hw queue is full
+                if(done < i) break;
+            }
+            
+            // the port remains pending, if the hw queue was full
+            if(inQueue[pid]->size > 0) n++;
+            else release_pending(n);
+        }
+        
+        // read data from hw queue (if available) and cache in output buffer
+        // polling ports without remaining polls only flush their remaining values
+        for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {
+            while(outQueueSize[pid] < outQueueCap[pid] && ((!isPolling[pid]) || pollCount[pid] > 0)) {
+                // read a block limited by the buffer, the poll counter and the hw queue
+                n = outQueueCap[pid] - outQueueSize[pid];
+                if(isPolling[pid] && n > pollCount[pid]) n = pollCount[pid];
+                if(n > outBurst[pid]) n = outBurst[pid];
+                done = axi_read_burst(&outQueue[pid][outQueueSize[pid]], n, pid);
+                
+                // increment the buffer size counter
+                outQueueSize[pid] += done;
+                
+                // decrement the poll counter (if the port was polling)
+                if(isPolling[pid]) pollCount[pid] -= done;
+                
+                // break, if the hw queue ran empty
+                if(done < n) break;
+            }
+            
+            // flush output buffer, if it reached its threshold or timeout
+            if(flush_due(pid) && flush_queue(pid)) {
+                // in this case, sending failed. Terminate (reasons have already been printed)
+                xil_printf("\nterminating...");
+                return;
+            }
+        }
+    }
+}
+
@@ -0,0 +1,24 @@
+/**
+ * An event-driven scheduler.
+ * Reads values from the medium and shifts values between Microblaze and VHDL components,
+ * but only services ports, which are able to make progress.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+#ifndef SCHEDULER_H_
+#define SCHEDULER_H_
+
+// procedures of scheduler
+/**
+ * Starts the event-driven scheduling loop.
+ * The scheduling loop performs the following actions in each iteration:
+ *  - wait for the next message, if no port can make progress without one
+ *  - read and process messages from the medium
+ *  - acknowledge all received data packages
+ *  - write values from Microblaze input queue to hardware input queue for each input stream with pending values
+ *  - write values from hardware output queue to the medium for each output stream allowed to send
+ */
+void schedule ( );
+
+#endif /* SCHEDULER_H_ */
\ No newline at end of file
@@ -0,0 +1,82 @@
+#include "scheduler.h"
+
+int medium_read();
+#include "constants.h"
+#include "io.h"
+#include "mailbox.h"
+#include "queueUntyped.h"
+// procedures of scheduler
+/**
+ * Sets up the mailbox and starts the scheduling loop of the medium processor.
+ * The scheduling loop performs the same actions as the primitive scheduler,
+ * but values are exchanged with the mailbox rings of the stream processor
+ * instead of the hardware queues.
+ */
+void schedule ( ) {
+    unsigned int pid;
+    unsigned int n, done;
+    int *vals, full;
+
+    // start the stream processor and clear the mailbox, as soon as it has been requested
+    mailbox_init();
+
+    while(1) {
+        // receive all available packages from the interface
+        // esp stores data packages in sw queue
+        while(medium_read()) { }
+        
+        // acknowledge all received data packages at once
+        send_acks();
+        
+        // write data from sw queue to hw queue in blocks (if possible)
+        for(pid = 0; pid < IN_STREAM_COUNT; pid++) {
+            // go to next port if the sw queue is empty
+            while(inQueue[pid]->size > 0) {
+                vals = front(inQueue[pid], &n);
+                if(n > inBurst[pid]) n = inBurst[pid];
+                full = inQueue[pid]->size == inQueue[pid]->cap;
+                
+                // write as many values as possible and remove them from the queue
+                done = mailbox_write_burst(vals, n, pid);
+                drop(inQueue[pid], done);
+                
+                // if the queue was full beforehand, poll
+                if(full && done > 0) send_poll(pid);
+                
+                // skip if the hw queue is full
+                if(done < n) {
+                    log_fine("failed to write to AXI stream");
+                    break;
+                }
+            }
+        }
+        
+        // read data from hw queue (if available) and cache in output buffer
+        // flush output buffer, if it reached its threshold or timeout
+        for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {
+            while(outQueueSize[pid] < outQueueCap[pid] && ((!isPolling[pid]) || pollCount[pid] > 0)) {
+                // read a block limited by the buffer, the poll counter and the hw queue
+                n = outQueueCap[pid] - outQueueSize[pid];
+                if(isPolling[pid] && n > pollCount[pid]) n = pollCount[pid];
+                if(n > outBurst[pid]) n = outBurst[pid];
+                done = mailbox_read_burst(&outQueue[pid][outQueueSize[pid]], n, pid);
+                
+                // increment the buffer size counter
+                outQueueSize[pid] += done;
+                
+                // decrement the poll counter (if the port was polling)
+                if(isPolling[pid]) pollCount[pid] -= done;
+                
+                // break, if the hw queue ran empty
+                if(done < n) break;
+            }
+            // flush output buffer
+            if(flush_due(pid) && flush_queue(pid)) {
+                // in this case, sending failed. Terminate (reasons have already been printed)
+                xil_printf("\nterminating...");
+                return;
+            }
+        }
+    }
+}
+
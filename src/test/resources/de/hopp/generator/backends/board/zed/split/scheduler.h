@@ -0,0 +1,21 @@
+/**
+ * A split scheduler for the medium processor.
+ * Reads values from the medium, exchanges values with the stream processor through the mailbox,
+ * and writes results back to the medium.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+#ifndef SCHEDULER_H_
+#define SCHEDULER_H_
+
+// procedures of scheduler
+/**
+ * Sets up the mailbox and starts the scheduling loop of the medium processor.
+ * The scheduling loop performs the same actions as the primitive scheduler,
+ * but values are exchanged with the mailbox rings of the stream processor
+ * instead of the hardware queues.
+ */
+void schedule ( );
+
+#endif /* SCHEDULER_H_ */
\ No newline at end of file
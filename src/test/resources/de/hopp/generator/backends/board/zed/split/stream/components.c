@@ -0,0 +1,76 @@
+#include "components.h"
+
+#include "../constants.h"
+#include "xil_io.h"
+#include "xparameters.h"
+// definitions of components
+/** Offset of the AXI-Stream FIFO register: transmit data FIFO vacancy (in values) */
+#define AXI_FIFO_TDFV 0x0C
+/** Offset of the AXI-Stream FIFO register: transmit data FIFO data write port */
+#define AXI_FIFO_TDFD 0x10
+/** Offset of the AXI-Stream FIFO register: transmit length (in bytes), starts the transmission of a packet */
+#define AXI_FIFO_TLR 0x14
+/** Offset of the AXI-Stream FIFO register: receive data FIFO occupancy (in values) */
+#define AXI_FIFO_RDFO 0x1C
+/** Offset of the AXI-Stream FIFO register: receive data FIFO data read port */
+#define AXI_FIFO_RDFD 0x20
+/** Offset of the AXI-Stream FIFO register: receive length (in bytes) of the next packet */
+#define AXI_FIFO_RLR 0x24
+
+// attributes of components
+/** Base addresses of the AXI-Stream FIFOs, indexed by stream id. */
+static const unsigned int (axi_fifo) [2] = { XPAR_AXI_FIFO_MM_S_0_BASEADDR, XPAR_AXI_FIFO_MM_S_1_BASEADDR };
+
+// procedures of components
+/**
+ * Write a block of values to an AXI stream.
+ * As many values as fit into the AXI-Stream FIFO of the stream are sent as a single packet.
+ * @param vals Values to be written to the stream.
+ * @param n Number of values to be written.
+ * @param target Target stream identifier.
+ * @return Number of values actually written.
+ */
+int axi_write_burst ( int *vals, unsigned int n, int target ) {
+    unsigned int i, vacancy;
+
+    if(target > 1) {
+        log_error("unknown axi stream port %d", target);
+        return 0;
+    }
+    vacancy = Xil_In32(axi_fifo[target] + AXI_FIFO_TDFV);
+    if(n > vacancy) n = vacancy;
+    if(n == 0) return 0;
+
+    for(i = 0; i < n; i++) Xil_Out32(axi_fifo[target] + AXI_FIFO_TDFD, vals[i]);
+    Xil_Out32(axi_fifo[target] + AXI_FIFO_TLR, n * sizeof(int));
+    log_finer("\nwrote %d values to in-going port %d", n, target);
+    return n;
+}
+
+/**
+ * Read a block of values from an AXI stream.
+ * All values available in the AXI-Stream FIFO of the stream are read, up to the requested number.
+ * Since each value is received as packet of its own, the length of each packet is read as well.
+ * @param vals Memory area, where the read values will be stored.
+ * @param n Number of values to be read.
+ * @param target Target stream identifier.
+ * @return Number of values actually read.
+ */
+int axi_read_burst ( int *vals, unsigned int n, int target ) {
+    unsigned int i, occupancy;
+
+    if(target > 0) {
+        log_error("unknown axi stream port %d", target);
+        return 0;
+    }
+    occupancy = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFO);
+    if(n > occupancy) n = occupancy;
+
+    for(i = 0; i < n; i++) {
+        Xil_In32(axi_fifo[target] + AXI_FIFO_RLR);
+        vals[i] = Xil_In32(axi_fifo[target] + AXI_FIFO_RDFD);
+    }
+    log_finer("\nread %d values from out-going port %d", n, target);
+    return n;
+}
+
@@ -0,0 +1,12 @@
+/**
+ * Contains the stream-specific procedures of the stream processor.
+ * @file
+ */
+#ifndef COMPONENTS_H_
+#define COMPONENTS_H_
+
+// attributes of components
+
+// procedures of components
+
+#endif /* COMPONENTS_H_ */
\ No newline at end of file
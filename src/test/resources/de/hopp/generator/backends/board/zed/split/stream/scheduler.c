@@ -0,0 +1,41 @@
+#include "scheduler.h"
+
+int axi_read_burst ( int *vals, unsigned int n, int target );
+int axi_write_burst ( int *vals, unsigned int n, int target );
+#include "constants.h"
+#include "mailbox.h"
+// procedures of scheduler
+/**
+ * Starts the scheduling loop of the stream processor.
+ * The scheduling loop performs the following actions in each iteration:
+ *  - write values from the mailbox to the hardware input queue for each input stream
+ *  - read values from the hardware output queue into the mailbox for each output stream
+ */
+void schedule ( ) {
+    unsigned int pid;
+    unsigned int n, done;
+    int *vals;
+
+    while(1) {
+        // write values from the mailbox to the hw queue of each in-going stream
+        for(pid = 0; pid < IN_STREAM_COUNT; pid++) {
+            vals = mailbox_in_front(pid, &n);
+            if(n == 0) continue;
+            
+            // values remain in the mailbox, if the hw queue is full
+            done = axi_write_burst(vals, n, pid);
+            mailbox_in_drop(pid, done);
+        }
+        
+        // read values from the hw queue of each out-going stream into the mailbox
+        for(pid = 0; pid < OUT_STREAM_COUNT; pid++) {
+            vals = mailbox_out_reserve(pid, &n);
+            if(n == 0) continue;
+            
+            // values remain in the hw queue, if the mailbox is full
+            done = axi_read_burst(vals, n, pid);
+            mailbox_out_commit(pid, done);
+        }
+    }
+}
+
@@ -0,0 +1,20 @@
+/**
+ * The scheduler of the stream processor.
+ * Moves values between the mailbox of the medium processor and the hardware queues.
+ * @file
+ * @author Thomas Fischer
+ * @since 18.10.2026
+ */
+#ifndef SCHEDULER_H_
+#define SCHEDULER_H_
+
+// procedures of scheduler
+/**
+ * Starts the scheduling loop of the stream processor.
+ * The scheduling loop performs the following actions in each iteration:
+ *  - write values from the mailbox to the hardware input queue for each input stream
+ *  - read values from the hardware output queue into the mailbox for each output stream
+ */
+void schedule ( );
+
+#endif /* SCHEDULER_H_ */
\ No newline at end of file
@@ -0,0 +1,223 @@
+-- ===================================================================
+--
+-- Author(s): Thomas Fischer
+--
+-- ===================================================================
+--
+-- Description:
+-- * Testbench of the block RAM queue
+-- * Streams values through the queue with an always ready sink and
+--   checks, that one value per cycle is transferred
+-- * Fills the queue with a stalled sink and checks its capacity
+--   (the block RAM and both output registers)
+-- * Streams values with random backpressure on both ends
+-- * Checks order and TLast flag of all received values
+--
+-- ===================================================================
+
+
+-- ===================================================================
+--! @date 18/10/2026
+--! @brief Block RAM queue testbench
+--! @author Thomas Fischer
+-- ===================================================================
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+
+entity bram_queue_tb is
+end bram_queue_tb;
+
+
+architecture behavior of bram_queue_tb is
+
+	----------------------------------------------------------------------------
+	-- Constants
+	----------------------------------------------------------------------------
+
+	constant C_BW      : natural := 32;
+	constant C_DEPTH   : natural := 512;
+	constant C_PERIOD  : time    := 10 ns;
+
+	-- number of values streamed through the queue in the streaming phases
+	constant C_STREAM  : natural := 4 * C_DEPTH;
+	-- cycles, until the first value passes the block RAM and both output registers
+	constant C_LATENCY : natural := 4;
+	-- cycles, after which the queue is considered to be stalled
+	constant C_TIMEOUT : natural := 100 * C_STREAM;
+
+	----------------------------------------------------------------------------
+	-- Signals
+	----------------------------------------------------------------------------
+
+	signal clk  : std_logic := '0';
+	signal rst  : std_logic := '1';
+	signal done : boolean   := false;
+
+	signal in_TReady  : std_logic;
+	signal in_TValid  : std_logic;
+	signal in_TData   : std_logic_vector(C_BW-1 downto 0);
+	signal in_TLast   : std_logic;
+
+	signal out_TReady : std_logic;
+	signal out_TValid : std_logic;
+	signal out_TData  : std_logic_vector(C_BW-1 downto 0);
+	signal out_TLast  : std_logic;
+
+	-- elapsed cycles
+	signal cycle    : natural := 0;
+	-- number of values sent to and received from the queue
+	signal sent     : natural := 0;
+	signal received : natural := 0;
+
+	-- the source sends values, until the limit is reached
+	signal limit    : natural := 0;
+	-- enables source and sink
+	signal src_en   : std_logic := '0';
+	signal snk_en   : std_logic := '0';
+	-- enables random backpressure of source and sink
+	signal src_rand : boolean := false;
+	signal snk_rand : boolean := false;
+
+	-- pseudo random bits for backpressure
+	signal lfsr : std_logic_vector(15 downto 0) := x"ACE1";
+
+begin
+
+	uut : entity work.BRAMQueue
+	generic map
+	(
+		G_BW    => C_BW,
+		G_DEPTH => C_DEPTH
+	)
+	port map
+	(
+		clk        => clk,
+		rst        => rst,
+		in_TReady  => in_TReady,
+		in_TValid  => in_TValid,
+		in_TData   => in_TData,
+		in_TLast   => in_TLast,
+		out_TReady => out_TReady,
+		out_TValid => out_TValid,
+		out_TData  => out_TData,
+		out_TLast  => out_TLast
+	);
+
+	-- the clock stops, when all phases are done
+	clk <= not clk after C_PERIOD / 2 when not done else clk;
+
+	----------------------------------------------------------------------------
+	-- Source and sink
+	----------------------------------------------------------------------------
+
+	-- the source sends the number of values sent so far, every eighth value is the last of a packet
+	in_TValid <= '1' when src_en = '1' and sent < limit and (not src_rand or lfsr(0) = '1') else
+	             '0';
+	in_TData  <= std_logic_vector(to_unsigned(sent, C_BW));
+	in_TLast  <= '1' when sent mod 8 = 7 else
+	             '0';
+
+	out_TReady <= '1' when snk_en = '1' and (not snk_rand or lfsr(7) = '1') else
+	              '0';
+
+	count : process(clk)
+	begin
+		if clk'event and clk='1' then
+			cycle <= cycle + 1;
+			lfsr  <= lfsr(14 downto 0) & (lfsr(15) xor lfsr(13) xor lfsr(12) xor lfsr(10));
+
+			assert cycle < C_TIMEOUT report "queue stalled" severity failure;
+
+			if rst = '0' then
+				if in_TValid = '1' and in_TReady = '1' then
+					sent <= sent + 1;
+				end if;
+
+				-- values have to be received in order and unmodified
+				if out_TValid = '1' and out_TReady = '1' then
+					assert unsigned(out_TData) = received
+						report "received value " & integer'image(to_integer(unsigned(out_TData))) &
+						       " instead of " & integer'image(received) severity error;
+					assert (out_TLast = '1') = (received mod 8 = 7)
+						report "wrong TLast flag of value " & integer'image(received) severity error;
+
+					received <= received + 1;
+				end if;
+			end if;
+		end if;
+	end process;
+
+	----------------------------------------------------------------------------
+	-- Phases
+	----------------------------------------------------------------------------
+
+	stimulus : process
+		variable start  : natural;
+		variable cycles : natural;
+		variable target : natural;
+	begin
+		-- control signals change at falling edges only
+		wait for 4 * C_PERIOD;
+		wait until clk'event and clk='0';
+		rst <= '0';
+
+		-- streaming: one value per cycle after the initial latency
+		wait until clk'event and clk='0';
+		target := C_STREAM;
+		limit  <= target;
+		src_en <= '1';
+		snk_en <= '1';
+		start  := cycle;
+
+		wait until received = target;
+		cycles := cycle - start;
+		report "streaming: " & integer'image(C_STREAM) & " values in " & integer'image(cycles) & " cycles";
+		assert cycles <= C_STREAM + C_LATENCY
+			report "streaming throughput below one value per cycle" severity error;
+
+		-- filling: the stalled queue stores the block RAM and both output registers
+		wait until clk'event and clk='0';
+		snk_en <= '0';
+		limit  <= target + 2 * C_DEPTH;
+
+		wait for 2 * C_DEPTH * C_PERIOD;
+		wait until clk'event and clk='0';
+		src_en <= '0';
+		report "filling: stored " & integer'image(sent - received) & " values";
+		assert sent - received = C_DEPTH + 2
+			report "queue does not store " & integer'image(C_DEPTH + 2) & " values" severity error;
+		assert in_TReady = '0'
+			report "full queue accepts values" severity error;
+
+		-- draining: one value per cycle from the start
+		target := sent;
+		snk_en <= '1';
+		start  := cycle;
+
+		wait until received = target;
+		cycles := cycle - start;
+		report "draining: " & integer'image(C_DEPTH + 2) & " values in " & integer'image(cycles) & " cycles";
+		assert cycles <= C_DEPTH + 2
+			report "draining throughput below one value per cycle" severity error;
+
+		-- random backpressure at both ends
+		wait until clk'event and clk='0';
+		target   := target + C_STREAM;
+		limit    <= target;
+		src_rand <= true;
+		snk_rand <= true;
+		src_en   <= '1';
+		start    := cycle;
+
+		wait until received = target;
+		cycles := cycle - start;
+		report "backpressure: " & integer'image(C_STREAM) & " values in " & integer'image(cycles) & " cycles";
+
+		done <= true;
+		wait;
+	end process;
+
+end behavior;
@@ -0,0 +1,202 @@
+--!
+--! @file
+--! @brief Testbench of the Axi4-Stream serializer and deserializer ip cores
+--! @author Thomas Fischer
+--! @date 18/10/2026
+
+library ieee;
+use ieee.std_logic_1164.all;
+use ieee.numeric_std.all;
+
+--! @details Values of G_BW bits are split into words by a serializer and reassembled by a deserializer.
+--! @details The words between both cores are checked against the wire format
+--!          (most significant word first, zero-padded), the reassembled values against the sent values.
+--! @details Streaming with an always ready sink has to transfer one word per cycle.
+--!          Afterwards, values are streamed with random backpressure on both ends.
+
+entity serdes_tb is
+  generic (G_BW : integer := 48);   --! bit width of values
+end serdes_tb;
+
+architecture behavior of serdes_tb is
+
+  constant C_WORD    : natural := 32;
+  constant C_PERIOD  : time    := 10 ns;
+
+  --! number of words per value
+  constant NUM_WORDS : natural := (G_BW + C_WORD - 1) / C_WORD;
+
+  --! number of values streamed in each phase
+  constant C_VALUES  : natural := 1000;
+  --! cycles, until the first value passes both cores
+  constant C_LATENCY : natural := 3;
+  --! cycles, after which the cores are considered to be stalled
+  constant C_TIMEOUT : natural := 100 * C_VALUES * NUM_WORDS;
+
+  --! the n-th value, each word consists of the word index and the value index
+  function value(n : natural) return std_logic_vector is
+    variable v : std_logic_vector(NUM_WORDS*C_WORD - 1 downto 0);
+  begin
+    for k in 0 to NUM_WORDS - 1 loop
+      v((k + 1)*C_WORD - 1 downto k*C_WORD) :=
+        std_logic_vector(to_unsigned(k, 16)) & std_logic_vector(to_unsigned(n mod 2**16, 16));
+    end loop;
+    return v(G_BW - 1 downto 0);
+  end function;
+
+  --! the n-th word on the wire
+  function word(n : natural) return std_logic_vector is
+    variable v : unsigned(NUM_WORDS*C_WORD - 1 downto 0);
+    variable k : natural;
+  begin
+    v := resize(unsigned(value(n / NUM_WORDS)), NUM_WORDS*C_WORD);
+    k := NUM_WORDS - 1 - n mod NUM_WORDS;
+    return std_logic_vector(v((k + 1)*C_WORD - 1 downto k*C_WORD));
+  end function;
+
+  signal clk  : std_logic := '0';
+  signal rst  : std_logic := '1';
+  signal done : boolean   := false;
+
+  signal in_tdata    : std_logic_vector(G_BW - 1 downto 0);
+  signal in_tlast    : std_logic;
+  signal in_tvalid   : std_logic;
+  signal in_tready   : std_logic;
+
+  signal wire_tdata  : std_logic_vector(C_WORD - 1 downto 0);
+  signal wire_tlast  : std_logic;
+  signal wire_tvalid : std_logic;
+  signal wire_tready : std_logic;
+
+  signal out_tdata   : std_logic_vector(G_BW - 1 downto 0);
+  signal out_tlast   : std_logic;
+  signal out_tvalid  : std_logic;
+  signal out_tready  : std_logic;
+
+  signal cycle    : natural := 0;   --! elapsed cycles
+  signal sent     : natural := 0;   --! values sent to the serializer
+  signal words    : natural := 0;   --! words passed from the serializer to the deserializer
+  signal received : natural := 0;   --! values received from the deserializer
+
+  signal limit    : natural := 0;          --! the source sends values, until the limit is reached
+  signal src_en   : std_logic := '0';      --! enables the source
+  signal snk_en   : std_logic := '0';      --! enables the sink
+  signal random   : boolean := false;      --! enables random backpressure of source and sink
+
+  signal lfsr : std_logic_vector(15 downto 0) := x"ACE1";   --! pseudo random bits for backpressure
+
+begin
+
+  ser : entity work.Serializer
+    generic map (G_BW => G_BW, G_WORD => C_WORD)
+    port map (
+      clk           => clk,
+      rst           => rst,
+      s_axis_tdata  => in_tdata,
+      s_axis_tlast  => in_tlast,
+      s_axis_tvalid => in_tvalid,
+      s_axis_tready => in_tready,
+      m_axis_tdata  => wire_tdata,
+      m_axis_tlast  => wire_tlast,
+      m_axis_tvalid => wire_tvalid,
+      m_axis_tready => wire_tready);
+
+  des : entity work.Deserializer
+    generic map (G_BW => G_BW, G_WORD => C_WORD)
+    port map (
+      clk           => clk,
+      rst           => rst,
+      s_axis_tdata  => wire_tdata,
+      s_axis_tlast  => wire_tlast,
+      s_axis_tvalid => wire_tvalid,
+      s_axis_tready => wire_tready,
+      m_axis_tdata  => out_tdata,
+      m_axis_tlast  => out_tlast,
+      m_axis_tvalid => out_tvalid,
+      m_axis_tready => out_tready);
+
+  -- the clock stops, when all phases are done
+  clk <= not clk after C_PERIOD / 2 when not done else clk;
+
+  -- every fourth value is the last of a packet
+  in_tdata   <= value(sent);
+  in_tlast   <= '1' when sent mod 4 = 3 else '0';
+  in_tvalid  <= '1' when src_en = '1' and sent < limit and (not random or lfsr(0) = '1') else '0';
+  out_tready <= '1' when snk_en = '1' and (not random or lfsr(7) = '1') else '0';
+
+  count : process(clk)
+  begin
+    if (clk'event and clk = '1') then
+      cycle <= cycle + 1;
+      lfsr  <= lfsr(14 downto 0) & (lfsr(15) xor lfsr(13) xor lfsr(12) xor lfsr(10));
+
+      assert cycle < C_TIMEOUT report "cores stalled" severity failure;
+
+      if (rst = '0') then
+        if (in_tvalid = '1' and in_tready = '1') then
+          sent <= sent + 1;
+        end if;
+
+        -- words have to follow the wire format
+        if (wire_tvalid = '1' and wire_tready = '1') then
+          assert wire_tdata = word(words)
+            report "wrong word " & integer'image(words) severity error;
+          assert (wire_tlast = '1') = (words mod (4*NUM_WORDS) = 4*NUM_WORDS - 1)
+            report "wrong TLAST flag of word " & integer'image(words) severity error;
+          words <= words + 1;
+        end if;
+
+        -- values have to be received in order and unmodified
+        if (out_tvalid = '1' and out_tready = '1') then
+          assert out_tdata = value(received)
+            report "wrong value " & integer'image(received) severity error;
+          assert (out_tlast = '1') = (received mod 4 = 3)
+            report "wrong TLAST flag of value " & integer'image(received) severity error;
+          received <= received + 1;
+        end if;
+      end if;
+    end if;
+  end process;
+
+  stimulus : process
+    variable start  : natural;
+    variable cycles : natural;
+    variable target : natural;
+  begin
+    -- control signals change at falling edges only
+    wait for 4 * C_PERIOD;
+    wait until clk'event and clk = '0';
+    rst <= '0';
+
+    -- streaming: one word per cycle after the initial latency
+    wait until clk'event and clk = '0';
+    target := C_VALUES;
+    limit  <= target;
+    src_en <= '1';
+    snk_en <= '1';
+    start  := cycle;
+
+    wait until received = target;
+    cycles := cycle - start;
+    report integer'image(G_BW) & " bit streaming: " & integer'image(C_VALUES * NUM_WORDS) &
+           " words in " & integer'image(cycles) & " cycles";
+    assert cycles <= C_VALUES * NUM_WORDS + C_LATENCY
+      report "streaming throughput below one word per cycle" severity error;
+
+    -- random backpressure at both ends
+    wait until clk'event and clk = '0';
+    target := target + C_VALUES;
+    limit  <= target;
+    random <= true;
+    start  := cycle;
+
+    wait until received = target;
+    cycles := cycle - start;
+    report integer'image(G_BW) & " bit backpressure: " & integer'image(C_VALUES * NUM_WORDS) &
+           " words in " & integer'image(cycles) & " cycles";
+
+    done <= true;
+    wait;
+  end process;
+
+end architecture behavior;